@@ -61,6 +61,12 @@ public class History {
 	private volatile Entry fNewest;
 	private volatile Entry fOldest;
 	
+	/**
+	 * The entries (ring buffer, starting with the oldest entry at {@link #fEntriesStart})
+	 */
+	private Entry[] fEntries = new Entry[16];
+	private int fEntriesStart;
+	
 	private final ListenerList fListeners = new ListenerList(ListenerList.IDENTITY);
 	private final ReentrantReadWriteLock fLock = new ReentrantReadWriteLock();
 	
@@ -81,10 +87,12 @@ public class History {
 		private final long fTimeStamp;
 		private final SubmitType fSubmitType;
 		private final int fIsEmpty;
+		private final long fIndex;
 		private volatile Entry fOlder;
 		private volatile Entry fNewer;
 		
 		private Entry(final Entry older, final String command, final long stamp, final SubmitType submitType) {
+			fIndex = (older != null) ? older.fIndex + 1 : 0;
 			fCommand = command;
 			fIsEmpty = createCommandMarker(command);
 			fTimeStamp = stamp;
@@ -208,7 +216,44 @@ public class History {
 	private void trimSize() {
 		while (fCurrentSize > fMaxSize) {
 			fOldest = fOldest.dispose();
-			fCurrentSize--;
+			removeOldestFromArray();
+		}
+	}
+	
+	private void addToArray(final Entry entry) {
+		if (fCurrentSize == fEntries.length) {
+			final Entry[] newEntries = new Entry[fEntries.length * 2];
+			copyFromArray(newEntries);
+			fEntries = newEntries;
+			fEntriesStart = 0;
+		}
+		fEntries[(fEntriesStart + fCurrentSize) % fEntries.length] = entry;
+		fCurrentSize++;
+	}
+	
+	private void removeOldestFromArray() {
+		fEntries[fEntriesStart] = null;
+		fEntriesStart = (fEntriesStart + 1) % fEntries.length;
+		fCurrentSize--;
+	}
+	
+	private void copyFromArray(final Entry[] array) {
+		final int n = Math.min(fCurrentSize, fEntries.length - fEntriesStart);
+		System.arraycopy(fEntries, fEntriesStart, array, 0, n);
+		System.arraycopy(fEntries, 0, array, n, fCurrentSize - n);
+	}
+	
+	private void rebuildArray() {
+		int capacity = 16;
+		while (capacity < fCurrentSize) {
+			capacity *= 2;
+		}
+		fEntries = new Entry[capacity];
+		fEntriesStart = 0;
+		Entry e = fOldest;
+		for (int i = 0; i < fCurrentSize; i++) {
+			fEntries[i] = e;
+			e = e.fNewer;
 		}
 	}
 	
@@ -279,6 +324,7 @@ public class History {
 				fOldest = exch.oldest;
 				fNewest = exch.newest;
 				fCurrentSize = exch.size;
+				rebuildArray();
 				if (fCurrentSize > fMaxSize) {
 					trimSize();
 				}
@@ -419,10 +465,9 @@ public class History {
 			if (fCurrentSize == fMaxSize) {
 				removedEntry = fOldest;
 				fOldest = fOldest.dispose();
+				removeOldestFromArray();
 			}
-			else {
-				fCurrentSize++;
-			}
+			addToArray(newEntry);
 			
 			final Object[] listeners = fListeners.getListeners();
 			for (final Object obj : listeners) {
@@ -462,14 +507,58 @@ public class History {
 			return array;
 		}
 		array = new Entry[fCurrentSize];
-		Entry e = fOldest;
-		for (int i = 0; i < array.length; i++) {
-			array[i] = e;
-			e = e.fNewer;
-		}
+		copyFromArray(array);
 		return array;
 	}
 	
+	/**
+	 * Returns the number of entries.
+	 * <p>
+	 * Make shure, that you have a read lock.
+	 * 
+	 * @return the number of entries
+	 */
+	public final int size() {
+		return fCurrentSize;
+	}
+	
+	/**
+	 * Returns the entry at the specified position in the array with all entries
+	 * (see {@link #toArray()}), without copying the array.
+	 * <p>
+	 * Make shure, that you have a read lock.
+	 * 
+	 * @param idx the position, oldest entry first
+	 * @return the entry
+	 */
+	public final Entry get(final int idx) {
+		if (idx < 0 || idx >= fCurrentSize) {
+			throw new IndexOutOfBoundsException("idx: " + idx); //$NON-NLS-1$
+		}
+		return fEntries[(fEntriesStart + idx) % fEntries.length];
+	}
+	
+	/**
+	 * Returns the position of the entry in the array with all entries (see {@link #toArray()}).
+	 * The position is computed from the sequence number of the entry, without walking through
+	 * the entries.
+	 * <p>
+	 * Make shure, that you have a read lock.
+	 * 
+	 * @param entry the entry
+	 * @return the position or <code>-1</code>, if the entry is not (longer) in this history
+	 */
+	public final int indexOf(final Entry entry) {
+		if (fCurrentSize == 0 || entry.getHistory() != this) {
+			return -1;
+		}
+		final long idx = entry.fIndex - fEntries[fEntriesStart].fIndex;
+		if (idx < 0 || idx >= fCurrentSize || get((int) idx) != entry) {
+			return -1;
+		}
+		return (int) idx;
+	}
+	
 	
 	/**
 	 * Adds the given listener to this history.
@@ -0,0 +1,39 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.nico.core.runtime;
+
+import de.walware.ecommons.ts.IToolRunnable;
+
+
+/**
+ * Optional interface for runnables, which must not be queued again while an equivalent runnable
+ * is waiting in the queue, like background updates.
+ * <p>
+ * If the runnable is submitted by {@link Queue#add(IToolRunnable)} or
+ * {@link Queue#addHot(IToolRunnable)} and a runnable with the same type id and an equal
+ * coalescing key is already waiting in the queue respectively the hot list, the runnable is rejected:
+ * it is not added to the queue, it doesn't receive any event and the returned status has the
+ * severity {@link org.eclipse.core.runtime.IStatus#INFO INFO} and the code
+ * {@link Queue#COALESCED}.</p>
+ */
+public interface ICoalescingRunnable extends IToolRunnable {
+	
+	
+	/**
+	 * Returns the key identifying the work of the runnable, e.g. its target.
+	 * The key must not change while the runnable is in the queue.
+	 * 
+	 * @return the key
+	 */
+	Object getCoalescingKey();
+	
+}
@@ -14,9 +14,11 @@ package de.walware.statet.nico.core.runtime;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -54,6 +56,10 @@ import de.walware.statet.nico.internal.core.Messages;
  * </pre>
  * The events of this type are sended by the queue (source element).
  * 
+ * The monitor of the queue is also the state lock of the {@link ToolController}: the controller
+ * checks its state, selects the next runnable and waits for new runnables in one block
+ * synchronized on the queue. Therefore all operations of the queue are synchronized on it, and
+ * the threads waiting on it are woken up only if the tool waits for new runnables.
  */
 public final class Queue implements IQueue {
 	
@@ -92,6 +98,12 @@ public final class Queue implements IQueue {
 	 */
 	public static final int QUEUE_INFO = 1;
 	
+	/**
+	 * Status code if a submitted {@link ICoalescingRunnable} is rejected, because an equivalent
+	 * runnable is already waiting in the queue.
+	 */
+	public static final int COALESCED = 0x10;
+	
 //	/**
 //	 * Constant for detail of a DebugEvent, signalising that
 //	 * queue has changed e.g. reordered, cleared,... .
@@ -157,7 +169,24 @@ public final class Queue implements IQueue {
 	private final List<RankedItem> fOnIdleList = new ArrayList<RankedItem>();
 	private final LinkedList<IToolRunnable> fNextIdleList = new LinkedList<IToolRunnable>();
 	
-	private final LinkedList<IToolRunnable> fHotList = new LinkedList<IToolRunnable>();
+	private final Deque<IToolRunnable> fHotList = new ArrayDeque<IToolRunnable>();
+	
+	/** Time (nanoTime) when the runnables were added to the list */
+	private final Map<IToolRunnable, Long> fAddTimes = new IdentityHashMap<IToolRunnable, Long>();
+	/** Time the last polled runnable waited in the queue, or -1 if unknown */
+	long fLastPollWaitTime = -1;
+	
+	/** Number of started background runnables ({@link ISystemRunnable}s and hot runnables) */
+	private long fBackgroundStarted;
+	/** If the last polled runnable is a background runnable and not yet finished */
+	private volatile boolean fBackgroundRunning;
+	/**
+	 * {@link #fBackgroundStarted} when interactive runnables were added to the list, less one if
+	 * a background runnable was running
+	 */
+	private final Map<IToolRunnable, Long> fAddBackgroundCounts = new IdentityHashMap<IToolRunnable, Long>();
+	/** If background runnables run while the last polled runnable waited in the queue */
+	boolean fLastPollUnderLoad;
 	
 	
 	Queue(final ToolProcess process) {
@@ -193,6 +222,9 @@ public final class Queue implements IQueue {
 	 * Submits the runnable for the tool.
 	 * <p>
 	 * The runnable will be added to the queue and will be run, if it's its turn.
+	 * <p>
+	 * If the runnable is a {@link ICoalescingRunnable} and an equivalent runnable is already
+	 * waiting in the queue, the runnable is rejected with a status with the code {@link #COALESCED}.
 	 * 
 	 * @param runnable the runnable to add
 	 * @return the status of the queue operation.
@@ -229,6 +261,14 @@ public final class Queue implements IQueue {
 		final ToolStatus toolStatus = fProcess.getToolStatus();
 		final IStatus status = acceptSubmit(toolStatus);
 		if (status.getSeverity() < IStatus.ERROR) {
+			if (runnables.length == 1 && runnables[0] instanceof ICoalescingRunnable) {
+				final IToolRunnable pending = getPendingEquivalent((ICoalescingRunnable) runnables[0]);
+				if (pending != null) {
+					return new Status(IStatus.INFO, NicoCore.PLUGIN_ID, COALESCED,
+							NLS.bind(Messages.ToolController_SubmitCoalesced_message, pending.getLabel()),
+							null );
+				}
+			}
 			if (toolStatus.isWaiting()) {
 				internalAdd(runnables, true);
 				notifyAll();
@@ -269,6 +309,7 @@ public final class Queue implements IQueue {
 				final int index = fList.indexOf(runnable);
 				if (index >= 0 && runnable.changed(IToolRunnable.REMOVING_FROM, fProcess)) {
 					fList.remove(index);
+					removeAddTime(runnable);
 					removed.add(runnable);
 					if (!checkInsert && index < fInsertIndex) {
 						checkInsert = true;
@@ -280,6 +321,9 @@ public final class Queue implements IQueue {
 			}
 	//		IToolRunnable[] queueElements = fList.toArray(new IToolRunnable[fList.size()]);
 	//		addDebugEvent(COMPLETE_CHANGE, queueElements);
+			if (removed.isEmpty()) {
+				return;
+			}
 			final IToolRunnable[] array = removed.toArray(new IToolRunnable[removed.size()]);
 			addChangeEvent(IToolRunnable.REMOVING_FROM, array);
 			fireEvents();
@@ -294,14 +338,17 @@ public final class Queue implements IQueue {
 			throw new NullPointerException("to"); //$NON-NLS-1$
 		}
 		final IToolRunnable[] array;
+		final Long[] addTimes;
 		synchronized (this) {
 			checkIOCache();
 			final List<IToolRunnable> removed = new ArrayList<IToolRunnable>(runnables.length);
+			final List<Long> removedAddTimes = new ArrayList<Long>(runnables.length);
 			boolean checkInsert = false;
 			for (final IToolRunnable runnable : runnables) {
 				final int index = fList.indexOf(runnable);
 				if (index >= 0 && runnable.changed(IToolRunnable.MOVING_FROM, fProcess)) {
 					fList.remove(index);
+					removedAddTimes.add(removeAddTime(runnable));
 					removed.add(runnable);
 					if (!checkInsert && index < fInsertIndex) {
 						checkInsert = true;
@@ -311,13 +358,18 @@ public final class Queue implements IQueue {
 			if (checkInsert) {
 				fInsertIndex = fList.indexOf(fInsertRunnable);
 			}
+			if (removed.isEmpty()) {
+				return;
+			}
 			array = removed.toArray(new IToolRunnable[removed.size()]);
+			addTimes = removedAddTimes.toArray(new Long[removedAddTimes.size()]);
 			addChangeEvent(IToolRunnable.MOVING_FROM, array);
 			fireEvents();
 		}
 		
 		synchronized (to) {
 			to.checkIOCache();
+			to.internalKeepAddTimes(array, addTimes);
 			if (to == this && fInsertIndex >= 0) {
 				fList.addAll(fInsertIndex, new ConstArrayList<IToolRunnable>(array));
 				for (int i = 0; i < array.length; i++) {
@@ -335,7 +387,7 @@ public final class Queue implements IQueue {
 				to.addChangeEvent(IToolRunnable.MOVING_TO, array);
 			}
 			to.fireEvents();
-			to.notifyAll();
+			to.notifyIfWaiting();
 		}
 	}
 	
@@ -344,33 +396,41 @@ public final class Queue implements IQueue {
 			throw new NullPointerException("to"); //$NON-NLS-1$
 		}
 		final IToolRunnable[] array;
+		final Long[] addTimes;
 		synchronized (this) {
 			checkIOCache();
 			final List<IToolRunnable> removed = new ArrayList<IToolRunnable>(fList.size());
+			final List<Long> removedAddTimes = new ArrayList<Long>(fList.size());
 			for (final Iterator<IToolRunnable> iter = fList.iterator(); iter.hasNext();) {
 				final IToolRunnable runnable = iter.next();
 				if (runnable.changed(IToolRunnable.MOVING_FROM, fProcess)) {
 					iter.remove();
+					removedAddTimes.add(removeAddTime(runnable));
 					removed.add(runnable);
 				}
 			}
 			if (fInsertIndex >= 0) {
 				fInsertIndex = fList.indexOf(fInsertRunnable);
 			}
+			if (removed.isEmpty()) {
+				return;
+			}
 			array = removed.toArray(new IToolRunnable[removed.size()]);
+			addTimes = removedAddTimes.toArray(new Long[removedAddTimes.size()]);
 			addChangeEvent(IToolRunnable.MOVING_FROM, array);
 			fireEvents();
 		}
 		
 		synchronized (to) {
 			to.checkIOCache();
+			to.internalKeepAddTimes(array, addTimes);
 			to.fList.addAll(new ConstArrayList<IToolRunnable>(array));
 			for (int i = 0; i < array.length; i++) {
 				array[i].changed(IToolRunnable.MOVING_TO, to.fProcess);
 			}
 			to.addChangeEvent(IToolRunnable.MOVING_TO, array);
 			to.fireEvents();
-			to.notifyAll();
+			to.notifyIfWaiting();
 		}
 	}
 	
@@ -413,8 +473,10 @@ public final class Queue implements IQueue {
 							}
 						}
 					}
+					if (toolStatus.isWaiting()) {
+						notifyAll();
+					}
 				}
-				notifyAll();
 			}
 			return status;
 		}
@@ -440,6 +502,17 @@ public final class Queue implements IQueue {
 		return addHot(runnable, 0);
 	}
 	
+	/**
+	 * Submits the runnable for the tool to run in the hot mode.
+	 * <p>
+	 * If the runnable is a {@link ICoalescingRunnable} and an equivalent runnable is already
+	 * waiting in the hot list, the runnable is rejected with a status with the code
+	 * {@link #COALESCED}.</p>
+	 * 
+	 * @param runnable the runnable to add
+	 * @param strategy <code>1</code> to skip the runnable if it is already in the hot list
+	 * @return the status of the queue operation.
+	 */
 	public IStatus addHot(final IToolRunnable runnable, final int strategy) {
 		if (runnable == null) {
 			throw new NullPointerException("runnable"); //$NON-NLS-1$
@@ -453,6 +526,15 @@ public final class Queue implements IQueue {
 						return Status.OK_STATUS;
 					}
 				}
+				if (runnable instanceof ICoalescingRunnable) {
+					for (final IToolRunnable pending : fHotList) {
+						if (isEquivalent(pending, (ICoalescingRunnable) runnable)) {
+							return new Status(IStatus.INFO, NicoCore.PLUGIN_ID, COALESCED,
+									NLS.bind(Messages.ToolController_SubmitCoalesced_message, pending.getLabel()),
+									null );
+						}
+					}
+				}
 				fHotList.add(runnable);
 				if (fHotList.size() > 0) {
 					notifyAll();
@@ -479,7 +561,68 @@ public final class Queue implements IQueue {
 	}
 	
 	
+	/**
+	 * Returns the runnable waiting in the queue, which is equivalent to the specified runnable
+	 * according to {@link ICoalescingRunnable}.
+	 * 
+	 * @return the waiting runnable or <code>null</code>
+	 */
+	private IToolRunnable getPendingEquivalent(final ICoalescingRunnable runnable) {
+		if (fSingleIOCache != null) {
+			for (final IToolRunnable pending : fSingleIOCache) {
+				if (isEquivalent(pending, runnable)) {
+					return pending;
+				}
+			}
+		}
+		for (final IToolRunnable pending : fList) {
+			if (isEquivalent(pending, runnable)) {
+				return pending;
+			}
+		}
+		return null;
+	}
+	
+	private static boolean isEquivalent(final IToolRunnable pending, final ICoalescingRunnable runnable) {
+		if (pending == runnable) {
+			return true;
+		}
+		if (!(pending instanceof ICoalescingRunnable)) {
+			return false;
+		}
+		final String typeId = runnable.getTypeId();
+		final Object key = runnable.getCoalescingKey();
+		return (typeId != null && typeId.equals(pending.getTypeId())
+				&& key != null && key.equals(((ICoalescingRunnable) pending).getCoalescingKey()) );
+	}
+	
+	/**
+	 * Keeps the time a moved runnable was added, so the wait time includes the time in the
+	 * previous queue.
+	 */
+	private void internalKeepAddTimes(final IToolRunnable[] runnables, final Long[] addTimes) {
+		for (int i = 0; i < runnables.length; i++) {
+			if (addTimes[i] != null) {
+				fAddTimes.put(runnables[i], addTimes[i]);
+			}
+		}
+	}
+	
+	private Long removeAddTime(final IToolRunnable runnable) {
+		fAddBackgroundCounts.remove(runnable);
+		return fAddTimes.remove(runnable);
+	}
+	
 	void internalAdd(final IToolRunnable[] runnables, final boolean allowCache) {
+		final Long time = Long.valueOf(System.nanoTime());
+		final Long backgroundCount = Long.valueOf((fBackgroundRunning) ?
+				fBackgroundStarted - 1 : fBackgroundStarted );
+		for (int i = 0; i < runnables.length; i++) {
+			fAddTimes.put(runnables[i], time);
+			if (!(runnables[i] instanceof ISystemRunnable)) {
+				fAddBackgroundCounts.put(runnables[i], backgroundCount);
+			}
+		}
 		if (allowCache && fSingleIOCache == null && fList.isEmpty()
 				&& runnables.length == 1) {
 			fSingleIOCache = runnables;
@@ -544,11 +687,13 @@ public final class Queue implements IQueue {
 			final IToolRunnable toRemove = iter.next();
 			if (toRemove == runnable) {
 				iter.remove();
+				removeAddTime(toRemove);
 				removed.add(toRemove);
 				break;
 			}
 			if (toRemove.changed(IToolRunnable.REMOVING_FROM, fProcess)) {
 				iter.remove();
+				removeAddTime(toRemove);
 				removed.add(toRemove);
 			}
 		}
@@ -606,7 +751,11 @@ public final class Queue implements IQueue {
 	}
 	
 	IToolRunnable internalPollHot() {
-		return fHotList.poll();
+		final IToolRunnable runnable = fHotList.poll();
+		if (runnable != null) {
+			fBackgroundStarted++;
+		}
+		return runnable;
 	}
 	
 	void internalCheck() {
@@ -658,6 +807,15 @@ public final class Queue implements IQueue {
 			runnable = new IToolRunnable[] { fNextIdleList.poll() };
 			fResetOnIdle = true;
 		}
+		final Long addTime = fAddTimes.remove(runnable[0]);
+		fLastPollWaitTime = (addTime != null) ? System.nanoTime() - addTime.longValue() : -1;
+		final Long addBackgroundCount = fAddBackgroundCounts.remove(runnable[0]);
+		fLastPollUnderLoad = (addBackgroundCount != null
+				&& fBackgroundStarted > addBackgroundCount.longValue() );
+		fBackgroundRunning = (runnable[0] instanceof ISystemRunnable);
+		if (fBackgroundRunning) {
+			fBackgroundStarted++;
+		}
 		addChangeEvent(IToolRunnable.STARTING, runnable);
 		
 		fireEvents();
@@ -671,6 +829,7 @@ public final class Queue implements IQueue {
 	void internalFinished(final IToolRunnable runnable, final int detail) {
 		assert (runnable == fFinishedExpected.peek()[0]);
 		
+		fBackgroundRunning = false;
 		addChangeEvent(detail, fFinishedExpected.poll());
 	}
 	
@@ -700,6 +859,8 @@ public final class Queue implements IQueue {
 					new Delta(IToolRunnable.BEING_ABANDONED, -1, array) );
 			fList.clear();
 		}
+		fAddTimes.clear();
+		fAddBackgroundCounts.clear();
 		if (!fHotList.isEmpty()){
 			final IToolRunnable[] array = fHotList.toArray(new IToolRunnable[fHotList.size()]);
 			for (int i = 0; i < array.length; i++) {
@@ -718,6 +879,17 @@ public final class Queue implements IQueue {
 	}
 	
 	
+	/**
+	 * Wakes up the controller, if it waits for new runnables.
+	 * 
+	 * Other changes of the queue don't require to wake up the threads waiting on the queue.
+	 */
+	private void notifyIfWaiting() {
+		if (fProcess.getToolStatus().isWaiting()) {
+			notifyAll();
+		}
+	}
+	
 	private void checkIOCache() {
 		if (fSingleIOCache != null) {
 			if (fInsertIndex >= 0) {
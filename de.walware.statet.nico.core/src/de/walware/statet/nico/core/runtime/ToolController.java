@@ -424,6 +424,8 @@ public abstract class ToolController implements IConsoleService {
 	private IToolRunnable fPostControllerRunnable;
 	private RunnableProgressMonitor fRunnableProgressMonitor;
 	
+	private final ToolRunnableStatistics fRunnableStatistics = new ToolRunnableStatistics();
+	
 	private Thread fControllerThread;
 	private ToolStatus fStatus = ToolStatus.STARTING;
 	private ToolStatus fStatusPrevious;
@@ -541,6 +543,15 @@ public abstract class ToolController implements IConsoleService {
 		return streams;
 	}
 	
+	/**
+	 * Returns the statistics about the runnables run by this controller.
+	 * 
+	 * @return the statistics
+	 */
+	public final ToolRunnableStatistics getRunnableStatistics() {
+		return fRunnableStatistics;
+	}
+	
 	@Override
 	public ToolProcess getTool() {
 		return fProcess;
@@ -1159,6 +1170,8 @@ public abstract class ToolController implements IConsoleService {
 		while (true) {
 			final int type;
 			final IToolRunnable savedCurrentRunnable = fCurrentRunnable;
+			long waitTime = -1;
+			boolean underLoad = false;
 			synchronized (fQueue) {
 				if (fControllerRunnables.size() > 0) {
 					type = Queue.RUN_RESERVED;
@@ -1176,6 +1189,8 @@ public abstract class ToolController implements IConsoleService {
 					case Queue.RUN_OTHER:
 					case Queue.RUN_DEFAULT:
 						setCurrentRunnable(fQueue.internalPoll());
+						waitTime = fQueue.fLastPollWaitTime;
+						underLoad = fQueue.fLastPollUnderLoad;
 						break;
 					default:
 						return;
@@ -1203,6 +1218,8 @@ public abstract class ToolController implements IConsoleService {
 							new RunnableProgressMonitor(fCurrentRunnable));
 				}
 			}
+			final long runStart = System.nanoTime();
+			int finishDetail = IToolRunnable.FINISHING_OK;
 			switch (type) {
 			case Queue.RUN_RESERVED:
 				try {
@@ -1213,10 +1230,12 @@ public abstract class ToolController implements IConsoleService {
 				catch (final Throwable e) {
 					final IStatus status = (e instanceof CoreException) ? ((CoreException) e).getStatus() : null;
 					if (status != null && (status.getSeverity() == IStatus.CANCEL || status.getSeverity() <= IStatus.INFO)) {
+						finishDetail = IToolRunnable.FINISHING_CANCEL;
 						safeRunnableChanged(fCurrentRunnable, IToolRunnable.FINISHING_CANCEL);
 						// ignore
 					}
 					else {
+						finishDetail = IToolRunnable.FINISHING_ERROR;
 						NicoPlugin.logError(-1, NLS.bind(
 								"An Error occurred when running internal controller task ''{0}''.", //$NON-NLS-1$
 								fCurrentRunnable.getLabel() ), e);
@@ -1229,6 +1248,7 @@ public abstract class ToolController implements IConsoleService {
 					return;
 				}
 				finally {
+					fRunnableStatistics.record(fCurrentRunnable, -1, System.nanoTime() - runStart, finishDetail);
 					setCurrentRunnable(savedCurrentRunnable);
 					fCurrentSubmitType = null;
 					fRunnableProgressMonitor.done();
@@ -1258,10 +1278,12 @@ public abstract class ToolController implements IConsoleService {
 					IStatus status = (e instanceof CoreException) ? ((CoreException) e).getStatus() : null;
 					if (status != null && (
 							status.getSeverity() == IStatus.CANCEL || status.getSeverity() <= IStatus.INFO)) {
+						finishDetail = IToolRunnable.FINISHING_CANCEL;
 						fQueue.internalFinished(fCurrentRunnable, IToolRunnable.FINISHING_CANCEL);
 						safeRunnableChanged(fCurrentRunnable, IToolRunnable.FINISHING_CANCEL);
 					}
 					else {
+						finishDetail = IToolRunnable.FINISHING_ERROR;
 						fQueue.internalFinished(fCurrentRunnable, IToolRunnable.FINISHING_ERROR);
 						safeRunnableChanged(fCurrentRunnable, IToolRunnable.FINISHING_ERROR);
 						status = new Status(IStatus.ERROR, NicoCore.PLUGIN_ID, NicoPlugin.EXTERNAL_ERROR,
@@ -1282,6 +1304,10 @@ public abstract class ToolController implements IConsoleService {
 					return;
 				}
 				finally {
+					fRunnableStatistics.record(fCurrentRunnable, waitTime, System.nanoTime() - runStart, finishDetail);
+					if (waitTime >= 0 && fCurrentRunnable instanceof ConsoleCommandRunnable) {
+						fRunnableStatistics.recordCommandLatency(waitTime, underLoad);
+					}
 					if (fPostControllerRunnable != null) {
 						synchronized (fQueue) {
 							fControllerRunnables.remove(fPostControllerRunnable);
@@ -1355,6 +1381,8 @@ public abstract class ToolController implements IConsoleService {
 				fHotMode = true;
 				fHotModeMonitor.setCanceled(false);
 			}
+			final long runStart = System.nanoTime();
+			int finishDetail = IToolRunnable.FINISHING_OK;
 			try {
 				runnable.run(this, fHotModeMonitor);
 				safeRunnableChanged(runnable, IToolRunnable.FINISHING_OK);
@@ -1363,10 +1391,12 @@ public abstract class ToolController implements IConsoleService {
 			catch (final Throwable e) {
 				final IStatus status = (e instanceof CoreException) ? ((CoreException) e).getStatus() : null;
 				if (status != null && (status.getSeverity() == IStatus.CANCEL || status.getSeverity() <= IStatus.INFO)) {
+					finishDetail = IToolRunnable.FINISHING_CANCEL;
 					safeRunnableChanged(runnable, IToolRunnable.FINISHING_CANCEL);
 					// ignore
 				}
 				else {
+					finishDetail = IToolRunnable.FINISHING_ERROR;
 					safeRunnableChanged(runnable, IToolRunnable.FINISHING_ERROR);
 					NicoPlugin.logError(-1, "An Error occurred when running hot task.", e); // //$NON-NLS-1$
 				}
@@ -1375,6 +1405,9 @@ public abstract class ToolController implements IConsoleService {
 					markAsTerminated();
 				}
 			}
+			finally {
+				fRunnableStatistics.record(runnable, -1, System.nanoTime() - runStart, finishDetail);
+			}
 		}
 	}
 	
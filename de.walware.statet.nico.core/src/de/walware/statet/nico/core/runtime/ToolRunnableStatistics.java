@@ -0,0 +1,404 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.nico.core.runtime;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import de.walware.ecommons.ts.IToolRunnable;
+
+
+/**
+ * Statistics about the runnables run by a tool controller, grouped by the type id of the
+ * runnables.
+ * 
+ * For each type the number of runs and their outcome, the time the runnables waited in the queue
+ * and the time they run is recorded. The run times are additionally counted in a histogram with
+ * exponential buckets (bucket <code>i</code> contains durations < 2<sup>i</sup> ms).
+ * 
+ * Additionally the latency of the console commands (the time from the submit until the start
+ * of the command) is recorded separately for commands which waited while background runnables
+ * were running (under load) and commands which did not, see {@link #getCommandLatency(boolean)}.
+ * 
+ * Controllers can add own counters by {@link #getCounter(String)}.
+ * 
+ * The statistics are updated by the controller thread and can be read by any thread.
+ * 
+ * @see ToolController#getRunnableStatistics()
+ */
+public final class ToolRunnableStatistics {
+	
+	
+	public static final int HISTOGRAM_SIZE = 20;
+	
+	
+	public static final class TypeStatistics {
+		
+		private final String fTypeId;
+		
+		private final AtomicLong fCount = new AtomicLong();
+		private final AtomicLong fCancelCount = new AtomicLong();
+		private final AtomicLong fErrorCount = new AtomicLong();
+		
+		private final AtomicLong fWaitCount = new AtomicLong();
+		private final AtomicLong fWaitTotal = new AtomicLong();
+		private final AtomicLong fWaitMax = new AtomicLong();
+		
+		private final AtomicLong fRunTotal = new AtomicLong();
+		private final AtomicLong fRunMax = new AtomicLong();
+		private final AtomicLongArray fRunHistogram = new AtomicLongArray(HISTOGRAM_SIZE);
+		
+		
+		private TypeStatistics(final String typeId) {
+			fTypeId = typeId;
+		}
+		
+		
+		public String getTypeId() {
+			return fTypeId;
+		}
+		
+		/**
+		 * @return the number of finished runs
+		 */
+		public long getCount() {
+			return fCount.get();
+		}
+		
+		/**
+		 * @return the number of canceled runs
+		 */
+		public long getCancelCount() {
+			return fCancelCount.get();
+		}
+		
+		/**
+		 * @return the number of runs finished with an error
+		 */
+		public long getErrorCount() {
+			return fErrorCount.get();
+		}
+		
+		/**
+		 * @return the total time the runnables waited in the queue in nanoseconds
+		 */
+		public long getWaitTotal() {
+			return fWaitTotal.get();
+		}
+		
+		/**
+		 * @return the max time a runnable waited in the queue in nanoseconds
+		 */
+		public long getWaitMax() {
+			return fWaitMax.get();
+		}
+		
+		/**
+		 * @return the number of runs with known wait time
+		 */
+		public long getWaitCount() {
+			return fWaitCount.get();
+		}
+		
+		/**
+		 * @return the total run time in nanoseconds
+		 */
+		public long getRunTotal() {
+			return fRunTotal.get();
+		}
+		
+		/**
+		 * @return the max run time in nanoseconds
+		 */
+		public long getRunMax() {
+			return fRunMax.get();
+		}
+		
+		/**
+		 * @return the histogram of the run times
+		 */
+		public long[] getRunHistogram() {
+			final long[] histogram = new long[HISTOGRAM_SIZE];
+			for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+				histogram[i] = fRunHistogram.get(i);
+			}
+			return histogram;
+		}
+		
+		
+		private void record(final long waitTime, final long runTime, final int finishDetail) {
+			fCount.incrementAndGet();
+			switch (finishDetail) {
+			case IToolRunnable.FINISHING_CANCEL:
+				fCancelCount.incrementAndGet();
+				break;
+			case IToolRunnable.FINISHING_ERROR:
+				fErrorCount.incrementAndGet();
+				break;
+			default:
+				break;
+			}
+			if (waitTime >= 0) {
+				fWaitCount.incrementAndGet();
+				fWaitTotal.addAndGet(waitTime);
+				updateMax(fWaitMax, waitTime);
+			}
+			fRunTotal.addAndGet(runTime);
+			updateMax(fRunMax, runTime);
+			fRunHistogram.incrementAndGet(getHistogramIdx(runTime));
+		}
+		
+	}
+	
+	
+	public static final class LatencyStatistics {
+		
+		private final AtomicLong fCount = new AtomicLong();
+		private final AtomicLong fTotal = new AtomicLong();
+		private final AtomicLong fMax = new AtomicLong();
+		
+		
+		private LatencyStatistics() {
+		}
+		
+		
+		/**
+		 * @return the number of recorded commands
+		 */
+		public long getCount() {
+			return fCount.get();
+		}
+		
+		/**
+		 * @return the total latency in nanoseconds
+		 */
+		public long getTotal() {
+			return fTotal.get();
+		}
+		
+		/**
+		 * @return the max latency in nanoseconds
+		 */
+		public long getMax() {
+			return fMax.get();
+		}
+		
+		
+		private void record(final long latency) {
+			fCount.incrementAndGet();
+			fTotal.addAndGet(latency);
+			updateMax(fMax, latency);
+		}
+		
+		private void clear() {
+			fCount.set(0);
+			fTotal.set(0);
+			fMax.set(0);
+		}
+		
+	}
+	
+	
+	private static void updateMax(final AtomicLong max, final long value) {
+		long current;
+		while ((current = max.get()) < value) {
+			if (max.compareAndSet(current, value)) {
+				return;
+			}
+		}
+	}
+	
+	private static int getHistogramIdx(final long nanos) {
+		final long millis = nanos / 1000000L;
+		final int idx = 64 - Long.numberOfLeadingZeros(millis);
+		return (idx < HISTOGRAM_SIZE) ? idx : HISTOGRAM_SIZE - 1;
+	}
+	
+	
+	private final ConcurrentMap<String, TypeStatistics> fTypes = new ConcurrentHashMap<String, TypeStatistics>();
+	
+	private final LatencyStatistics fCommandLatency = new LatencyStatistics();
+	private final LatencyStatistics fCommandLatencyUnderLoad = new LatencyStatistics();
+	
+	private final ConcurrentMap<String, AtomicLong> fCounters = new ConcurrentHashMap<String, AtomicLong>();
+	
+	
+	ToolRunnableStatistics() {
+	}
+	
+	
+	/**
+	 * Records a finished run of a runnable.
+	 * 
+	 * @param runnable the runnable
+	 * @param waitTime the time the runnable waited in the queue in nanoseconds or -1 if unknown
+	 * @param runTime the run time in nanoseconds
+	 * @param finishDetail the finishing event type ({@link IToolRunnable#FINISHING_OK} etc.)
+	 */
+	void record(final IToolRunnable runnable, final long waitTime, final long runTime,
+			final int finishDetail) {
+		String typeId = runnable.getTypeId();
+		if (typeId == null) {
+			typeId = ""; //$NON-NLS-1$
+		}
+		TypeStatistics stats = fTypes.get(typeId);
+		if (stats == null) {
+			stats = new TypeStatistics(typeId);
+			final TypeStatistics previous = fTypes.putIfAbsent(typeId, stats);
+			if (previous != null) {
+				stats = previous;
+			}
+		}
+		stats.record(waitTime, runTime, finishDetail);
+	}
+	
+	/**
+	 * Records the latency of a console command.
+	 * 
+	 * @param latency the time the command waited in the queue in nanoseconds
+	 * @param underLoad if background runnables were running while the command waited
+	 */
+	void recordCommandLatency(final long latency, final boolean underLoad) {
+		((underLoad) ? fCommandLatencyUnderLoad : fCommandLatency).record(latency);
+	}
+	
+	/**
+	 * Returns the statistics of the latency of console commands (the time from the submit until
+	 * the start of the command).
+	 * 
+	 * Comparing the latency under load with the latency without load shows the delay of
+	 * interactive commands caused by background runnables.
+	 * 
+	 * @param underLoad <code>true</code> for the commands which waited while background runnables
+	 *     were running, <code>false</code> for the other commands
+	 * @return the statistics
+	 */
+	public LatencyStatistics getCommandLatency(final boolean underLoad) {
+		return (underLoad) ? fCommandLatencyUnderLoad : fCommandLatency;
+	}
+	
+	/**
+	 * Returns the counter with the specified id, e.g. for the number of exchanges with the tool
+	 * of a special kind. The counter is created, if it doesn't exist.
+	 * 
+	 * @param id the id of the counter
+	 * @return the counter
+	 */
+	public AtomicLong getCounter(final String id) {
+		AtomicLong counter = fCounters.get(id);
+		if (counter == null) {
+			counter = new AtomicLong();
+			final AtomicLong previous = fCounters.putIfAbsent(id, counter);
+			if (previous != null) {
+				counter = previous;
+			}
+		}
+		return counter;
+	}
+	
+	/**
+	 * Returns the statistics of all recorded runnable types.
+	 * 
+	 * @return list sorted by the type id
+	 */
+	public List<TypeStatistics> getTypeStatistics() {
+		final List<TypeStatistics> list = new ArrayList<TypeStatistics>(fTypes.values());
+		Collections.sort(list, new Comparator<TypeStatistics>() {
+			@Override
+			public int compare(final TypeStatistics o1, final TypeStatistics o2) {
+				return o1.fTypeId.compareTo(o2.fTypeId);
+			}
+		});
+		return list;
+	}
+	
+	/**
+	 * Removes all recorded statistics.
+	 */
+	public void clear() {
+		fTypes.clear();
+		fCommandLatency.clear();
+		fCommandLatencyUnderLoad.clear();
+		for (final AtomicLong counter : fCounters.values()) {
+			counter.set(0);
+		}
+	}
+	
+	/**
+	 * Writes the statistics in CSV format (one line per runnable type, times in milliseconds),
+	 * followed by a table with the latency of console commands and a table with the counters.
+	 * 
+	 * @param out the output
+	 * @throws IOException
+	 */
+	public void exportCSV(final Appendable out) throws IOException {
+		out.append("typeId,count,cancelCount,errorCount,waitAvg,waitMax,runAvg,runMax"); //$NON-NLS-1$
+		for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+			out.append(",run<").append(Long.toString(1L << i)); //$NON-NLS-1$
+		}
+		out.append('\n');
+		for (final TypeStatistics stats : getTypeStatistics()) {
+			final long count = stats.getCount();
+			final long waitCount = stats.getWaitCount();
+			out.append('"').append(stats.fTypeId.replace("\"", "\"\"")).append('"'); //$NON-NLS-1$ //$NON-NLS-2$
+			out.append(',').append(Long.toString(count));
+			out.append(',').append(Long.toString(stats.getCancelCount()));
+			out.append(',').append(Long.toString(stats.getErrorCount()));
+			out.append(',').append(toMillis((waitCount > 0) ? stats.getWaitTotal() / waitCount : 0));
+			out.append(',').append(toMillis(stats.getWaitMax()));
+			out.append(',').append(toMillis((count > 0) ? stats.getRunTotal() / count : 0));
+			out.append(',').append(toMillis(stats.getRunMax()));
+			final long[] histogram = stats.getRunHistogram();
+			for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+				out.append(',').append(Long.toString(histogram[i]));
+			}
+			out.append('\n');
+		}
+		out.append('\n');
+		out.append("commandLatency,count,avg,max\n"); //$NON-NLS-1$
+		appendLatencyCSV(out, "idle", fCommandLatency); //$NON-NLS-1$
+		appendLatencyCSV(out, "underLoad", fCommandLatencyUnderLoad); //$NON-NLS-1$
+		if (!fCounters.isEmpty()) {
+			final List<String> ids = new ArrayList<String>(fCounters.keySet());
+			Collections.sort(ids);
+			out.append('\n');
+			out.append("counter,value\n"); //$NON-NLS-1$
+			for (final String id : ids) {
+				out.append('"').append(id.replace("\"", "\"\"")).append('"'); //$NON-NLS-1$ //$NON-NLS-2$
+				out.append(',').append(Long.toString(fCounters.get(id).get()));
+				out.append('\n');
+			}
+		}
+	}
+	
+	private static void appendLatencyCSV(final Appendable out, final String label,
+			final LatencyStatistics stats) throws IOException {
+		final long count = stats.getCount();
+		out.append(label);
+		out.append(',').append(Long.toString(count));
+		out.append(',').append(toMillis((count > 0) ? stats.getTotal() / count : 0));
+		out.append(',').append(toMillis(stats.getMax()));
+		out.append('\n');
+	}
+	
+	private static String toMillis(final long nanos) {
+		return Double.toString(nanos / 1000000.0);
+	}
+	
+}
@@ -37,6 +37,7 @@ public class Messages extends NLS {
 	public static String ToolController_FileOperation_error_CannotResolve_message;
 	public static String ToolController_SubmitCancelled_message;
 	public static String ToolController_ToolTerminated_message;
+	public static String ToolController_SubmitCoalesced_message;
 	
 	public static String Progress_Starting_label;
 	public static String Progress_Terminating_label;
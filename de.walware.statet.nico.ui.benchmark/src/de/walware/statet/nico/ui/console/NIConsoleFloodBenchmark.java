@@ -0,0 +1,162 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.nico.ui.console;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+import org.eclipse.debug.core.model.IProcess;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.console.IConsoleView;
+import org.eclipse.ui.part.IPageBookViewPage;
+import org.junit.Test;
+
+import de.walware.statet.nico.core.runtime.ToolProcess;
+import de.walware.statet.nico.internal.ui.console.NIConsolePartitioner;
+
+
+/**
+ * Floods a console with many small writes to alternating streams, as a tool printing in a loop
+ * does, and reports the throughput of the console (writes and chars per second).
+ * 
+ * The water marks of the console are set low, so the document is trimmed many times during the
+ * run. At the end, the partitions of the document must be contiguous and cover the whole
+ * document.
+ * 
+ * Run by <code>mvn verify -Pbenchmark</code> in <code>-build</code>; the number of writes can be
+ * changed by the system property <code>de.walware.statet.nico.benchmark.consoleWrites</code>.
+ */
+public class NIConsoleFloodBenchmark {
+	
+	
+	private static final String WRITES_KEY= "de.walware.statet.nico.benchmark.consoleWrites"; //$NON-NLS-1$
+	
+	private static final int DEFAULT_WRITES= 1000000;
+	
+	/** Number of writes to a stream before switching to the other stream */
+	private static final int STREAM_SWITCH= 7;
+	
+	private static final int LOW_WATER_MARK= 10000;
+	private static final int HIGH_WATER_MARK= 20000;
+	
+	/** Max time to wait for the console to process the written output */
+	private static final long PROCESS_TIMEOUT_MILLIS= 60000;
+	
+	
+	private static class TestConsole extends NIConsole {
+		
+		public TestConsole(final ToolProcess process) {
+			super(process, new NIConsoleColorAdapter());
+		}
+		
+		@Override
+		public IPageBookViewPage createPage(final IConsoleView view) {
+			return null;
+		}
+		
+	}
+	
+	
+	private static int getWriteCount() {
+		final String value= System.getProperty(WRITES_KEY);
+		if (value != null && !value.isEmpty()) {
+			return Integer.parseInt(value);
+		}
+		return DEFAULT_WRITES;
+	}
+	
+	
+	@Test(timeout= 1800000)
+	public void flood() throws Exception {
+		final int writeCount= getWriteCount();
+		final Display display= Display.getDefault();
+		
+		final ToolProcess process= new ToolProcess(new Launch(null, ILaunchManager.RUN_MODE, null),
+				"benchmark", "Benchmark", "Flood", "localhost", null, System.currentTimeMillis() ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		process.setAttribute(IProcess.ATTR_PROCESS_LABEL, "Flood Benchmark"); //$NON-NLS-1$
+		final TestConsole console= new TestConsole(process);
+		try {
+			final NIConsolePartitioner partitioner= console.getPartitioner();
+			partitioner.setScrollbackEnabled(false);
+			partitioner.setWaterMarks(LOW_WATER_MARK, HIGH_WATER_MARK);
+			final NIConsoleOutputStream[] streams= new NIConsoleOutputStream[] {
+					new NIConsoleOutputStream(console, NIConsoleOutputStream.OUTPUT_STREAM_ID),
+					new NIConsoleOutputStream(console, NIConsoleOutputStream.ERROR_STREAM_ID),
+			};
+			
+			final long startChars= console.getOutputCharCount();
+			long chars= 0;
+			final long startTime= System.nanoTime();
+			for (int i= 0; i < writeCount; i++) {
+				final String text= "[" + i + "] flood output line\n"; //$NON-NLS-1$ //$NON-NLS-2$
+				streams[(i / STREAM_SWITCH) % streams.length].write(text);
+				chars+= text.length();
+			}
+			final long writeTime= System.nanoTime() - startTime;
+			
+			// the document is updated asynchronously by the console
+			final long timeout= System.currentTimeMillis() + PROCESS_TIMEOUT_MILLIS;
+			while (console.getOutputCharCount() - startChars < chars
+					&& System.currentTimeMillis() < timeout) {
+				Thread.sleep(10);
+			}
+			final long totalTime= System.nanoTime() - startTime;
+			assertEquals("Processed chars", chars, console.getOutputCharCount() - startChars); //$NON-NLS-1$
+			
+			System.out.println(String.format("Console flood benchmark - %1$,d writes, %2$,d chars:\n" //$NON-NLS-1$
+					+ "  write: %3$,.0f writes/s\n" //$NON-NLS-1$
+					+ "  total: %4$,.0f writes/s, %5$,.0f chars/s", //$NON-NLS-1$
+					writeCount, chars,
+					writeCount / (writeTime / 1e9),
+					writeCount / (totalTime / 1e9), chars / (totalTime / 1e9) ));
+			
+			// check the partitioning after the trims (in the UI thread like the console jobs)
+			final AtomicReference<String> error= new AtomicReference<String>();
+			display.syncExec(new Runnable() {
+				@Override
+				public void run() {
+					error.set(checkPartitioning(partitioner));
+				}
+			});
+			assertTrue(error.get(), error.get() == null);
+		}
+		finally {
+			console.destroy();
+		}
+	}
+	
+	private static String checkPartitioning(final NIConsolePartitioner partitioner) {
+		final IDocument document= partitioner.getDocument();
+		final int length= document.getLength();
+		final ITypedRegion[] partitions= partitioner.computePartitioning(0, length);
+		int offset= 0;
+		for (int i= 0; i < partitions.length; i++) {
+			final ITypedRegion partition= partitions[i];
+			if (partition.getOffset() != offset || partition.getLength() < 0) {
+				return "Invalid partition " + i + ": offset= " + partition.getOffset() //$NON-NLS-1$ //$NON-NLS-2$
+						+ ", length= " + partition.getLength() + ", expected offset= " + offset; //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			offset+= partition.getLength();
+		}
+		if (offset != length) {
+			return "Partitions end at " + offset + ", document length= " + length; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return null;
+	}
+	
+}
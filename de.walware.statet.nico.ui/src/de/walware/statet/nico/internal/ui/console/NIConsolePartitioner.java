@@ -13,7 +13,6 @@ package de.walware.statet.nico.internal.ui.console;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -35,6 +34,7 @@ import org.eclipse.ui.console.ConsolePlugin;
 import org.eclipse.ui.console.IConsoleDocumentPartitioner;
 import org.eclipse.ui.progress.WorkbenchJob;
 
+import de.walware.statet.nico.internal.ui.NicoUIPlugin;
 import de.walware.statet.nico.ui.console.NIConsole;
 import de.walware.statet.nico.ui.console.NIConsoleOutputStream;
 
@@ -99,6 +99,26 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	
 	private int fBuffer; 
 	
+	/**
+	 * Store for trimmed output, if scrollback is enabled.
+	 * Changed only in fOverflowLock.
+	 */
+	private volatile NIConsoleScrollback fScrollback;
+	
+	/**
+	 * Operations on the scrollback stores not yet done by the scrollbackJob.
+	 */
+	private final List<ScrollbackTask> fScrollbackTasks = new ArrayList<ScrollbackTask>();
+	
+	private final ScrollbackJob fScrollbackJob = new ScrollbackJob();
+	
+	/**
+	 * Throughput counters: total chars and lines appended to the document.
+	 * Written only by the queue job (in fOverflowLock), read by any thread.
+	 */
+	private volatile long fOutputChars;
+	private volatile long fOutputLines;
+	
 	
 	public NIConsolePartitioner(final NIConsole console, final List<String> ids) {
 		fConsole = console;
@@ -121,6 +141,29 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 		fConnected = true;
 	}
 	
+	/**
+	 * Returns the total number of chars appended to the console document since the console
+	 * was created. Trimming or clearing the console does not reset the counter.
+	 * 
+	 * Can be sampled periodically to compute the throughput of the console (chars per second).
+	 * 
+	 * @return the total number of chars
+	 */
+	public long getOutputCharCount() {
+		return fOutputChars;
+	}
+	
+	/**
+	 * Returns the total number of line delimiters (<code>'\n'</code>) appended to the console
+	 * document since the console was created.
+	 * 
+	 * @return the total number of lines
+	 * @see #getOutputCharCount()
+	 */
+	public long getOutputLineCount() {
+		return fOutputLines;
+	}
+	
 	public int getHighWaterMark() {
 		return fHighWaterMark;
 	}
@@ -140,6 +183,58 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 		});
 	}
 	
+	/**
+	 * Enables or disables the scrollback mode. If enabled, the output trimmed from the document
+	 * is stored in a {@link NIConsoleScrollback}.
+	 * 
+	 * @param enable
+	 */
+	public void setScrollbackEnabled(final boolean enable) {
+		synchronized (fOverflowLock) {
+			if (enable) {
+				if (fScrollback == null) {
+					fScrollback = new NIConsoleScrollback(fPartitionIds);
+				}
+			}
+			else {
+				disposeScrollback();
+			}
+		}
+	}
+	
+	/**
+	 * Disposes the scrollback store. Must be called in fOverflowLock.
+	 */
+	private void disposeScrollback() {
+		final NIConsoleScrollback scrollback = fScrollback;
+		if (scrollback != null) {
+			fScrollback = null;
+			scheduleScrollbackTask(new ScrollbackTask(scrollback, ScrollbackTask.DISPOSE, null, null));
+		}
+	}
+	
+	/**
+	 * Schedules an operation on a scrollback store.
+	 * 
+	 * The operations are done in the order of the calls by the scrollbackJob, so the I/O doesn't
+	 * block the UI thread.
+	 */
+	private void scheduleScrollbackTask(final ScrollbackTask task) {
+		synchronized (fScrollbackTasks) {
+			fScrollbackTasks.add(task);
+		}
+		fScrollbackJob.schedule();
+	}
+	
+	/**
+	 * Returns the store with the output trimmed from the document.
+	 * 
+	 * @return the scrollback store or <code>null</code>, if scrollback is disabled
+	 */
+	public NIConsoleScrollback getScrollback() {
+		return fScrollback;
+	}
+	
 	/**
 	 * Notification from the console that all of its streams have been closed.
 	 */
@@ -157,6 +252,7 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 			fConnected = false;
 			fDocument = null;
 			fPartitions.clear();
+			disposeScrollback();
 		}
 	}
 	
@@ -241,19 +337,62 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	
 	@Override
 	public ITypedRegion getPartition(final int offset) {
-		for (int i = 0; i < fPartitions.size(); i++) {
-			final ITypedRegion partition = fPartitions.get(i);
-			final int start = partition.getOffset();
-			final int end = start + partition.getLength();
-			if (offset >= start && offset < end) {
-				return partition;
-			}
+		final int index = getPartitionIndex(offset);
+		if (index >= 0) {
+			return fPartitions.get(index);
 		}
 		
 		return (fLastPartition != null) ? 
 				fLastPartition : new NIConsolePartition(fPartitionIds[0], 0, null);
 	}
 	
+	/**
+	 * Searches the partition containing the specified offset (binary search).
+	 * 
+	 * @param offset the document offset
+	 * @return the index of the partition in the partition list or -1
+	 */
+	private int getPartitionIndex(final int offset) {
+		int low = 0;
+		int high = fPartitions.size() - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final NIConsolePartition partition = fPartitions.get(mid);
+			final int start = partition.getOffset();
+			if (offset < start) {
+				high = mid - 1;
+			}
+			else if (offset >= start + partition.getLength()) {
+				low = mid + 1;
+			}
+			else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the number of partitions starting before the specified offset.
+	 * 
+	 * @param offset the offset
+	 * @return the number of partitions
+	 */
+	private int getPartitionCountBefore(final int offset) {
+		int low = 0;
+		int high = fPartitions.size();
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (fPartitions.get(mid).getOffset() < offset) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
 	/**
 	 * Enforces the buffer size.
 	 * When the number of lines in the document exceeds the high water mark, the 
@@ -373,14 +512,18 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	 * Holds data until updateJob can be run and the document can be updated.
 	 */
 	private class PendingPartition {
-		StringBuffer text = new StringBuffer(8192);
+		final StringBuilder text;
 		NIConsoleOutputStream stream;
 		
 		PendingPartition(final NIConsoleOutputStream stream, final String text) {
 			this.stream = stream;
 			if (text != null) {
+				this.text = new StringBuilder(Math.max(text.length(), 256));
 				append(text);
 			}
+			else {
+				this.text = new StringBuilder(0);
+			}
 		}
 		
 		void append(final String moreText) {
@@ -425,7 +568,7 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	void processQueue() {
 		synchronized (fOverflowLock) {
 			final PendingPartition[] pendingCopy;
-			StringBuffer buffer = null;
+			StringBuilder buffer = null;
 			boolean consoleClosed = false;
 			synchronized(fPendingPartitions) {
 				pendingCopy = fPendingPartitions.toArray(new PendingPartition[fPendingPartitions.size()]);
@@ -440,7 +583,7 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 					size += pendingCopy[i].text.length();
 				}
 			}
-			buffer = new StringBuffer(size);
+			buffer = new StringBuilder(size);
 			for (int i = 0; i < pendingCopy.length; i++) {
 				if (pendingCopy[i] != fConsoleClosedPartition) { 
 					buffer.append(pendingCopy[i].text);
@@ -462,6 +605,7 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 				fUpdatePartitions = null;
 				setUpdateInProgress(false);
 			}
+			countOutput(buffer);
 			if (consoleClosed) {
 				fConsole.partitionerFinished();
 			}
@@ -469,6 +613,95 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 		}
 	}
 	
+	private void countOutput(final CharSequence text) {
+		final int n = text.length();
+		int lines = 0;
+		for (int i = 0; i < n; i++) {
+			if (text.charAt(i) == '\n') {
+				lines++;
+			}
+		}
+		// single writer (queue job in fOverflowLock)
+		fOutputChars += n;
+		fOutputLines += lines;
+	}
+	
+	private static class ScrollbackTask {
+		
+		static final int APPEND = 1;
+		static final int CLEAR = 2;
+		static final int DISPOSE = 3;
+		
+		final NIConsoleScrollback scrollback;
+		final int op;
+		final String type;
+		final String text;
+		
+		ScrollbackTask(final NIConsoleScrollback scrollback, final int op,
+				final String type, final String text) {
+			this.scrollback = scrollback;
+			this.op = op;
+			this.type = type;
+			this.text = text;
+		}
+		
+	}
+	
+	/**
+	 * Job writing the output trimmed from the document to the scrollback store, runs in
+	 * background.
+	 */
+	private class ScrollbackJob extends Job {
+		
+		ScrollbackJob() {
+			super("Console Scrollback Writer"); //$NON-NLS-1$
+			setSystem(true);
+			setPriority(Job.SHORT);
+		}
+		
+		@Override
+		protected IStatus run(final IProgressMonitor monitor) {
+			while (true) {
+				final ScrollbackTask[] tasks;
+				synchronized (fScrollbackTasks) {
+					if (fScrollbackTasks.isEmpty()) {
+						return Status.OK_STATUS;
+					}
+					tasks = fScrollbackTasks.toArray(new ScrollbackTask[fScrollbackTasks.size()]);
+					fScrollbackTasks.clear();
+				}
+				for (int i = 0; i < tasks.length; i++) {
+					final ScrollbackTask task = tasks[i];
+					switch (task.op) {
+					case ScrollbackTask.APPEND:
+						try {
+							task.scrollback.append(task.type, task.text);
+						}
+						catch (final IOException e) {
+							NicoUIPlugin.logError(NicoUIPlugin.INTERNAL_ERROR, "An error occurred when writing to the console scrollback, the scrollback is disabled.", e); //$NON-NLS-1$
+							synchronized (fOverflowLock) {
+								if (fScrollback == task.scrollback) {
+									disposeScrollback();
+								}
+								else {
+									task.scrollback.dispose();
+								}
+							}
+						}
+						break;
+					case ScrollbackTask.CLEAR:
+						task.scrollback.clear();
+						break;
+					case ScrollbackTask.DISPOSE:
+						task.scrollback.dispose();
+						break;
+					}
+				}
+			}
+		}
+		
+	}
+	
 	/**
 	 * Job to trim the console document, runs in the  UI thread.
 	 */
@@ -497,6 +730,24 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 			this.truncateOffset = offset;
 		}
 		
+		/**
+		 * Schedules the writing of the text to trim to the scrollback store; only the text is
+		 * copied in the UI thread.
+		 */
+		private void spill(final NIConsoleScrollback scrollback,
+				final int index, final int cutOffset) throws BadLocationException {
+			final int count = (index >= 0) ? index + 1 : fPartitions.size();
+			for (int i = 0; i < count; i++) {
+				final NIConsolePartition partition = fPartitions.get(i);
+				final int length = Math.min(partition.getOffset() + partition.getLength(), cutOffset)
+						- partition.getOffset();
+				if (length > 0) {
+					scheduleScrollbackTask(new ScrollbackTask(scrollback, ScrollbackTask.APPEND,
+							partition.getType(), fDocument.get(partition.getOffset(), length) ));
+				}
+			}
+		}
+		
 		@Override
 		public IStatus runInUIThread(final IProgressMonitor monitor) {
 			final IJobManager jobManager = Job.getJobManager();
@@ -523,29 +774,46 @@ public class NIConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 							fDocument.set(""); //$NON-NLS-1$
 							setUpdateInProgress(false);
 							fPartitions.clear();
+							final NIConsoleScrollback scrollback = fScrollback;
+							if (scrollback != null) {
+								scheduleScrollbackTask(new ScrollbackTask(scrollback, ScrollbackTask.CLEAR, null, null));
+							}
 						}
 						else {
 							// overflow
 							final int cutoffLine = fDocument.getLineOfOffset(this.truncateOffset);
 							final int cutOffset = fDocument.getLineOffset(cutoffLine);
 							
+							final int index = getPartitionIndex(cutOffset);
+							final NIConsoleScrollback scrollback = fScrollback;
+							if (scrollback != null) {
+								spill(scrollback, index, cutOffset);
+							}
+							
 							// set the new length of the first partition
-							final NIConsolePartition partition = (NIConsolePartition) getPartition(cutOffset);
-							partition.setLength(partition.getOffset() + partition.getLength() - cutOffset);
+							final int removeCount;
+							if (index >= 0) {
+								final NIConsolePartition partition = fPartitions.get(index);
+								partition.setLength(partition.getOffset() + partition.getLength() - cutOffset);
+								removeCount = index;
+							}
+							else {
+								// no partition contains the offset: remove all partitions before it
+								removeCount = getPartitionCountBefore(cutOffset);
+							}
 							
 							setUpdateInProgress(true);
 							fDocument.replace(0, cutOffset, ""); //$NON-NLS-1$
 							setUpdateInProgress(false);
 							
-							//remove partitions and reset Partition offsets
-							final int index = fPartitions.indexOf(partition);
-							for (int i = 0; i < index; i++) {
-								fPartitions.remove(0);
+							//remove partitions (at once) and reset Partition offsets
+							if (removeCount > 0) {
+								fPartitions.subList(0, removeCount).clear();
 							}
 							
 							int offset = 0;
-							for (final Iterator<NIConsolePartition> i = fPartitions.iterator(); i.hasNext();) {
-								final NIConsolePartition p = i.next();
+							for (int i = 0; i < fPartitions.size(); i++) {
+								final NIConsolePartition p = fPartitions.get(i);
 								p.setOffset(offset);
 								offset += p.getLength();
 							}
@@ -0,0 +1,370 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.nico.internal.ui.console;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.jface.text.TypedRegion;
+
+
+/**
+ * Append-only store for the output trimmed from the console document.
+ * 
+ * The output is stored with its partition types as sequence of records in a temporary file:
+ * <code>int typeIdx, int length, char[length] text</code>. The file is memory-mapped for reading,
+ * so the memory usage is independent of the amount of stored output. To find the records of
+ * a text offset, the offset and file position of a record is remembered about every
+ * {@link #CHECKPOINT_INTERVAL} chars.
+ * 
+ * The mapped buffers are released explicitly after each read operation, otherwise the file
+ * could not be truncated or deleted on some platforms until the buffers are garbage collected.
+ * 
+ * The store is written by a background job of the {@link NIConsolePartitioner}, so text trimmed
+ * from the document can be available in the store with a short delay.
+ */
+public class NIConsoleScrollback {
+	
+	
+	private static final int CHECKPOINT_INTERVAL = 0x100000;
+	
+	private static final int MAP_SIZE = 0x4000000;
+	
+	private static final int RECORD_HEADER_SIZE = 8;
+	
+	
+	private class RecordReader {
+		
+		private MappedByteBuffer fBuffer;
+		private long fBufferPos;
+		
+		private long fFilePos;
+		private long fTextOffset;
+		
+		int typeIdx;
+		char[] text;
+		
+		
+		public RecordReader(final long textOffset) {
+			int idx = Arrays.binarySearch(fCheckpointOffsets, 0, fCheckpointCount, textOffset);
+			if (idx < 0) {
+				idx = -(idx + 1) - 1;
+			}
+			fFilePos = fCheckpointPositions[idx];
+			fTextOffset = fCheckpointOffsets[idx];
+		}
+		
+		
+		/**
+		 * Reads the next record.
+		 * 
+		 * @return the text offset of the record, or <code>-1</code> if there are no more records
+		 */
+		public long next() throws IOException {
+			if (fFilePos >= fFileSize) {
+				return -1;
+			}
+			ensureMapped(RECORD_HEADER_SIZE);
+			typeIdx = fBuffer.getInt();
+			final int length = fBuffer.getInt();
+			ensureMapped(RECORD_HEADER_SIZE + length * 2L);
+			fBuffer.position(fBuffer.position() + RECORD_HEADER_SIZE);
+			text = new char[length];
+			fBuffer.asCharBuffer().get(text);
+			
+			final long offset = fTextOffset;
+			fFilePos += RECORD_HEADER_SIZE + length * 2L;
+			fTextOffset += length;
+			return offset;
+		}
+		
+		private void ensureMapped(final long size) throws IOException {
+			if (fBuffer == null || fFilePos + size > fBufferPos + fBuffer.limit()) {
+				close();
+				fBufferPos = fFilePos;
+				fBuffer = fChannel.map(FileChannel.MapMode.READ_ONLY, fFilePos,
+						Math.max(size, Math.min(fFileSize - fFilePos, MAP_SIZE)) );
+			}
+			fBuffer.position((int) (fFilePos - fBufferPos));
+		}
+		
+		public void close() {
+			if (fBuffer != null) {
+				unmap(fBuffer);
+				fBuffer = null;
+			}
+		}
+		
+	}
+	
+	
+	private static final Method CLEANER_METHOD;
+	private static final Method CLEAN_METHOD;
+	
+	static {
+		Method cleanerMethod = null;
+		Method cleanMethod = null;
+		try {
+			final Class<?> bufferClass = Class.forName("java.nio.DirectByteBuffer"); //$NON-NLS-1$
+			cleanerMethod = bufferClass.getMethod("cleaner"); //$NON-NLS-1$
+			cleanerMethod.setAccessible(true);
+			cleanMethod = cleanerMethod.getReturnType().getMethod("clean"); //$NON-NLS-1$
+			cleanMethod.setAccessible(true);
+		}
+		catch (final Exception e) {
+			cleanerMethod = null;
+			cleanMethod = null;
+		}
+		CLEANER_METHOD = cleanerMethod;
+		CLEAN_METHOD = cleanMethod;
+	}
+	
+	private static void unmap(final MappedByteBuffer buffer) {
+		if (CLEANER_METHOD != null) {
+			try {
+				final Object cleaner = CLEANER_METHOD.invoke(buffer);
+				if (cleaner != null) {
+					CLEAN_METHOD.invoke(cleaner);
+				}
+			}
+			catch (final Exception e) {
+				// released by the garbage collector
+			}
+		}
+	}
+	
+	
+	private final String[] fTypes;
+	
+	private File fFile;
+	private FileChannel fChannel;
+	private long fFileSize;
+	
+	private long fLength;
+	
+	private long[] fCheckpointOffsets = new long[16];
+	private long[] fCheckpointPositions = new long[16];
+	private int fCheckpointCount;
+	
+	private boolean fDisposed;
+	
+	
+	/**
+	 * Creates a new scrollback store.
+	 * 
+	 * @param types the legal partition types
+	 */
+	public NIConsoleScrollback(final String[] types) {
+		fTypes = types;
+	}
+	
+	
+	/**
+	 * Appends the text of a partition.
+	 * 
+	 * If the store is already disposed, the text is ignored.
+	 * 
+	 * @param type the partition type
+	 * @param text the text
+	 * @throws IOException
+	 */
+	public synchronized void append(final String type, final CharSequence text) throws IOException {
+		final int length = text.length();
+		if (length == 0 || fDisposed) {
+			return;
+		}
+		if (fChannel == null) {
+			fFile = File.createTempFile("console", ".scrollback"); //$NON-NLS-1$ //$NON-NLS-2$
+			fFile.deleteOnExit();
+			fChannel = new RandomAccessFile(fFile, "rw").getChannel(); //$NON-NLS-1$
+		}
+		if (fCheckpointCount == 0
+				|| fLength - fCheckpointOffsets[fCheckpointCount - 1] >= CHECKPOINT_INTERVAL) {
+			addCheckpoint();
+		}
+		
+		final ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + length * 2);
+		buffer.putInt(getTypeIdx(type));
+		buffer.putInt(length);
+		for (int i = 0; i < length; i++) {
+			buffer.putChar(text.charAt(i));
+		}
+		buffer.flip();
+		long pos = fFileSize;
+		while (buffer.hasRemaining()) {
+			pos += fChannel.write(buffer, pos);
+		}
+		fFileSize = pos;
+		fLength += length;
+	}
+	
+	private void addCheckpoint() {
+		if (fCheckpointCount == fCheckpointOffsets.length) {
+			fCheckpointOffsets = Arrays.copyOf(fCheckpointOffsets, fCheckpointCount * 2);
+			fCheckpointPositions = Arrays.copyOf(fCheckpointPositions, fCheckpointCount * 2);
+		}
+		fCheckpointOffsets[fCheckpointCount] = fLength;
+		fCheckpointPositions[fCheckpointCount] = fFileSize;
+		fCheckpointCount++;
+	}
+	
+	private int getTypeIdx(final String type) {
+		for (int i = 0; i < fTypes.length; i++) {
+			if (fTypes[i].equals(type)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the number of stored chars.
+	 * 
+	 * @return the length
+	 */
+	public synchronized long getLength() {
+		return fLength;
+	}
+	
+	/**
+	 * Reads stored text.
+	 * 
+	 * The range is limited to the stored text, so it is valid to request a range after the store
+	 * was cleared.
+	 * 
+	 * @param offset the offset of the text
+	 * @param length the length of the text
+	 * @param partitions optional list to add the partitions of the text, relative to the returned
+	 *     text
+	 * @return the text
+	 * @throws IOException
+	 */
+	public synchronized String getText(final long offset, int length,
+			final List<ITypedRegion> partitions) throws IOException {
+		if (offset < 0) {
+			throw new IndexOutOfBoundsException("offset: " + offset); //$NON-NLS-1$
+		}
+		if (offset >= fLength) {
+			return ""; //$NON-NLS-1$
+		}
+		if (length > fLength - offset) {
+			length = (int) (fLength - offset);
+		}
+		if (length == 0) {
+			return ""; //$NON-NLS-1$
+		}
+		final StringBuilder sb = new StringBuilder(length);
+		final RecordReader reader = new RecordReader(offset);
+		try {
+			final long end = offset + length;
+			long recordOffset;
+			while ((recordOffset = reader.next()) >= 0 && recordOffset < end) {
+				final long recordEnd = recordOffset + reader.text.length;
+				if (recordEnd <= offset) {
+					continue;
+				}
+				final int start = (int) (Math.max(recordOffset, offset) - recordOffset);
+				final int stop = (int) (Math.min(recordEnd, end) - recordOffset);
+				if (partitions != null) {
+					partitions.add(new TypedRegion(sb.length(), stop - start,
+							(reader.typeIdx >= 0) ? fTypes[reader.typeIdx] : null ));
+				}
+				sb.append(reader.text, start, stop - start);
+			}
+			return sb.toString();
+		}
+		finally {
+			reader.close();
+		}
+	}
+	
+	/**
+	 * Searches stored text.
+	 * 
+	 * @param text the text to search
+	 * @param fromOffset the offset to start the search
+	 * @return the offset of the first occurrence, or <code>-1</code> if not found
+	 * @throws IOException
+	 */
+	public synchronized long indexOf(final String text, final long fromOffset) throws IOException {
+		if (text.isEmpty() || fromOffset >= fLength) {
+			return -1;
+		}
+		final RecordReader reader = new RecordReader(Math.max(fromOffset, 0));
+		try {
+			final StringBuilder window = new StringBuilder();
+			long windowOffset = -1;
+			long recordOffset;
+			while ((recordOffset = reader.next()) >= 0) {
+				if (windowOffset < 0) {
+					windowOffset = recordOffset;
+				}
+				window.append(reader.text);
+				final int idx = window.indexOf(text, (int) Math.max(fromOffset - windowOffset, 0));
+				if (idx >= 0) {
+					return windowOffset + idx;
+				}
+				// keep only the chars which can be the start of a match
+				final int keep = Math.min(window.length(), text.length() - 1);
+				windowOffset += window.length() - keep;
+				window.delete(0, window.length() - keep);
+			}
+			return -1;
+		}
+		finally {
+			reader.close();
+		}
+	}
+	
+	/**
+	 * Removes all stored text.
+	 */
+	public synchronized void clear() {
+		fLength = 0;
+		fFileSize = 0;
+		fCheckpointCount = 0;
+		if (fChannel != null) {
+			try {
+				fChannel.truncate(0);
+			}
+			catch (final IOException e) {
+			}
+		}
+	}
+	
+	/**
+	 * Removes all stored text and deletes the file.
+	 */
+	public synchronized void dispose() {
+		fDisposed = true;
+		clear();
+		if (fChannel != null) {
+			try {
+				fChannel.close();
+			}
+			catch (final IOException e) {
+			}
+			fChannel = null;
+			fFile.delete();
+			fFile = null;
+		}
+	}
+	
+}
@@ -0,0 +1,351 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.nico.internal.ui.console;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyleRange;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+
+import de.walware.ecommons.ui.util.LayoutUtil;
+
+import de.walware.statet.nico.internal.ui.NicoUIPlugin;
+import de.walware.statet.nico.ui.console.NIConsole;
+import de.walware.statet.nico.ui.console.NIConsoleOutputStream;
+
+
+/**
+ * Dialog to browse and search the output trimmed from a console and stored in its
+ * {@link NIConsoleScrollback}.
+ * 
+ * Only a page of the stored output is loaded at once; the search runs through the whole store
+ * in a background job.
+ */
+public class NIConsoleScrollbackDialog extends Dialog {
+	
+	
+	private static final int PAGE_SIZE = 0x40000;
+	
+	
+	private static class Page {
+		
+		final long offset;
+		final String text;
+		final List<ITypedRegion> partitions;
+		final long length;
+		
+		Page(final long offset, final String text, final List<ITypedRegion> partitions,
+				final long length) {
+			this.offset = offset;
+			this.text = text;
+			this.partitions = partitions;
+			this.length = length;
+		}
+		
+	}
+	
+	private class FindJob extends Job {
+		
+		private final String fSearchText;
+		private final long fFromOffset;
+		
+		private final long fShownOffset;
+		private final int fShownLength;
+		
+		FindJob(final String searchText, final long fromOffset,
+				final long shownOffset, final int shownLength) {
+			super("Search Console Scrollback"); //$NON-NLS-1$
+			setSystem(true);
+			setPriority(Job.INTERACTIVE);
+			fSearchText = searchText;
+			fFromOffset = fromOffset;
+			fShownOffset = shownOffset;
+			fShownLength = shownLength;
+		}
+		
+		@Override
+		protected IStatus run(final IProgressMonitor monitor) {
+			final long found;
+			try {
+				found = fScrollback.indexOf(fSearchText, fFromOffset);
+			}
+			catch (final IOException e) {
+				NicoUIPlugin.logError(NicoUIPlugin.INTERNAL_ERROR, "An error occurred when searching the console scrollback.", e); //$NON-NLS-1$
+				return Status.OK_STATUS;
+			}
+			Page page = null;
+			if (found >= 0 && (found < fShownOffset
+					|| found + fSearchText.length() > fShownOffset + fShownLength )) {
+				page = loadPage(Math.max(found - PAGE_SIZE / 2, 0));
+				if (page == null) {
+					return Status.OK_STATUS;
+				}
+			}
+			final Page foundPage = page;
+			fDisplay.asyncExec(new Runnable() {
+				@Override
+				public void run() {
+					if (fFindJob != FindJob.this || fTextControl == null || fTextControl.isDisposed()) {
+						return;
+					}
+					fFindJob = null;
+					showFound(fSearchText, found, foundPage);
+				}
+			});
+			return Status.OK_STATUS;
+		}
+		
+	}
+	
+	
+	private final NIConsole fConsole;
+	
+	private final NIConsoleScrollback fScrollback;
+	
+	private long fPageOffset;
+	
+	private Label fInfoLabel;
+	private StyledText fTextControl;
+	private Button fPreviousControl;
+	private Button fNextControl;
+	private Text fSearchTextControl;
+	
+	private final Display fDisplay;
+	
+	/** The running search, only accessed in the UI thread */
+	private FindJob fFindJob;
+	
+	
+	public NIConsoleScrollbackDialog(final Shell shell, final NIConsole console,
+			final NIConsoleScrollback scrollback) {
+		super(shell);
+		setShellStyle((getShellStyle() & ~SWT.APPLICATION_MODAL) | SWT.MODELESS | SWT.RESIZE | SWT.MAX);
+		setBlockOnOpen(false);
+		
+		fConsole = console;
+		fScrollback = scrollback;
+		fDisplay = shell.getDisplay();
+	}
+	
+	
+	@Override
+	protected void configureShell(final Shell shell) {
+		super.configureShell(shell);
+		shell.setText("Trimmed Output - " + fConsole.getName());
+	}
+	
+	@Override
+	protected boolean isResizable() {
+		return true;
+	}
+	
+	@Override
+	protected Control createDialogArea(final Composite parent) {
+		final Composite area = new Composite(parent, SWT.NONE);
+		area.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
+		area.setLayout(LayoutUtil.applyDialogDefaults(new GridLayout(), 4));
+		
+		{	fInfoLabel = new Label(area, SWT.NONE);
+			fInfoLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 4, 1));
+		}
+		{	fTextControl = new StyledText(area, SWT.MULTI | SWT.READ_ONLY | SWT.BORDER
+					| SWT.H_SCROLL | SWT.V_SCROLL );
+			final GridData gd = new GridData(SWT.FILL, SWT.FILL, true, true, 4, 1);
+			gd.widthHint = convertWidthInCharsToPixels(100);
+			gd.heightHint = convertHeightInCharsToPixels(30);
+			fTextControl.setLayoutData(gd);
+		}
+		{	fPreviousControl = new Button(area, SWT.PUSH);
+			fPreviousControl.setText("&Previous Page");
+			fPreviousControl.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
+			fPreviousControl.addSelectionListener(new SelectionAdapter() {
+				@Override
+				public void widgetSelected(final SelectionEvent e) {
+					showPage(Math.max(fPageOffset - PAGE_SIZE, 0));
+				}
+			});
+		}
+		{	fNextControl = new Button(area, SWT.PUSH);
+			fNextControl.setText("&Next Page");
+			fNextControl.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
+			fNextControl.addSelectionListener(new SelectionAdapter() {
+				@Override
+				public void widgetSelected(final SelectionEvent e) {
+					showPage(fPageOffset + fTextControl.getCharCount());
+				}
+			});
+		}
+		{	fSearchTextControl = new Text(area, SWT.SINGLE | SWT.BORDER | SWT.SEARCH);
+			fSearchTextControl.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+			fSearchTextControl.addSelectionListener(new SelectionAdapter() {
+				@Override
+				public void widgetDefaultSelected(final SelectionEvent e) {
+					findNext();
+				}
+			});
+		}
+		{	final Button button = new Button(area, SWT.PUSH);
+			button.setText("&Find Next");
+			button.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
+			button.addSelectionListener(new SelectionAdapter() {
+				@Override
+				public void widgetSelected(final SelectionEvent e) {
+					findNext();
+				}
+			});
+		}
+		
+		applyDialogFont(area);
+		fTextControl.setFont(fConsole.getFont());
+		
+		// start with the output trimmed last, which precedes the output in the console
+		showPage(Math.max(fScrollback.getLength() - PAGE_SIZE, 0));
+		
+		return area;
+	}
+	
+	@Override
+	public boolean close() {
+		if (fFindJob != null) {
+			fFindJob.cancel();
+			fFindJob = null;
+		}
+		return super.close();
+	}
+	
+	@Override
+	protected void createButtonsForButtonBar(final Composite parent) {
+		createButton(parent, IDialogConstants.CLOSE_ID, IDialogConstants.CLOSE_LABEL, true);
+	}
+	
+	@Override
+	protected void buttonPressed(final int buttonId) {
+		if (buttonId == IDialogConstants.CLOSE_ID) {
+			close();
+			return;
+		}
+		super.buttonPressed(buttonId);
+	}
+	
+	/**
+	 * Reads a page from the store, can be called in any thread.
+	 * 
+	 * @return the page or <code>null</code> if an error occurred
+	 */
+	private Page loadPage(final long offset) {
+		final List<ITypedRegion> partitions = new ArrayList<ITypedRegion>();
+		final String text;
+		try {
+			text = fScrollback.getText(offset, PAGE_SIZE, partitions);
+		}
+		catch (final IOException e) {
+			NicoUIPlugin.logError(NicoUIPlugin.INTERNAL_ERROR, "An error occurred when reading the console scrollback.", e); //$NON-NLS-1$
+			return null;
+		}
+		return new Page(offset, text, partitions, fScrollback.getLength());
+	}
+	
+	private void showPage(final long offset) {
+		final Page page = loadPage(offset);
+		if (page != null) {
+			showPage(page);
+		}
+	}
+	
+	private void showPage(final Page page) {
+		final long offset = page.offset;
+		final String text = page.text;
+		final long length = page.length;
+		
+		fPageOffset = offset;
+		fTextControl.setText(text);
+		final StyleRange[] styles = new StyleRange[page.partitions.size()];
+		for (int i = 0; i < styles.length; i++) {
+			final ITypedRegion partition = page.partitions.get(i);
+			final NIConsoleOutputStream stream = (partition.getType() != null) ?
+					fConsole.getStream(partition.getType()) : null;
+			styles[i] = (stream != null) ?
+					new StyleRange(partition.getOffset(), partition.getLength(),
+							stream.getColor(), null, stream.getFontStyle() ) :
+					new StyleRange(partition.getOffset(), partition.getLength(), null, null);
+		}
+		fTextControl.setStyleRanges(styles);
+		
+		fInfoLabel.setText((text.isEmpty()) ?
+				"No output is trimmed from the console." :
+				"Chars " + (offset + 1) + " - " + (offset + text.length()) + " of " + length +
+						" trimmed from the console:" );
+		fPreviousControl.setEnabled(offset > 0);
+		fNextControl.setEnabled(offset + text.length() < length);
+	}
+	
+	private void findNext() {
+		final String searchText = fSearchTextControl.getText();
+		if (searchText.isEmpty()) {
+			return;
+		}
+		final Point selection = fTextControl.getSelection();
+		if (fFindJob != null) {
+			fFindJob.cancel();
+		}
+		fFindJob = new FindJob(searchText,
+				fPageOffset + ((selection.y > selection.x) ? selection.x + 1 : selection.x),
+				fPageOffset, fTextControl.getCharCount() );
+		fFindJob.schedule();
+	}
+	
+	/**
+	 * Shows the result of a search.
+	 * 
+	 * @param page the page to show, if the match is not in the shown page
+	 */
+	private void showFound(final String searchText, final long found, final Page page) {
+		if (found < 0) {
+			fDisplay.beep();
+			return;
+		}
+		if (page != null) {
+			showPage(page);
+		}
+		if (found < fPageOffset
+				|| found + searchText.length() > fPageOffset + fTextControl.getCharCount()) {
+			// the shown page was changed during the search
+			showPage(Math.max(found - PAGE_SIZE / 2, 0));
+		}
+		final int start = (int) (found - fPageOffset);
+		fTextControl.setSelection(start, start + searchText.length());
+		fTextControl.showSelection();
+	}
+	
+}
@@ -19,6 +19,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jface.databinding.swt.SWTObservables;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Label;
@@ -53,6 +54,7 @@ class ConsolePreferenceBlock extends ManagedConfigurationBlock {
 	
 	
 	private Text fCharLimitControl;
+	private Button fScrollbackControl;
 	
 	private SubmitTypeSelectionComposite fSubmitTypeControl;
 	
@@ -68,6 +70,7 @@ class ConsolePreferenceBlock extends ManagedConfigurationBlock {
 		
 		prefs.put(ConsolePreferences.PREF_HISTORYNAVIGATION_SUBMIT_TYPES, ConsolePreferences.GROUP_ID);
 		prefs.put(ConsolePreferences.PREF_CHARLIMIT, ConsolePreferences.GROUP_ID);
+		prefs.put(ConsolePreferences.PREF_SCROLLBACK_ENABLED, ConsolePreferences.GROUP_ID);
 		
 		setupPreferenceManager(prefs);
 		
@@ -112,6 +115,11 @@ class ConsolePreferenceBlock extends ManagedConfigurationBlock {
 			text.setTextLimit(20);
 			fCharLimitControl= text;
 		}
+		{	final Button button= new Button(group, SWT.CHECK);
+			button.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false, 2, 1));
+			button.setText("Keep trimmed output in a scrollback &file");
+			fScrollbackControl= button;
+		}
 		
 		return group;
 	}
@@ -127,6 +135,9 @@ class ConsolePreferenceBlock extends ManagedConfigurationBlock {
 				createObservable(ConsolePreferences.PREF_CHARLIMIT),
 				new UpdateValueStrategy().setAfterGetValidator(new IntegerValidator(10000, 1000000000, "Invalid char limit specified (10000-1000000000).")),
 				null );
+		db.getContext().bindValue(
+				SWTObservables.observeSelection(fScrollbackControl),
+				createObservable(ConsolePreferences.PREF_SCROLLBACK_ENABLED) );
 	}
 	
 }
@@ -51,6 +51,7 @@ public class ConsolePreferences extends AbstractPreferenceInitializer {
 	public static final String KEY_FILTER_SHOW_ALL_ERRORS= "Output.Filter.ShowAllErrors.enable"; //$NON-NLS-1$
 	
 	public static final String KEY_CHARLIMIT= "Output.CharLimit.num"; //$NON-NLS-1$
+	public static final String KEY_SCROLLBACK_ENABLED= "Output.Scrollback.enable"; //$NON-NLS-1$
 	
 	
 	public static final String OUTPUT_TEXTSTYLE_GROUP_ID= "nico.console/output/textstyle"; //$NON-NLS-1$
@@ -71,6 +72,8 @@ public class ConsolePreferences extends AbstractPreferenceInitializer {
 	
 	public static final Preference<Integer> PREF_CHARLIMIT= new IntPref(
 			NicoUIPreferenceNodes.CAT_CONSOLE_QUALIFIER, KEY_CHARLIMIT);
+	public static final Preference<Boolean> PREF_SCROLLBACK_ENABLED= new BooleanPref(
+			NicoUIPreferenceNodes.CAT_CONSOLE_QUALIFIER, KEY_SCROLLBACK_ENABLED);
 	
 	public static final Preference<EnumSet<SubmitType>> PREF_HISTORYNAVIGATION_SUBMIT_TYPES= new EnumSetPref<SubmitType>(
 			NicoUIPreferenceNodes.CAT_CONSOLE_QUALIFIER, KEY_HISTORYNAVIGATION_SUBMIT_TYPES, SubmitType.class);
@@ -175,6 +178,7 @@ public class ConsolePreferences extends AbstractPreferenceInitializer {
 		PreferencesUtil.setPrefValue(scope, PREF_FILTER_SHOW_ALL_ERRORS, false);
 		
 		PreferencesUtil.setPrefValue(scope, PREF_CHARLIMIT, 500000);
+		PreferencesUtil.setPrefValue(scope, PREF_SCROLLBACK_ENABLED, false);
 		
 		
 		consolePrefs.put(OUTPUT_INPUT_ROOT_KEY + TEXTSTYLE_COLOR_SUFFIX,
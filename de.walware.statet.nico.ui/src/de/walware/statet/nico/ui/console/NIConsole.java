@@ -177,6 +177,9 @@ public abstract class NIConsole extends TextConsole implements IAdaptable {
 	}
 	
 	protected void updateWatermarks() {
+		fPartitioner.setScrollbackEnabled(PreferencesUtil.getInstancePrefs().getPreferenceValue(
+				ConsolePreferences.PREF_SCROLLBACK_ENABLED ));
+		
 		final boolean limitBufferSize = true;
 		if (limitBufferSize) {
 			int lowWater = PreferencesUtil.getInstancePrefs().getPreferenceValue(ConsolePreferences.PREF_CHARLIMIT);
@@ -242,6 +245,7 @@ public abstract class NIConsole extends TextConsole implements IAdaptable {
 		}
 		
 		disconnect();
+		fPartitioner.setScrollbackEnabled(false);
 	}
 	
 	@Override
@@ -253,6 +257,24 @@ public abstract class NIConsole extends TextConsole implements IAdaptable {
 		return fPartitioner;
 	}
 	
+	/**
+	 * Returns the total number of chars written to the console.
+	 * 
+	 * @return the number of chars
+	 */
+	public long getOutputCharCount() {
+		return fPartitioner.getOutputCharCount();
+	}
+	
+	/**
+	 * Returns the total number of lines written to the console.
+	 * 
+	 * @return the number of lines
+	 */
+	public long getOutputLineCount() {
+		return fPartitioner.getOutputLineCount();
+	}
+	
 	
 	public void connect(final ToolStreamMonitor streamMonitor, final String streamId,
 			final EnumSet<SubmitType> filter) {
@@ -272,6 +294,7 @@ public abstract class NIConsole extends TextConsole implements IAdaptable {
 				
 				private static final int BUFFER_SIZE = 9216;
 				private final StringBuilder fBuffer = new StringBuilder(BUFFER_SIZE);
+				private volatile boolean fBellPending;
 				
 				@Override
 				public void streamAppended(final String text, final IStreamMonitor monitor) {
@@ -343,10 +366,16 @@ public abstract class NIConsole extends TextConsole implements IAdaptable {
 				}
 				
 				private void ring() {
+					// coalesce bells of a burst of output to a single beep
+					if (fBellPending) {
+						return;
+					}
+					fBellPending = true;
 					final Display display = UIAccess.getDisplay();
 					display.asyncExec(new Runnable() {
 						@Override
 						public void run() {
+							fBellPending = false;
 							display.beep();
 						};
 					});
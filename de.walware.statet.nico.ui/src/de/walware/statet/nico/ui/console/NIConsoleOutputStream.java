@@ -14,6 +14,10 @@ package de.walware.statet.nico.ui.console;
 
 import java.io.IOException;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.ui.IDebugUIConstants;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.ui.console.ConsolePlugin;
@@ -38,6 +42,9 @@ public final class NIConsoleOutputStream {
 	public static final String ERROR_STREAM_ID= IDebugUIConstants.ID_STANDARD_ERROR_STREAM;
 	public static final String SYSTEM_OUTPUT_STREAM_ID= NicoUI.PLUGIN_ID+".SystemOutputStream"; //$NON-NLS-1$
 	
+	/** Min interval between notifications about new content (nanoseconds) */
+	private static final long CONTENT_WARNING_INTERVAL= 100000000L;
+	
 	
 	/**
 	 * The console this stream is attached to.
@@ -72,6 +79,33 @@ public final class NIConsoleOutputStream {
 	
 	private boolean prependCR;
 	
+	/**
+	 * Time of the last notification of the console manager about new content (nanoTime).
+	 */
+	private long lastContentWarning= System.nanoTime() - CONTENT_WARNING_INTERVAL;
+	
+	/**
+	 * Flag indicating whether the notification about new content suppressed in a burst is
+	 * scheduled.
+	 */
+	private boolean contentWarningScheduled;
+	
+	/**
+	 * Job notifying the console manager about new content suppressed in a burst.
+	 */
+	private final Job contentWarningJob= new Job("Console Content Change") { //$NON-NLS-1$
+		@Override
+		protected IStatus run(final IProgressMonitor monitor) {
+			synchronized (NIConsoleOutputStream.this) {
+				NIConsoleOutputStream.this.contentWarningScheduled= false;
+				NIConsoleOutputStream.this.lastContentWarning= System.nanoTime();
+			}
+			ConsolePlugin.getDefault().getConsoleManager().warnOfContentChange(
+					NIConsoleOutputStream.this.console );
+			return Status.OK_STATUS;
+		}
+	};
+	
 	
 	/**
 	 * Constructs a new output stream on the given console.
@@ -83,6 +117,8 @@ public final class NIConsoleOutputStream {
 		this.console= console;
 		this.partitioner= console.getPartitioner();
 		this.id= streamId;
+		
+		this.contentWarningJob.setSystem(true);
 	}
 	
 	
@@ -194,7 +230,18 @@ public final class NIConsoleOutputStream {
 	private void notifyParitioner(final String encodedString) throws IOException {
 		this.partitioner.streamAppended(this, encodedString);
 		
-		ConsolePlugin.getDefault().getConsoleManager().warnOfContentChange(this.console);
+		// the console manager schedules a job for each notification, so notify only once in a burst
+		// and once after the burst for the suppressed notifications
+		final long time= System.nanoTime();
+		final long wait= this.lastContentWarning + CONTENT_WARNING_INTERVAL - time;
+		if (wait <= 0) {
+			this.lastContentWarning= time;
+			ConsolePlugin.getDefault().getConsoleManager().warnOfContentChange(this.console);
+		}
+		else if (!this.contentWarningScheduled) {
+			this.contentWarningScheduled= true;
+			this.contentWarningJob.schedule(wait / 1000000L + 1);
+		}
 	}
 	
 }
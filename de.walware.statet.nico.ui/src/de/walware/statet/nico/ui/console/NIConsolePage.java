@@ -11,6 +11,10 @@
 
 package de.walware.statet.nico.ui.console;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -21,7 +25,9 @@ import java.util.Set;
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.IHandler2;
 import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IDebugEventSetListener;
@@ -65,6 +71,7 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.Sash;
@@ -90,6 +97,7 @@ import org.eclipse.ui.part.IShowInSource;
 import org.eclipse.ui.part.IShowInTargetList;
 import org.eclipse.ui.part.ShowInContext;
 import org.eclipse.ui.services.IServiceLocator;
+import org.eclipse.ui.statushandlers.StatusManager;
 import org.eclipse.ui.texteditor.FindReplaceAction;
 
 import de.walware.ecommons.ltk.ui.sourceediting.ISourceEditor;
@@ -120,6 +128,8 @@ import de.walware.statet.nico.core.util.IToolRetargetable;
 import de.walware.statet.nico.internal.ui.LocalTaskTransfer;
 import de.walware.statet.nico.internal.ui.Messages;
 import de.walware.statet.nico.internal.ui.NicoUIPlugin;
+import de.walware.statet.nico.internal.ui.console.NIConsoleScrollback;
+import de.walware.statet.nico.internal.ui.console.NIConsoleScrollbackDialog;
 import de.walware.statet.nico.internal.ui.console.OutputViewer;
 import de.walware.statet.nico.ui.NicoUI;
 import de.walware.statet.nico.ui.actions.CancelHandler;
@@ -788,6 +798,25 @@ public abstract class NIConsolePage implements IPageBookViewPage,
 				dialog.open();
 			}
 		});
+		menuManager.add(createShowScrollbackItem());
+		menuManager.add(new SimpleContributionItem("Export Runnable Statistics...", null) {
+			@Override
+			protected void execute() throws ExecutionException {
+				final ToolProcess tool = getTool();
+				final ToolController controller = (tool != null) ? tool.getController() : null;
+				if (controller == null) {
+					return;
+				}
+				final FileDialog dialog = new FileDialog(getSite().getShell(), SWT.SAVE);
+				dialog.setText("Export Runnable Statistics");
+				dialog.setFilterExtensions(new String[] { "*.csv", "*.*" }); //$NON-NLS-1$ //$NON-NLS-2$
+				dialog.setOverwrite(true);
+				final String path = dialog.open();
+				if (path != null) {
+					exportRunnableStatistics(controller, path);
+				}
+			}
+		});
 		
 		menuManager.add(new Separator("settings")); //$NON-NLS-1$
 		menuManager.add(new SimpleContributionItem("Preferences...", "P") {
@@ -807,6 +836,48 @@ public abstract class NIConsolePage implements IPageBookViewPage,
 		menuManager.add(new Separator());
 	}
 	
+	private void exportRunnableStatistics(final ToolController controller, final String path) {
+		Writer writer = null;
+		try {
+			writer = new OutputStreamWriter(new FileOutputStream(path), "UTF-8"); //$NON-NLS-1$
+			controller.getRunnableStatistics().exportCSV(writer);
+			writer.close();
+			writer = null;
+		}
+		catch (final IOException e) {
+			StatusManager.getManager().handle(new Status(IStatus.ERROR, NicoUI.PLUGIN_ID,
+					"An error occurred when exporting the runnable statistics.", e ),
+					StatusManager.LOG | StatusManager.SHOW );
+		}
+		finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				}
+				catch (final IOException e) {}
+			}
+		}
+	}
+	
+	private SimpleContributionItem createShowScrollbackItem() {
+		return new SimpleContributionItem("Show Trimmed Output...", "T") {
+			@Override
+			public boolean isVisible() {
+				return (fConsole.getPartitioner().getScrollback() != null);
+			}
+			@Override
+			protected void execute() throws ExecutionException {
+				final NIConsoleScrollback scrollback = fConsole.getPartitioner().getScrollback();
+				if (scrollback == null) {
+					return;
+				}
+				final NIConsoleScrollbackDialog dialog = new NIConsoleScrollbackDialog(
+						getSite().getShell(), fConsole, scrollback );
+				dialog.open();
+			}
+		};
+	}
+	
 	protected void fillInputContextMenu(final IMenuManager manager) {
 		manager.add(fInputCutAction);
 		manager.add(fInputCopyAction);
@@ -827,6 +898,7 @@ public abstract class NIConsolePage implements IPageBookViewPage,
 		
 		manager.add(new Separator("more")); //$NON-NLS-1$
 		manager.add(fFindReplaceAction);
+		manager.add(createShowScrollbackItem());
 //		manager.add(new FollowHyperlinkAction(fViewer));
 		
 		manager.add(new Separator("submit")); //$NON-NLS-1$
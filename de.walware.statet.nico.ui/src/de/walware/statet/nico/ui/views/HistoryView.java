@@ -11,9 +11,12 @@
 
 package de.walware.statet.nico.ui.views;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import com.ibm.icu.text.DateFormat;
 
@@ -347,15 +350,17 @@ public class HistoryView extends ViewPart implements IToolProvider {
 			}
 			if (toRemove > REMOVE_THRESHOLD) {
 				final int itemCount = fTable.getItemCount();
+				final Set<Entry> toRemoveSet = Collections.newSetFromMap(new IdentityHashMap<Entry, Boolean>(toRemove));
+				for (int i = 0; i < toRemove; i++) {
+					toRemoveSet.add(toRemoveEntries[i]);
+				}
 				int[] removeIdxs = new int[toRemove];
 				int count = 0;
-				for (int i = 0; i < toRemove; i++) {
-					for (int j = 0; j < itemCount; j++) {
-						final TableItem removedItem = fTable.getItem(j);
-						if (removedItem.getData() == toRemoveEntries[i]) {
-							removedItem.setData(null);
-							removeIdxs[count++] = j;
-						}
+				for (int j = 0; j < itemCount && count < toRemove; j++) {
+					final TableItem removedItem = fTable.getItem(j);
+					if (toRemoveSet.contains(removedItem.getData())) {
+						removedItem.setData(null);
+						removeIdxs[count++] = j;
 					}
 				}
 				if (count > 0) {
@@ -873,14 +878,22 @@ public class HistoryView extends ViewPart implements IToolProvider {
 		fTable.setFocus();
 	}
 	
+	/**
+	 * Searches the next entry matching the search text.
+	 * 
+	 * The search runs through the entries of the history by their position in the history (see
+	 * {@link History#get(int)}), applying the filters of the view, and looks up only the table
+	 * item of a matching entry.
+	 */
 	private void search(final boolean forward, final int startIdx) {
 		if (!UIAccess.isOkToUse(fTable)) {
 			return;
 		}
 		
+		final ToolProcess process = fProcess;
 		final int itemCount = fTable.getItemCount();
 		final String text = fSearchTextItem.getText();
-		if (itemCount == 0 || text.isEmpty()) {
+		if (process == null || itemCount == 0 || text.isEmpty()) {
 			return;
 		}
 		
@@ -903,35 +916,74 @@ public class HistoryView extends ViewPart implements IToolProvider {
 		else {
 			idx = (forward) ? startIdx-1 : startIdx+1;
 		}
-		if (forward) {
-			idx++;
-			while (idx < itemCount) {
-				final Entry e = (Entry) fTable.getItem(idx).getData();
-				final int offset = e.getCommandMarker();
-				if (fSearchPattern.matches(e.getCommand().substring(
-						offset >= 0 ? offset : -1-offset))) {
-					fTable.setSelection(idx);
-					return;
-				}
-				idx++;
+		final Entry startEntry = (idx >= 0 && idx < itemCount) ?
+				(Entry) fTable.getItem(idx).getData() : null;
+		final EntryFilter[] filter = fFilter.toArray();
+		
+		final History history = process.getHistory();
+		history.getReadLock().lock();
+		try {
+			final int size = history.size();
+			int pos = (startEntry != null) ? history.indexOf(startEntry) : -1;
+			if (pos < 0) {
+				pos = (idx < 0 || forward) ? -1 : size;
 			}
-		}
-		else {
-			idx--;
-			while (idx >= 0) {
-				final Entry e = (Entry) fTable.getItem(idx).getData();
+			ITER_ENTRY : while (true) {
+				pos = (forward) ? pos+1 : pos-1;
+				if (pos < 0 || pos >= size) {
+					break;
+				}
+				final Entry e = history.get(pos);
+				for (int f = 0; f < filter.length; f++) {
+					if (!filter[f].select(e)) {
+						continue ITER_ENTRY;
+					}
+				}
 				final int offset = e.getCommandMarker();
 				if (fSearchPattern.matches(e.getCommand().substring(
 						offset >= 0 ? offset : -1-offset))) {
-					fTable.setSelection(idx);
-					return;
+					final int itemIdx = getItemIndex(history, pos, itemCount);
+					if (itemIdx >= 0) {
+						fTable.setSelection(itemIdx);
+						return;
+					}
 				}
-				idx--;
 			}
 		}
+		finally {
+			history.getReadLock().unlock();
+		}
 		Display.getCurrent().beep();
 	}
 	
+	/**
+	 * Returns the index of the table item of the entry at the specified position in the history.
+	 * 
+	 * The table items are in the order of the history, so a binary search is used.
+	 * 
+	 * @return the index or <code>-1</code>, if the entry is not (yet) shown
+	 */
+	private int getItemIndex(final History history, final int pos, final int itemCount) {
+		int low = 0;
+		int high = itemCount - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final Entry e = (Entry) fTable.getItem(mid).getData();
+			// entries no longer in the history are the oldest ones
+			final int midPos = (e != null) ? history.indexOf(e) : -1;
+			if (midPos < pos) {
+				low = mid + 1;
+			}
+			else if (midPos > pos) {
+				high = mid - 1;
+			}
+			else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+	
 	@Override
 	public void dispose() {
 		if (fToolRegistryListener != null) {
@@ -84,6 +84,17 @@ public class RWorkspace extends ToolWorkspace {
 		
 		RProcess getSource();
 		
+		/**
+		 * Returns the stamp of the data of the environment.
+		 * 
+		 * The stamp is the counter of the tool controller when the data was loaded or validated
+		 * the last time. The data of the same environment object with the same stamp is
+		 * unchanged.
+		 * 
+		 * @return the stamp
+		 */
+		int getStamp();
+		
 	}
 	
 	public static final List<IStringVariable> ADDITIONAL_R_VARIABLES = new ConstArrayList<IStringVariable>(
@@ -191,7 +202,8 @@ public class RWorkspace extends ToolWorkspace {
 				}
 				// Debug code
 //				if (item.getName().equals("methods")) {
-				{	final REnvironmentVar envir = fSearchEnvs.get(idx);
+				{	final int envIdx = updateIdxs.get(idx);
+					final REnvironmentVar envir = fSearchEnvs.get(envIdx);
 //					final RVector<RCharacterStore> ls = (RVector<RCharacterStore>) tools.evalData("ls(name=\""+item.getId()+"\", all.names=TRUE)", monitor);
 //					final RCharacterStore lsData = ls.getData();
 //					for (int i = 0; i < lsData.getLength(); i++) {
@@ -213,7 +225,7 @@ public class RWorkspace extends ToolWorkspace {
 						if (robject != null && robject.getRObjectType() == RObject.TYPE_ENV) {
 							final REnvironmentVar renv = (REnvironmentVar) robject;
 							renv.setSource(r.getTool(), r.getController().getCounter());
-							fSearchEnvs.set(idx, renv);
+							fSearchEnvs.set(envIdx, renv);
 							updateEnvs.add(renv);
 							continue;
 						}
@@ -532,8 +544,12 @@ public class RWorkspace extends ToolWorkspace {
 		monitor.subTask("Update Workspace Data");
 		if (controller.getTool().isProvidingFeatureSet(RConsoleTool.R_DATA_FEATURESET_ID)) {
 			final IRDataAdapter r = (IRDataAdapter) controller;
-			updateWorkspaceDir(r, monitor);
-			updateOptions(r, monitor);
+			final RObject[] data = controller.evalDataBatch(new String[] {
+					"getwd()", //$NON-NLS-1$
+					"options(\"prompt\", \"continue\")", //$NON-NLS-1$
+			}, monitor );
+			updateWorkspaceDir(data[0]);
+			updateOptions(controller, (RList) data[1]);
 			if (fRObjectDBEnabled) {
 				final Set<RElementName> elements = controller.getBriefedChangedElements();
 				if ( ((options & REFRESH_COMPLETE) != 0)
@@ -559,8 +575,7 @@ public class RWorkspace extends ToolWorkspace {
 		}
 	}
 	
-	private void updateWorkspaceDir(final IRDataAdapter r, final IProgressMonitor monitor) throws CoreException {
-		final RObject rWd = r.evalData("getwd()", monitor); //$NON-NLS-1$
+	private void updateWorkspaceDir(final RObject rWd) {
 		if (RDataUtil.isSingleString(rWd)) {
 			final String wd = rWd.getData().getChar(0);
 			if (!isRemote()) {
@@ -572,18 +587,17 @@ public class RWorkspace extends ToolWorkspace {
 		}
 	}
 	
-	private void updateOptions(final IRDataAdapter r, final IProgressMonitor monitor) throws CoreException {
-		final RList rOptions = (RList) r.evalData("options(\"prompt\", \"continue\")", monitor); //$NON-NLS-1$
+	private void updateOptions(final AbstractRController r, final RList rOptions) {
 		final RObject rPrompt = rOptions.get("prompt"); //$NON-NLS-1$
 		if (RDataUtil.isSingleString(rPrompt)) {
 			if (!rPrompt.getData().isNA(0)) {
-				((AbstractRController) r).setDefaultPromptTextL(rPrompt.getData().getChar(0));
+				r.setDefaultPromptTextL(rPrompt.getData().getChar(0));
 			}
 		}
 		final RObject rContinue = rOptions.get("continue"); //$NON-NLS-1$
 		if (RDataUtil.isSingleString(rContinue)) {
 			if (!rContinue.getData().isNA(0)) {
-				((AbstractRController) r).setContinuePromptText(rContinue.getData().getChar(0));
+				r.setContinuePromptText(rContinue.getData().getChar(0));
 			}
 		}
 	}
@@ -136,6 +136,7 @@ public final class REnvironmentVar extends CombinedElement
 		return this.source;
 	}
 	
+	@Override
 	public int getStamp() {
 		return this.stamp;
 	}
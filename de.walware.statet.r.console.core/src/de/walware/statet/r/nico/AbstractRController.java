@@ -17,6 +17,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -27,6 +28,9 @@ import de.walware.ecommons.ts.ITool;
 import de.walware.ecommons.ts.IToolRunnable;
 import de.walware.ecommons.ts.IToolService;
 
+import de.walware.rj.data.RList;
+import de.walware.rj.data.RObject;
+
 import de.walware.statet.nico.core.runtime.ITrack;
 import de.walware.statet.nico.core.runtime.SubmitType;
 import de.walware.statet.nico.core.runtime.ToolController;
@@ -35,6 +39,7 @@ import de.walware.statet.nico.core.util.TrackWriter;
 import de.walware.statet.nico.core.util.TrackingConfiguration;
 
 import de.walware.statet.r.console.core.IRBasicAdapter;
+import de.walware.statet.r.console.core.IRDataAdapter;
 import de.walware.statet.r.console.core.RConsoleTool;
 import de.walware.statet.r.console.core.RProcess;
 import de.walware.statet.r.console.core.RWorkspace;
@@ -80,6 +85,18 @@ public abstract class AbstractRController extends ToolController
 	
 	public static final String INIT_RGRAPHIC_FACTORY_HANDLER_ID = "r/initRGraphicFactory"; //$NON-NLS-1$
 	
+	/**
+	 * Id of the counter of the batches of {@link #evalDataBatch(String[], IProgressMonitor)}
+	 * in the {@link #getRunnableStatistics() runnable statistics}.
+	 */
+	public static final String BATCH_COUNTER_ID = "r/data/batch.count"; //$NON-NLS-1$
+	/**
+	 * Id of the counter of the round-trips saved by
+	 * {@link #evalDataBatch(String[], IProgressMonitor)} in the
+	 * {@link #getRunnableStatistics() runnable statistics}.
+	 */
+	public static final String BATCH_SAVED_ROUND_TRIPS_COUNTER_ID = "r/data/batch.savedRoundTrips"; //$NON-NLS-1$
+	
 	protected List<IToolRunnable> fStartupsRunnables = new ArrayList<IToolRunnable>();
 	
 	protected String fContinuePromptText;
@@ -90,6 +107,9 @@ public abstract class AbstractRController extends ToolController
 	
 	protected List<TrackingConfiguration> fTrackingConfigurations;
 	
+	private final AtomicLong fBatchCount = getRunnableStatistics().getCounter(BATCH_COUNTER_ID);
+	private final AtomicLong fBatchSavedRoundTrips = getRunnableStatistics().getCounter(BATCH_SAVED_ROUND_TRIPS_COUNTER_ID);
+	
 	
 	public AbstractRController(final RProcess process, final Map<String, Object> initData) {
 		super(process, initData);
@@ -256,6 +276,125 @@ public abstract class AbstractRController extends ToolController
 		}
 	}
 	
+	/**
+	 * Evaluates multiple expressions in a single exchange with R.
+	 * 
+	 * The expressions are combined to one list which is evaluated by
+	 * {@link IRDataAdapter#evalData(String, IProgressMonitor)}; the elements of the list are
+	 * returned as results of the expressions. If the evaluation of the combined call fails, the
+	 * expressions are evaluated separately, so errors are reported as without batching.
+	 * 
+	 * <strong>Only expressions without side effects</strong> (like queries of data) are allowed:
+	 * if the combined call fails because an expression signals an error, the expressions before
+	 * the failing expression were already evaluated once and are evaluated again by the separate
+	 * evaluation.
+	 * 
+	 * The controller must provide the {@link RConsoleTool#R_DATA_FEATURESET_ID R data feature set}.
+	 * 
+	 * @param expressions the R expressions to evaluate, without side effects
+	 * @param monitor
+	 * @return array with the results in the order of the expressions
+	 * @throws CoreException
+	 */
+	public RObject[] evalDataBatch(final String[] expressions,
+			final IProgressMonitor monitor) throws CoreException {
+		final IRDataAdapter r = (IRDataAdapter) this;
+		RObject[] results = tryEvalDataBatch(expressions, monitor);
+		if (results != null) {
+			return results;
+		}
+		results = new RObject[expressions.length];
+		for (int i = 0; i < expressions.length; i++) {
+			results[i] = r.evalData(expressions[i], monitor);
+		}
+		return results;
+	}
+	
+	/**
+	 * Evaluates multiple expressions in a single exchange with R, like
+	 * {@link #evalDataBatch(String[], IProgressMonitor)}, but without evaluating the expressions
+	 * separately if the combined call fails.
+	 * 
+	 * It allows the caller to handle the errors of the single expressions itself. The
+	 * restriction to expressions without side effects applies as well.
+	 * 
+	 * @param expressions the R expressions to evaluate, without side effects
+	 * @param monitor
+	 * @return array with the results in the order of the expressions or <code>null</code> if the
+	 *     evaluation of the combined call failed
+	 * @throws CoreException if canceled
+	 */
+	public RObject[] tryEvalDataBatch(final String[] expressions,
+			final IProgressMonitor monitor) throws CoreException {
+		final IRDataAdapter r = (IRDataAdapter) this;
+		final RObject[] results = new RObject[expressions.length];
+		if (expressions.length == 1) {
+			try {
+				results[0] = r.evalData(expressions[0], monitor);
+				return results;
+			}
+			catch (final CoreException e) {
+				if (monitor.isCanceled()) {
+					throw e;
+				}
+				return null;
+			}
+		}
+		if (expressions.length > 1) {
+			final StringBuilder sb = new StringBuilder("list("); //$NON-NLS-1$
+			for (int i = 0; i < expressions.length; i++) {
+				if (i > 0) {
+					sb.append(", "); //$NON-NLS-1$
+				}
+				sb.append("{\n").append(expressions[i]).append("\n}"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			sb.append(')');
+			try {
+				final RObject data = r.evalData(sb.toString(), monitor);
+				if (data instanceof RList && data.getLength() == expressions.length) {
+					final RList list = (RList) data;
+					for (int i = 0; i < expressions.length; i++) {
+						results[i] = list.get(i);
+					}
+					fBatchCount.incrementAndGet();
+					fBatchSavedRoundTrips.addAndGet(expressions.length - 1);
+					return results;
+				}
+			}
+			catch (final CoreException e) {
+				if (monitor.isCanceled()) {
+					throw e;
+				}
+			}
+			return null;
+		}
+		return results;
+	}
+	
+	/**
+	 * Returns the number of exchanges with R done by {@link #evalDataBatch(String[], IProgressMonitor)}.
+	 * 
+	 * The value is available in the {@link #getRunnableStatistics() runnable statistics} too
+	 * (counter {@link #BATCH_COUNTER_ID}).
+	 * 
+	 * @return the number of batches
+	 */
+	public long getBatchCount() {
+		return fBatchCount.get();
+	}
+	
+	/**
+	 * Returns the number of exchanges with R saved by {@link #evalDataBatch(String[], IProgressMonitor)}.
+	 * 
+	 * The value is available in the {@link #getRunnableStatistics() runnable statistics} too
+	 * (counter {@link #BATCH_SAVED_ROUND_TRIPS_COUNTER_ID}).
+	 * 
+	 * @return the number of saved round-trips
+	 */
+	public long getBatchSavedRoundTrips() {
+		return fBatchSavedRoundTrips.get();
+	}
+	
 	public Set<Long> getLazyEnvironments(final IProgressMonitor monitor) {
 		return null;
 	}
@@ -77,6 +77,7 @@ public class RTermController extends AbstractRController implements IRequireSync
 		volatile int hasNoOutput;
 		private final int SYNC_COUNT = 2;
 		private final int SYNC_MS = 33;
+		private final int BUFFER_SIZE = 8192;
 		
 		final Lock streamLock = new ReentrantLock();
 		
@@ -90,7 +91,7 @@ public class RTermController extends AbstractRController implements IRequireSync
 			boolean locked = false;
 			try {
 				boolean canRead = false;
-				final char[] b = new char[1024];
+				final char[] b = new char[BUFFER_SIZE];
 				while (fProcess != null | (canRead = fProcessOutputReader.ready())) {
 					fProcessOutputBuffer.available();
 					if (canRead || hasNoOutput > SYNC_COUNT) {
@@ -100,6 +101,14 @@ public class RTermController extends AbstractRController implements IRequireSync
 						}
 						int n = fProcessOutputReader.read(b);
 						if (n > 0) {
+							// append all available output at once
+							while (n < b.length && fProcessOutputReader.ready()) {
+								final int more = fProcessOutputReader.read(b, n, b.length - n);
+								if (more <= 0) {
+									break;
+								}
+								n += more;
+							}
 							hasNoOutput = 0;
 							if (!locked) {
 								streamLock.lock();
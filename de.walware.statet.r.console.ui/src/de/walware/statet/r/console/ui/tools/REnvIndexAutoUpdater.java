@@ -44,6 +44,7 @@ import de.walware.ecommons.ts.IToolService;
 import de.walware.ecommons.ui.util.LayoutUtil;
 import de.walware.ecommons.ui.util.UIAccess;
 
+import de.walware.statet.nico.core.runtime.ICoalescingRunnable;
 import de.walware.statet.nico.core.runtime.ToolProcess;
 import de.walware.statet.nico.ui.util.ToolMessageDialog;
 
@@ -78,7 +79,8 @@ public class REnvIndexAutoUpdater {
 	}
 	
 	
-	public static final class UpdateRunnable extends AbstractRDataRunnable {
+	public static final class UpdateRunnable extends AbstractRDataRunnable
+			implements ICoalescingRunnable {
 		
 		
 		private final boolean fCompletely;
@@ -90,6 +92,11 @@ public class REnvIndexAutoUpdater {
 		}
 		
 		
+		@Override
+		public Object getCoalescingKey() {
+			return Boolean.valueOf(fCompletely);
+		}
+		
 		@Override
 		public boolean changed(final int event, final ITool tool) {
 			if (event == MOVING_FROM) {
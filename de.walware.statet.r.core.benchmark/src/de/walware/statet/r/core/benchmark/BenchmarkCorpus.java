@@ -0,0 +1,175 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.core.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+
+/**
+ * The R source files the benchmarks run over.
+ * 
+ * By default the corpus bundled in the folder <code>corpus</code> of this fragment is used.
+ * Another corpus, e.g. the sources of some R packages, can be specified by the system property
+ * {@value #CORPUS_DIR_PROPERTY}; all files with the extension <code>.R</code> in the directory
+ * and its subdirectories are used.
+ */
+public class BenchmarkCorpus {
+	
+	
+	public static final String CORPUS_DIR_PROPERTY= "de.walware.statet.r.benchmark.corpus"; //$NON-NLS-1$
+	
+	
+	public static class Entry {
+		
+		private final String name;
+		private final String text;
+		
+		public Entry(final String name, final String text) {
+			this.name= name;
+			this.text= text;
+		}
+		
+		public String getName() {
+			return this.name;
+		}
+		
+		public String getText() {
+			return this.text;
+		}
+		
+		@Override
+		public String toString() {
+			return this.name;
+		}
+		
+	}
+	
+	
+	private static final Comparator<Entry> NAME_COMPARATOR= new Comparator<Entry>() {
+		@Override
+		public int compare(final Entry e1, final Entry e2) {
+			return e1.getName().compareTo(e2.getName());
+		}
+	};
+	
+	private static boolean isRFile(final String name) {
+		return (name.endsWith(".R") || name.endsWith(".r")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+	
+	
+	/**
+	 * Loads the corpus specified by the system property {@value #CORPUS_DIR_PROPERTY},
+	 * or the bundled corpus if the property is not set.
+	 */
+	public static BenchmarkCorpus load() throws IOException {
+		final String dir= System.getProperty(CORPUS_DIR_PROPERTY);
+		final List<Entry> entries= (dir != null && !dir.isEmpty()) ?
+				loadDirectory(Paths.get(dir)) : loadBundled();
+		if (entries.isEmpty()) {
+			throw new IOException("The benchmark corpus doesn't contain R files.");
+		}
+		Collections.sort(entries, NAME_COMPARATOR);
+		return new BenchmarkCorpus(entries);
+	}
+	
+	private static List<Entry> loadBundled() throws IOException {
+		final List<Entry> entries= new ArrayList<>();
+		// the classes of a fragment are loaded by the host bundle, which includes the entries of the fragment
+		final Bundle bundle= FrameworkUtil.getBundle(BenchmarkCorpus.class);
+		final Enumeration<URL> urls= bundle.findEntries("corpus", "*", true); //$NON-NLS-1$ //$NON-NLS-2$
+		if (urls != null) {
+			while (urls.hasMoreElements()) {
+				final URL url= urls.nextElement();
+				final String path= url.getPath();
+				if (isRFile(path)) {
+					try (final InputStream in= url.openStream()) {
+						entries.add(new Entry(path.substring(path.lastIndexOf('/') + 1), read(in)));
+					}
+				}
+			}
+		}
+		return entries;
+	}
+	
+	private static List<Entry> loadDirectory(final Path dir) throws IOException {
+		final List<Entry> entries= new ArrayList<>();
+		Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+				if (attrs.isRegularFile() && isRFile(file.getFileName().toString())) {
+					entries.add(new Entry(dir.relativize(file).toString(),
+							new String(Files.readAllBytes(file), StandardCharsets.UTF_8) ));
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return entries;
+	}
+	
+	private static String read(final InputStream in) throws IOException {
+		final Reader reader= new InputStreamReader(in, StandardCharsets.UTF_8);
+		final StringBuilder sb= new StringBuilder(0x4000);
+		final char[] buffer= new char[0x2000];
+		int n;
+		while ((n= reader.read(buffer)) >= 0) {
+			sb.append(buffer, 0, n);
+		}
+		return sb.toString();
+	}
+	
+	
+	private final List<Entry> entries;
+	
+	private final long charCount;
+	
+	
+	public BenchmarkCorpus(final List<Entry> entries) {
+		this.entries= Collections.unmodifiableList(entries);
+		long count= 0;
+		for (final Entry entry : entries) {
+			count+= entry.getText().length();
+		}
+		this.charCount= count;
+	}
+	
+	
+	public List<Entry> getEntries() {
+		return this.entries;
+	}
+	
+	/**
+	 * Returns the number of chars of all entries.
+	 */
+	public long getCharCount() {
+		return this.charCount;
+	}
+	
+}
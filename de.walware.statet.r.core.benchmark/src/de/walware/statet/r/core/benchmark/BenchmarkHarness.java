@@ -0,0 +1,417 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.core.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.junit.Assert;
+
+
+/**
+ * Runs {@link BenchmarkStage}s over a corpus and reports throughput, allocation and latency
+ * per stage.
+ * 
+ * A stage runs first for the warmup iterations and then for the measurement iterations; each
+ * iteration runs the stage once for each entry of the corpus. Reported are:
+ * <ul>
+ *   <li><code>opsPerSec</code>, <code>charsPerSec</code> - the throughput,</li>
+ *   <li><code>allocBytesPerOp</code>, <code>allocMBPerSec</code> - the allocated memory (if the
+ *       JVM supports the measurement of the allocated memory per thread),</li>
+ *   <li><code>p50Micros</code>, <code>p99Micros</code> - the latency of a single operation.</li>
+ * </ul>
+ * 
+ * The results are compared with the baseline file ({@value #BASELINE_FILE_PROPERTY}) and saved
+ * in the results file ({@value #RESULTS_FILE_PROPERTY}); both are properties files with the keys
+ * <code>&lt;stage id&gt;.&lt;measure&gt;</code>. To update the baseline, replace the baseline
+ * file by the results file. If the max regression ({@value #MAX_REGRESSION_PROPERTY}, e.g.
+ * <code>0.1</code> for 10%) is specified, a stage fails if its throughput or p99 latency is worse
+ * than the baseline by more than this factor.
+ */
+public class BenchmarkHarness {
+	
+	
+	public static final String WARMUP_ITERATIONS_PROPERTY= "de.walware.statet.r.benchmark.warmupIterations"; //$NON-NLS-1$
+	public static final String ITERATIONS_PROPERTY= "de.walware.statet.r.benchmark.iterations"; //$NON-NLS-1$
+	public static final String BASELINE_FILE_PROPERTY= "de.walware.statet.r.benchmark.baseline"; //$NON-NLS-1$
+	public static final String RESULTS_FILE_PROPERTY= "de.walware.statet.r.benchmark.results"; //$NON-NLS-1$
+	public static final String MAX_REGRESSION_PROPERTY= "de.walware.statet.r.benchmark.maxRegression"; //$NON-NLS-1$
+	
+	public static final String OPS_PER_SEC= "opsPerSec"; //$NON-NLS-1$
+	public static final String CHARS_PER_SEC= "charsPerSec"; //$NON-NLS-1$
+	public static final String ALLOC_BYTES_PER_OP= "allocBytesPerOp"; //$NON-NLS-1$
+	public static final String ALLOC_MB_PER_SEC= "allocMBPerSec"; //$NON-NLS-1$
+	public static final String P50_MICROS= "p50Micros"; //$NON-NLS-1$
+	public static final String P99_MICROS= "p99Micros"; //$NON-NLS-1$
+	
+	
+	/*
+	 * The allocated memory is measured by com.sun.management.ThreadMXBean. The package is not
+	 * visible for OSGi bundles by default, so the method is looked up by reflection.
+	 */
+	private static final Object THREAD_BEAN;
+	private static final Method GET_THREAD_ALLOCATED_BYTES_METHOD;
+	static {
+		Object bean= null;
+		Method method= null;
+		try {
+			final Class<?> beanClass= Class.forName("com.sun.management.ThreadMXBean", false, null); //$NON-NLS-1$
+			bean= ManagementFactory.getThreadMXBean();
+			if (beanClass.isInstance(bean)
+					&& (Boolean) beanClass.getMethod("isThreadAllocatedMemorySupported").invoke(bean) ) { //$NON-NLS-1$
+				beanClass.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(bean, true); //$NON-NLS-1$
+				method= beanClass.getMethod("getThreadAllocatedBytes", long.class); //$NON-NLS-1$
+			}
+		}
+		catch (final Exception e) {
+			method= null;
+		}
+		THREAD_BEAN= bean;
+		GET_THREAD_ALLOCATED_BYTES_METHOD= method;
+	}
+	
+	private static long getAllocatedBytes(final long threadId) {
+		if (GET_THREAD_ALLOCATED_BYTES_METHOD != null) {
+			try {
+				return (Long) GET_THREAD_ALLOCATED_BYTES_METHOD.invoke(THREAD_BEAN, threadId);
+			}
+			catch (final Exception e) {}
+		}
+		return -1;
+	}
+	
+	/** Bytes allocated by the measurement itself */
+	private static final long ALLOC_OVERHEAD;
+	static {
+		long overhead= 0;
+		if (GET_THREAD_ALLOCATED_BYTES_METHOD != null) {
+			final long threadId= Thread.currentThread().getId();
+			overhead= Long.MAX_VALUE;
+			for (int i= 0; i < 1000; i++) {
+				final long start= getAllocatedBytes(threadId);
+				overhead= Math.min(overhead, getAllocatedBytes(threadId) - start);
+			}
+		}
+		ALLOC_OVERHEAD= overhead;
+	}
+	
+	private static int getIntProperty(final String key, final int defaultValue) {
+		final String s= System.getProperty(key);
+		return (s != null && !s.isEmpty()) ? Integer.parseInt(s) : defaultValue;
+	}
+	
+	private static double getDoubleProperty(final String key) {
+		final String s= System.getProperty(key);
+		return (s != null && !s.isEmpty()) ? Double.parseDouble(s) : Double.NaN;
+	}
+	
+	private static Path getPathProperty(final String key) {
+		final String s= System.getProperty(key);
+		return (s != null && !s.isEmpty()) ? Paths.get(s) : null;
+	}
+	
+	
+	public static class StageResult {
+		
+		private final String stageId;
+		
+		private final long opCount;
+		private final long charCount;
+		private final long nanos;
+		private final long allocBytes;
+		private final long[] opNanos;
+		
+		StageResult(final String stageId, final long charCount, final long nanos,
+				final long allocBytes, final long[] opNanos) {
+			this.stageId= stageId;
+			this.opCount= opNanos.length;
+			this.charCount= charCount;
+			this.nanos= nanos;
+			this.allocBytes= allocBytes;
+			this.opNanos= opNanos.clone();
+			Arrays.sort(this.opNanos);
+		}
+		
+		public String getStageId() {
+			return this.stageId;
+		}
+		
+		public double getOpsPerSec() {
+			return this.opCount * 1e9 / this.nanos;
+		}
+		
+		public double getCharsPerSec() {
+			return this.charCount * 1e9 / this.nanos;
+		}
+		
+		/**
+		 * @return the allocated bytes per operation or <code>NaN</code> if not measured
+		 */
+		public double getAllocBytesPerOp() {
+			return (this.allocBytes >= 0) ? (double) this.allocBytes / this.opCount : Double.NaN;
+		}
+		
+		/**
+		 * @return the allocation rate in MB/s or <code>NaN</code> if not measured
+		 */
+		public double getAllocMBPerSec() {
+			return (this.allocBytes >= 0) ? this.allocBytes * 1e9 / this.nanos / (1 << 20) : Double.NaN;
+		}
+		
+		/**
+		 * Returns the latency of a single operation at the specified percentile.
+		 * 
+		 * @param p the percentile (0 &lt; p &le; 100)
+		 * @return the latency in &#x00B5;s
+		 */
+		public double getPercentileMicros(final double p) {
+			final int idx= (int) Math.ceil(p / 100 * this.opCount) - 1;
+			return this.opNanos[Math.max(idx, 0)] / 1e3;
+		}
+		
+		public double get(final String measure) {
+			switch (measure) {
+			case OPS_PER_SEC:
+				return getOpsPerSec();
+			case CHARS_PER_SEC:
+				return getCharsPerSec();
+			case ALLOC_BYTES_PER_OP:
+				return getAllocBytesPerOp();
+			case ALLOC_MB_PER_SEC:
+				return getAllocMBPerSec();
+			case P50_MICROS:
+				return getPercentileMicros(50);
+			case P99_MICROS:
+				return getPercentileMicros(99);
+			default:
+				throw new IllegalArgumentException(measure);
+			}
+		}
+		
+	}
+	
+	
+	private static final String[] MEASURES= new String[] {
+			OPS_PER_SEC, CHARS_PER_SEC, ALLOC_BYTES_PER_OP, ALLOC_MB_PER_SEC, P50_MICROS, P99_MICROS,
+	};
+	
+	
+	private final int warmupIterations;
+	private final int iterations;
+	
+	private final Properties baseline;
+	private final Path resultsFile;
+	private final double maxRegression;
+	
+	private final Properties results= new Properties();
+	
+	/** Consumes the results of the stages, so the JIT can't remove the operations */
+	private volatile int sink;
+	
+	
+	public BenchmarkHarness() throws IOException {
+		this.warmupIterations= getIntProperty(WARMUP_ITERATIONS_PROPERTY, 5);
+		this.iterations= getIntProperty(ITERATIONS_PROPERTY, 10);
+		
+		this.baseline= new Properties();
+		final Path baselineFile= getPathProperty(BASELINE_FILE_PROPERTY);
+		if (baselineFile != null && Files.isRegularFile(baselineFile)) {
+			try (final InputStream in= Files.newInputStream(baselineFile)) {
+				this.baseline.load(in);
+			}
+		}
+		this.resultsFile= getPathProperty(RESULTS_FILE_PROPERTY);
+		if (this.resultsFile != null && Files.isRegularFile(this.resultsFile)) {
+			// keep the results of other benchmark classes of the same run
+			try (final InputStream in= Files.newInputStream(this.resultsFile)) {
+				this.results.load(in);
+			}
+		}
+		this.maxRegression= getDoubleProperty(MAX_REGRESSION_PROPERTY);
+	}
+	
+	
+	public <I> StageResult run(final BenchmarkStage<I> stage, final List<BenchmarkCorpus.Entry> entries)
+			throws Exception {
+		for (int i= 0; i < this.warmupIterations; i++) {
+			runIteration(stage, entries, null);
+		}
+		
+		final long threadId= Thread.currentThread().getId();
+		final long[] opNanos= new long[this.iterations * entries.size()];
+		final long[] allocBytes= new long[1];
+		long charCount= 0;
+		for (int i= 0; i < this.iterations; i++) {
+			charCount+= runIteration(stage, entries, new Recorder(threadId, opNanos,
+					i * entries.size(), allocBytes ));
+		}
+		long nanos= 0;
+		for (int i= 0; i < opNanos.length; i++) {
+			nanos+= opNanos[i];
+		}
+		
+		final StageResult result= new StageResult(stage.getId(), charCount, nanos,
+				(GET_THREAD_ALLOCATED_BYTES_METHOD != null) ? allocBytes[0] : -1, opNanos );
+		report(result);
+		return result;
+	}
+	
+	private static final class Recorder {
+		
+		private final long threadId;
+		private final long[] opNanos;
+		private int opIdx;
+		private final long[] allocBytes;
+		
+		public Recorder(final long threadId, final long[] opNanos, final int opIdx,
+				final long[] allocBytes) {
+			this.threadId= threadId;
+			this.opNanos= opNanos;
+			this.opIdx= opIdx;
+			this.allocBytes= allocBytes;
+		}
+		
+	}
+	
+	private <I> long runIteration(final BenchmarkStage<I> stage,
+			final List<BenchmarkCorpus.Entry> entries, final Recorder recorder) throws Exception {
+		long charCount= 0;
+		int sink= 0;
+		for (final BenchmarkCorpus.Entry entry : entries) {
+			final I input= stage.prepare(entry);
+			if (recorder != null) {
+				final long startAlloc= getAllocatedBytes(recorder.threadId);
+				final long start= System.nanoTime();
+				
+				final Object result= stage.run(input);
+				
+				final long stop= System.nanoTime();
+				final long stopAlloc= getAllocatedBytes(recorder.threadId);
+				recorder.opNanos[recorder.opIdx++]= stop - start;
+				recorder.allocBytes[0]+= stopAlloc - startAlloc - ALLOC_OVERHEAD;
+				sink^= System.identityHashCode(result);
+			}
+			else {
+				sink^= System.identityHashCode(stage.run(input));
+			}
+			charCount+= entry.getText().length();
+		}
+		this.sink^= sink;
+		return charCount;
+	}
+	
+	
+	private void report(final StageResult result) {
+		final StringBuilder sb= new StringBuilder();
+		sb.append(String.format(Locale.ENGLISH, "%1$-24s", result.getStageId())); //$NON-NLS-1$
+		sb.append(formatMeasure(result.getStageId(), OPS_PER_SEC, "%1$,.1f ops/s", result.getOpsPerSec())); //$NON-NLS-1$
+		sb.append(formatMeasure(result.getStageId(), CHARS_PER_SEC, "%1$,.0f chars/s", result.getCharsPerSec())); //$NON-NLS-1$
+		sb.append(formatMeasure(result.getStageId(), ALLOC_BYTES_PER_OP, "%1$,.0f B/op", result.getAllocBytesPerOp())); //$NON-NLS-1$
+		sb.append(formatMeasure(result.getStageId(), ALLOC_MB_PER_SEC, "%1$,.1f MB/s", result.getAllocMBPerSec())); //$NON-NLS-1$
+		sb.append(formatMeasure(result.getStageId(), P50_MICROS, "p50 %1$,.1f us", result.getPercentileMicros(50))); //$NON-NLS-1$
+		sb.append(formatMeasure(result.getStageId(), P99_MICROS, "p99 %1$,.1f us", result.getPercentileMicros(99))); //$NON-NLS-1$
+		System.out.println(sb.toString());
+		
+		for (final String measure : MEASURES) {
+			setResult(result.getStageId(), measure, result.get(measure));
+		}
+	}
+	
+	/**
+	 * Reports an additional measure of a stage, e.g. derived from its result.
+	 * 
+	 * @param format the format of the value for the console
+	 */
+	public void report(final String stageId, final String measure, final String format,
+			final double value) {
+		System.out.println(String.format(Locale.ENGLISH, "%1$-24s", stageId) + //$NON-NLS-1$
+				formatMeasure(stageId, measure, format, value) );
+		setResult(stageId, measure, value);
+	}
+	
+	private void setResult(final String stageId, final String measure, final double value) {
+		if (!Double.isNaN(value)) {
+			this.results.setProperty(stageId + '.' + measure,
+					String.format(Locale.ENGLISH, "%1$.3f", value) ); //$NON-NLS-1$
+		}
+	}
+	
+	private String formatMeasure(final String stageId, final String measure, final String format,
+			final double value) {
+		if (Double.isNaN(value)) {
+			return ""; //$NON-NLS-1$
+		}
+		final StringBuilder sb= new StringBuilder();
+		sb.append("  "); //$NON-NLS-1$
+		sb.append(String.format(Locale.ENGLISH, format, value));
+		final double baselineValue= getBaseline(stageId, measure);
+		if (!Double.isNaN(baselineValue) && baselineValue != 0) {
+			sb.append(String.format(Locale.ENGLISH, " (%1$+.1f%%)", //$NON-NLS-1$
+					(value - baselineValue) * 100 / baselineValue ));
+		}
+		return sb.toString();
+	}
+	
+	public double getBaseline(final String stageId, final String measure) {
+		final String s= this.baseline.getProperty(stageId + '.' + measure);
+		return (s != null) ? Double.parseDouble(s) : Double.NaN;
+	}
+	
+	/**
+	 * Checks the result against the baseline, if a max regression is specified.
+	 */
+	public void check(final StageResult result) {
+		if (Double.isNaN(this.maxRegression)) {
+			return;
+		}
+		final double baselineOps= getBaseline(result.getStageId(), OPS_PER_SEC);
+		if (!Double.isNaN(baselineOps)) {
+			Assert.assertTrue(String.format(Locale.ENGLISH,
+							"%1$s: throughput %2$,.1f ops/s is below the baseline %3$,.1f ops/s", //$NON-NLS-1$
+							result.getStageId(), result.getOpsPerSec(), baselineOps ),
+					result.getOpsPerSec() >= baselineOps * (1 - this.maxRegression) );
+		}
+		final double baselineP99= getBaseline(result.getStageId(), P99_MICROS);
+		if (!Double.isNaN(baselineP99)) {
+			Assert.assertTrue(String.format(Locale.ENGLISH,
+							"%1$s: p99 latency %2$,.1f us is above the baseline %3$,.1f us", //$NON-NLS-1$
+							result.getStageId(), result.getPercentileMicros(99), baselineP99 ),
+					result.getPercentileMicros(99) <= baselineP99 * (1 + this.maxRegression) );
+		}
+	}
+	
+	/**
+	 * Saves the results of all stages run so far to the results file.
+	 */
+	public void saveResults() throws IOException {
+		if (this.resultsFile == null) {
+			return;
+		}
+		if (this.resultsFile.getParent() != null) {
+			Files.createDirectories(this.resultsFile.getParent());
+		}
+		try (final OutputStream out= Files.newOutputStream(this.resultsFile)) {
+			this.results.store(out, "Results of the R source pipeline benchmarks"); //$NON-NLS-1$
+		}
+	}
+	
+}
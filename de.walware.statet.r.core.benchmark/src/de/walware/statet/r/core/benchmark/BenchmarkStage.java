@@ -0,0 +1,61 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.core.benchmark;
+
+
+/**
+ * A stage of the R source pipeline measured by the {@link BenchmarkHarness}.
+ * 
+ * For each operation, the harness prepares the input of the stage for a corpus entry
+ * ({@link #prepare(BenchmarkCorpus.Entry)}, not measured) and runs the stage once for this input
+ * ({@link #run(Object)}, measured). Stages which modify their input (e.g. add attachments to the
+ * AST) must create a new input in each call of <code>prepare</code>.
+ * 
+ * @param <I> type of the input of the stage
+ */
+public abstract class BenchmarkStage<I> {
+	
+	
+	private final String id;
+	
+	
+	protected BenchmarkStage(final String id) {
+		this.id= id;
+	}
+	
+	
+	/**
+	 * Returns the id of the stage, used as key in the result and baseline files.
+	 */
+	public String getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Creates the input of the stage for the specified corpus entry.
+	 */
+	public abstract I prepare(BenchmarkCorpus.Entry entry) throws Exception;
+	
+	/**
+	 * Runs the stage once.
+	 * 
+	 * @return the result of the stage, consumed by the harness
+	 */
+	public abstract Object run(I input) throws Exception;
+	
+	
+	@Override
+	public String toString() {
+		return this.id;
+	}
+	
+}
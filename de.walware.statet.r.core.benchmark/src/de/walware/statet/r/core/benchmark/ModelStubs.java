@@ -0,0 +1,128 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.core.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.walware.ecommons.ltk.IProblemRequestor;
+
+import de.walware.statet.r.core.RCore;
+import de.walware.statet.r.core.model.IRSourceUnit;
+import de.walware.statet.r.core.model.RElementName;
+import de.walware.statet.r.core.model.RModel;
+
+
+/**
+ * Stubs of the model objects required by the R source pipeline outside of the workbench.
+ */
+public final class ModelStubs {
+	
+	
+	private static Object getDefaultValue(final Class<?> type) {
+		if (type == Boolean.TYPE) {
+			return Boolean.FALSE;
+		}
+		if (type == Integer.TYPE) {
+			return Integer.valueOf(0);
+		}
+		if (type == Long.TYPE) {
+			return Long.valueOf(0);
+		}
+		return null;
+	}
+	
+	private static Object invokeObjectMethod(final Object proxy, final Method method,
+			final Object[] args, final String label) {
+		switch (method.getName()) {
+		case "equals": //$NON-NLS-1$
+			return Boolean.valueOf(proxy == args[0]);
+		case "hashCode": //$NON-NLS-1$
+			return Integer.valueOf(System.identityHashCode(proxy));
+		case "toString": //$NON-NLS-1$
+			return label;
+		default:
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * Creates an R source unit (type {@link IRSourceUnit#R_OTHER_SU}) with the specified id.
+	 * 
+	 * The source unit provides its identity only; it doesn't provide a document, resource or
+	 * model of its own.
+	 */
+	public static IRSourceUnit createSourceUnit(final String id) {
+		final RElementName name= RElementName.create(RElementName.RESOURCE, id);
+		return (IRSourceUnit) Proxy.newProxyInstance(ModelStubs.class.getClassLoader(),
+				new Class<?>[] { IRSourceUnit.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(final Object proxy, final Method method, final Object[] args) {
+						if (method.getDeclaringClass() == Object.class) {
+							return invokeObjectMethod(proxy, method, args, id);
+						}
+						switch (method.getName()) {
+						case "getId": //$NON-NLS-1$
+							return id;
+						case "getElementName": //$NON-NLS-1$
+							return name;
+						case "getModelTypeId": //$NON-NLS-1$
+							return RModel.TYPE_ID;
+						case "getContentTypeId": //$NON-NLS-1$
+							return IRSourceUnit.R_CONTENT;
+						case "getElementType": //$NON-NLS-1$
+							return Integer.valueOf(IRSourceUnit.R_OTHER_SU);
+						case "getRCoreAccess": //$NON-NLS-1$
+							return RCore.getWorkbenchAccess();
+						case "exists": //$NON-NLS-1$
+						case "isReadOnly": //$NON-NLS-1$
+							return Boolean.TRUE;
+						default:
+							return getDefaultValue(method.getReturnType());
+						}
+					}
+				});
+	}
+	
+	/**
+	 * Creates a problem requestor counting the reported problems.
+	 * 
+	 * @param problemCount the counter for the problems
+	 */
+	public static IProblemRequestor createProblemRequestor(final AtomicLong problemCount) {
+		return (IProblemRequestor) Proxy.newProxyInstance(ModelStubs.class.getClassLoader(),
+				new Class<?>[] { IProblemRequestor.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(final Object proxy, final Method method, final Object[] args) {
+						if (method.getDeclaringClass() == Object.class) {
+							return invokeObjectMethod(proxy, method, args, "ProblemRequestor"); //$NON-NLS-1$
+						}
+						if (method.getName().equals("acceptProblems") && args != null) { //$NON-NLS-1$
+							final Object problems= args[args.length - 1];
+							problemCount.addAndGet((problems instanceof List) ? ((List<?>) problems).size() : 1);
+						}
+						return getDefaultValue(method.getReturnType());
+					}
+				});
+	}
+	
+	
+	private ModelStubs() {
+	}
+	
+}
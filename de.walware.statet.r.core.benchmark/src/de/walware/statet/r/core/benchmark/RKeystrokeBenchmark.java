@@ -0,0 +1,246 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.walware.ecommons.ltk.AstInfo;
+import de.walware.ecommons.ltk.IModelManager;
+import de.walware.ecommons.ltk.IProblemRequestor;
+import de.walware.ecommons.ltk.SourceContent;
+import de.walware.ecommons.text.FixInterningStringCache;
+import de.walware.ecommons.text.IStringCache;
+import de.walware.ecommons.text.SourceParseInput;
+import de.walware.ecommons.text.StringParseInput;
+
+import de.walware.statet.r.core.model.IRSourceUnit;
+import de.walware.statet.r.core.model.RProblemReporter;
+import de.walware.statet.r.core.model.RSuModelContainer;
+import de.walware.statet.r.core.rsource.ast.RScanner;
+import de.walware.statet.r.core.rsource.ast.RoxygenScanner;
+import de.walware.statet.r.core.rsource.ast.SourceComponent;
+import de.walware.statet.r.internal.core.RCorePlugin;
+import de.walware.statet.r.internal.core.sourcemodel.RReconciler;
+import de.walware.statet.r.internal.core.sourcemodel.SourceAnalyzer;
+
+
+/**
+ * Benchmark of the editor reconciler for a large R source while typing.
+ * 
+ * The corpus is repeated to a source of at least {@value #DEFAULT_LINES} lines (system property
+ * {@value #LINES_PROPERTY}). A line of code is typed char by char in the middle of the source;
+ * each keystroke is one operation, which runs the reconcile steps for the complete source like
+ * the R reconciler:
+ * <ul>
+ *   <li><code>r.keystroke.ast</code> - AST and Roxygen comments,</li>
+ *   <li><code>r.keystroke.reconcile</code> - AST, model and the problem report,</li>
+ *   <li><code>r.keystroke.reconciler</code> - the R reconciler itself, which updates the AST
+ *     incrementally from the AST of the previous keystroke.</li>
+ * </ul>
+ * The p99 latency is the delay a user can observe until the outline and problems are updated.
+ */
+public class RKeystrokeBenchmark {
+	
+	
+	public static final String LINES_PROPERTY= "de.walware.statet.r.benchmark.keystrokeLines"; //$NON-NLS-1$
+	
+	public static final int DEFAULT_LINES= 20000;
+	
+	/** The text typed in the source, temporary unbalanced brackets included */
+	private static final String TYPED_TEXT= "fit <- lm(dist ~ speed, data = cars[cars$speed > 4, ])\n"; //$NON-NLS-1$
+	
+	
+	private static int countLines(final String text) {
+		int count= 0;
+		for (int i= 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	
+	private static List<BenchmarkCorpus.Entry> keystrokes;
+	
+	private static BenchmarkHarness harness;
+	
+	
+	@BeforeClass
+	public static void init() throws Exception {
+		final BenchmarkCorpus corpus= BenchmarkCorpus.load();
+		final String minLinesValue= System.getProperty(LINES_PROPERTY);
+		final int minLines= (minLinesValue != null && !minLinesValue.isEmpty()) ?
+				Integer.parseInt(minLinesValue) : DEFAULT_LINES;
+		
+		// repeat the corpus, the text is typed at the begin of the entry in the middle
+		final StringBuilder sb= new StringBuilder();
+		int lines= 0;
+		int typeOffset= -1;
+		for (int i= 0; lines < minLines; i++) {
+			if (typeOffset < 0 && lines >= minLines / 2) {
+				typeOffset= sb.length();
+			}
+			final String text= corpus.getEntries().get(i % corpus.getEntries().size()).getText();
+			sb.append(text);
+			if (!text.endsWith("\n")) { //$NON-NLS-1$
+				sb.append('\n');
+			}
+			lines+= countLines(text) + 1;
+		}
+		final String source= sb.toString();
+		
+		keystrokes= new ArrayList<>(TYPED_TEXT.length());
+		for (int i= 1; i <= TYPED_TEXT.length(); i++) {
+			keystrokes.add(new BenchmarkCorpus.Entry("keystroke-" + i, //$NON-NLS-1$
+					source.substring(0, typeOffset) + TYPED_TEXT.substring(0, i)
+							+ source.substring(typeOffset) ));
+		}
+		harness= new BenchmarkHarness();
+		System.out.println("R keystroke benchmark - source: " + //$NON-NLS-1$
+				countLines(source) + " lines, " + source.length() + " chars, " + //$NON-NLS-1$ //$NON-NLS-2$
+				keystrokes.size() + " keystrokes"); //$NON-NLS-1$
+	}
+	
+	@AfterClass
+	public static void finish() throws Exception {
+		if (harness != null) {
+			harness.saveResults();
+		}
+		harness= null;
+		keystrokes= null;
+	}
+	
+	
+	/**
+	 * Runs the reconcile steps of the R reconciler.
+	 */
+	private static class ReconcileStage extends BenchmarkStage<BenchmarkCorpus.Entry> {
+		
+		private final boolean model;
+		
+		private final IRSourceUnit su= ModelStubs.createSourceUnit("keystrokes"); //$NON-NLS-1$
+		private final IStringCache stringCache= new FixInterningStringCache(24);
+		private final RoxygenScanner roxygenScanner= new RoxygenScanner(this.stringCache);
+		private final SourceAnalyzer analyzer= new SourceAnalyzer();
+		private final RProblemReporter reporter= new RProblemReporter();
+		private final IProblemRequestor requestor= ModelStubs.createProblemRequestor(new AtomicLong());
+		
+		private long stamp;
+		
+		public ReconcileStage(final String id, final boolean model) {
+			super(id);
+			this.model= model;
+		}
+		
+		@Override
+		public BenchmarkCorpus.Entry prepare(final BenchmarkCorpus.Entry entry) {
+			return entry;
+		}
+		
+		@Override
+		public Object run(final BenchmarkCorpus.Entry entry) {
+			final SourceContent content= new SourceContent(++this.stamp, entry.getText());
+			final SourceParseInput input= new StringParseInput(content.text);
+			final RScanner scanner= new RScanner(input, AstInfo.LEVEL_MODEL_DEFAULT, this.stringCache);
+			scanner.setCommentLevel(100);
+			final SourceComponent sourceComponent= scanner.scanSourceRange(null, 0, content.text.length());
+			this.roxygenScanner.init(input);
+			this.roxygenScanner.update(sourceComponent);
+			if (!this.model) {
+				return sourceComponent;
+			}
+			final AstInfo ast= new AstInfo(scanner.getAstLevel(), content.stamp, sourceComponent);
+			final Object modelInfo= this.analyzer.createModel(this.su, ast);
+			this.reporter.run(this.su, content, sourceComponent, this.requestor);
+			return modelInfo;
+		}
+		
+	}
+	
+	
+	/**
+	 * Runs the R reconciler for a source unit, the content is the text of the keystroke.
+	 */
+	private static class ReconcilerStage extends BenchmarkStage<BenchmarkCorpus.Entry> {
+		
+		private static final int FLAGS= (IModelManager.MODEL_FILE | IModelManager.RECONCILER);
+		
+		private static class Container extends RSuModelContainer {
+			
+			private SourceContent content;
+			
+			public Container() {
+				super(ModelStubs.createSourceUnit("keystrokes")); //$NON-NLS-1$
+			}
+			
+			@Override
+			public SourceContent getParseContent(final IProgressMonitor monitor) {
+				return this.content;
+			}
+			
+			@Override
+			public IProblemRequestor createProblemRequestor(final long stamp) {
+				return ModelStubs.createProblemRequestor(new AtomicLong());
+			}
+			
+		}
+		
+		private final RReconciler reconciler= new RReconciler(RCorePlugin.getDefault().getRModelManager());
+		private final Container container= new Container();
+		private final IProgressMonitor monitor= new NullProgressMonitor();
+		
+		private long stamp;
+		
+		public ReconcilerStage(final String id) {
+			super(id);
+		}
+		
+		@Override
+		public BenchmarkCorpus.Entry prepare(final BenchmarkCorpus.Entry entry) {
+			return entry;
+		}
+		
+		@Override
+		public Object run(final BenchmarkCorpus.Entry entry) {
+			this.container.content= new SourceContent(++this.stamp, entry.getText());
+			this.reconciler.reconcile(this.container, FLAGS, this.monitor);
+			return this.container.getCurrentModel();
+		}
+		
+	}
+	
+	
+	@Test
+	public void ast() throws Exception {
+		harness.check(harness.run(new ReconcileStage("r.keystroke.ast", false), keystrokes)); //$NON-NLS-1$
+	}
+	
+	@Test
+	public void reconcile() throws Exception {
+		harness.check(harness.run(new ReconcileStage("r.keystroke.reconcile", true), keystrokes)); //$NON-NLS-1$
+	}
+	
+	@Test
+	public void reconciler() throws Exception {
+		harness.check(harness.run(new ReconcilerStage("r.keystroke.reconciler"), keystrokes)); //$NON-NLS-1$
+	}
+	
+}
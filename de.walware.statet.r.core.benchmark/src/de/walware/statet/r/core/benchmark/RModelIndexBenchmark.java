@@ -0,0 +1,206 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.walware.ecommons.text.FixInterningStringCache;
+import de.walware.ecommons.text.IStringCache;
+
+import de.walware.statet.r.core.IRProject;
+import de.walware.statet.r.core.RProjects;
+import de.walware.statet.r.core.model.IRModelInfo;
+import de.walware.statet.r.core.model.IRSourceUnit;
+import de.walware.statet.r.core.model.RModel;
+import de.walware.statet.r.core.model.RModelIndexUpdate;
+import de.walware.statet.r.internal.core.RCorePlugin;
+import de.walware.statet.r.internal.core.sourcemodel.RModelIndex;
+import de.walware.statet.r.internal.core.sourcemodel.SourceAnalyzer;
+
+
+/**
+ * Benchmark of the writes of the R model index (exports and names of the source units in the DB)
+ * by the R builder.
+ * 
+ * The corpus is repeated to {@value #UNIT_COUNT} source units of a project; each operation is
+ * one update of the index for all source units:
+ * <ul>
+ *   <li><code>r.index.fullBuild.&lt;mode&gt;</code> - full build, the units are added to
+ *     the cleared project,</li>
+ *   <li><code>r.index.update.&lt;mode&gt;</code> - incremental build, the existing units are
+ *     replaced.</li>
+ * </ul>
+ * The measure <code>unitsPerSec</code> is reported in addition to the common measures.
+ * 
+ * The index writes <code>n</code> units in one transaction, specified by the system property
+ * {@value #UPDATE_BATCH_SIZE_PROPERTY} (default {@value #DEFAULT_UPDATE_BATCH_SIZE}), the mode
+ * is <code>batch&lt;n&gt;</code>. With <code>1</code>, the mode is <code>unbatched</code>: each
+ * unit is written row by row (without JDBC batches and cache of the name ids) and committed
+ * separately. <code>mvn verify -Pbenchmark</code> runs the benchmark with the default and
+ * unbatched to compare the throughput with and without batching.
+ */
+public class RModelIndexBenchmark {
+	
+	
+	public static final String UPDATE_BATCH_SIZE_PROPERTY= "de.walware.statet.r.index.updateBatchSize"; //$NON-NLS-1$
+	
+	public static final int DEFAULT_UPDATE_BATCH_SIZE= 500;
+	
+	public static final String UNITS_PER_SEC= "unitsPerSec"; //$NON-NLS-1$
+	
+	private static final int UNIT_COUNT= 1000;
+	
+	private static final String PROJECT_NAME= "RModelIndexBenchmark"; //$NON-NLS-1$
+	
+	
+	private static IProject project;
+	private static IRProject rProject;
+	
+	private static List<IRSourceUnit> sourceUnits;
+	private static List<IRModelInfo> models;
+	
+	/** A single entry with the text of all source units, one operation per index update */
+	private static List<BenchmarkCorpus.Entry> units;
+	
+	private static String batchLabel;
+	
+	private static BenchmarkHarness harness;
+	
+	
+	@BeforeClass
+	public static void init() throws Exception {
+		project= ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT_NAME);
+		if (!project.exists()) {
+			project.create(null);
+		}
+		project.open(null);
+		RProjects.setupRProject(project, null);
+		// the R builder must not clear the index of the project while measuring
+		Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+		rProject= RProjects.getRProject(project);
+		
+		final BenchmarkCorpus corpus= BenchmarkCorpus.load();
+		final IStringCache stringCache= new FixInterningStringCache(24);
+		final SourceAnalyzer analyzer= new SourceAnalyzer();
+		sourceUnits= new ArrayList<>(UNIT_COUNT);
+		models= new ArrayList<>(UNIT_COUNT);
+		final StringBuilder sb= new StringBuilder();
+		for (int i= 0; i < UNIT_COUNT; i++) {
+			final BenchmarkCorpus.Entry entry= corpus.getEntries().get(i % corpus.getEntries().size());
+			final RSourcePipelineBenchmark.ParsedEntry parsed= new RSourcePipelineBenchmark.ParsedEntry(
+					new BenchmarkCorpus.Entry(PROJECT_NAME + "/unit-" + i + '-' + entry.getName(), //$NON-NLS-1$
+							entry.getText() ),
+					stringCache, true );
+			sourceUnits.add(parsed.su);
+			models.add(analyzer.createModel(parsed.su, parsed.getAstInfo()));
+			sb.append(entry.getText());
+		}
+		units= Collections.singletonList(new BenchmarkCorpus.Entry("units", sb.toString())); //$NON-NLS-1$
+		
+		final String batchSize= System.getProperty(UPDATE_BATCH_SIZE_PROPERTY);
+		if ("1".equals(batchSize)) { //$NON-NLS-1$
+			batchLabel= "unbatched"; //$NON-NLS-1$
+		}
+		else {
+			batchLabel= "batch" + ((batchSize != null && !batchSize.isEmpty()) ? //$NON-NLS-1$
+					batchSize : Integer.toString(DEFAULT_UPDATE_BATCH_SIZE) );
+		}
+		
+		harness= new BenchmarkHarness();
+		System.out.println("R model index benchmark - " + UNIT_COUNT + " units, " + //$NON-NLS-1$ //$NON-NLS-2$
+				sb.length() + " chars, " + batchLabel); //$NON-NLS-1$
+	}
+	
+	@AfterClass
+	public static void finish() throws Exception {
+		if (harness != null) {
+			harness.saveResults();
+		}
+		harness= null;
+		units= null;
+		models= null;
+		sourceUnits= null;
+		rProject= null;
+		if (project != null) {
+			project.delete(true, true, null);
+			project= null;
+		}
+	}
+	
+	
+	/**
+	 * Runs an update of the index for all source units; the order is created in
+	 * {@link #prepare(BenchmarkCorpus.Entry)}, so only the writes of the index are measured.
+	 */
+	private static class IndexUpdateStage extends BenchmarkStage<RModelIndexUpdate> {
+		
+		private final boolean isFullBuild;
+		
+		private final RModelIndex index= RCorePlugin.getDefault().getRModelManager().getIndex();
+		
+		public IndexUpdateStage(final String id, final boolean isFullBuild) {
+			super(id);
+			this.isFullBuild= isFullBuild;
+		}
+		
+		@Override
+		public RModelIndexUpdate prepare(final BenchmarkCorpus.Entry entry) {
+			final RModelIndexUpdate order= new RModelIndexUpdate(rProject,
+					Collections.singletonList(RModel.TYPE_ID), this.isFullBuild );
+			for (int i= 0; i < UNIT_COUNT; i++) {
+				order.update(sourceUnits.get(i), models.get(i));
+			}
+			return order;
+		}
+		
+		@Override
+		public Object run(final RModelIndexUpdate order) throws Exception {
+			this.index.update(order, new NullProgressMonitor());
+			return order;
+		}
+		
+	}
+	
+	
+	private void run(final String id, final boolean isFullBuild) throws Exception {
+		final BenchmarkHarness.StageResult result= harness.run(
+				new IndexUpdateStage(id + '.' + batchLabel, isFullBuild), units );
+		harness.report(result.getStageId(), UNITS_PER_SEC, "%1$,.0f units/s", //$NON-NLS-1$
+				result.getOpsPerSec() * UNIT_COUNT );
+		harness.check(result);
+	}
+	
+	
+	@Test
+	public void fullBuild() throws Exception {
+		run("r.index.fullBuild", true); //$NON-NLS-1$
+	}
+	
+	@Test
+	public void update() throws Exception {
+		// the units must exist in the index
+		final IndexUpdateStage fullBuild= new IndexUpdateStage("r.index.fullBuild", true); //$NON-NLS-1$
+		fullBuild.run(fullBuild.prepare(null));
+		run("r.index.update", false); //$NON-NLS-1$
+	}
+	
+}
@@ -0,0 +1,226 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.core.benchmark;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jface.text.Document;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.walware.ecommons.ltk.AstInfo;
+import de.walware.ecommons.ltk.IProblemRequestor;
+import de.walware.ecommons.ltk.SourceContent;
+import de.walware.ecommons.text.FixInterningStringCache;
+import de.walware.ecommons.text.IStringCache;
+import de.walware.ecommons.text.SourceParseInput;
+import de.walware.ecommons.text.StringParseInput;
+
+import de.walware.statet.r.core.RCore;
+import de.walware.statet.r.core.model.IRSourceUnit;
+import de.walware.statet.r.core.model.RProblemReporter;
+import de.walware.statet.r.core.rlang.RTerminal;
+import de.walware.statet.r.core.rsource.RLexer;
+import de.walware.statet.r.core.rsource.RSourceIndenter;
+import de.walware.statet.r.core.rsource.ast.RScanner;
+import de.walware.statet.r.core.rsource.ast.RoxygenScanner;
+import de.walware.statet.r.core.rsource.ast.SourceComponent;
+import de.walware.statet.r.internal.core.sourcemodel.SourceAnalyzer;
+
+
+/**
+ * Benchmarks of the stages of the R source pipeline, as run by the reconciler of the R model:
+ * lexer, scanner (AST), Roxygen scanner, source analyzer (model), syntax problem reporter and
+ * the indenter.
+ * 
+ * Run headless by <code>mvn verify -Pbenchmark</code> in <code>-build</code>; see
+ * {@link BenchmarkHarness} for the reported measures and the baseline, {@link BenchmarkCorpus}
+ * for the corpus.
+ */
+public class RSourcePipelineBenchmark {
+	
+	
+	/**
+	 * Input of the stages following the scanner: a corpus entry with its AST.
+	 */
+	static class ParsedEntry {
+		
+		final IRSourceUnit su;
+		final SourceContent content;
+		final SourceParseInput input;
+		final SourceComponent ast;
+		
+		ParsedEntry(final BenchmarkCorpus.Entry entry, final IStringCache stringCache,
+				final boolean roxygen) {
+			this.su= ModelStubs.createSourceUnit(entry.getName());
+			this.content= new SourceContent(0, entry.getText());
+			this.input= new StringParseInput(entry.getText());
+			final RScanner scanner= new RScanner(this.input, AstInfo.LEVEL_MODEL_DEFAULT, stringCache);
+			scanner.setCommentLevel(100);
+			this.ast= scanner.scanSourceUnit();
+			if (roxygen) {
+				final RoxygenScanner roxygenScanner= new RoxygenScanner(stringCache);
+				roxygenScanner.init(this.input);
+				roxygenScanner.update(this.ast);
+			}
+		}
+		
+		AstInfo getAstInfo() {
+			return new AstInfo(AstInfo.LEVEL_MODEL_DEFAULT, this.content.stamp, this.ast);
+		}
+		
+	}
+	
+	
+	private static BenchmarkCorpus corpus;
+	
+	private static BenchmarkHarness harness;
+	
+	
+	@BeforeClass
+	public static void init() throws Exception {
+		corpus= BenchmarkCorpus.load();
+		harness= new BenchmarkHarness();
+		System.out.println("R source pipeline benchmark - corpus: " + //$NON-NLS-1$
+				corpus.getEntries().size() + " files, " + corpus.getCharCount() + " chars"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+	
+	@AfterClass
+	public static void finish() throws Exception {
+		if (harness != null) {
+			harness.saveResults();
+		}
+		harness= null;
+		corpus= null;
+	}
+	
+	
+	private void run(final BenchmarkStage<?> stage) throws Exception {
+		harness.check(harness.run(stage, corpus.getEntries()));
+	}
+	
+	
+	@Test
+	public void lexer() throws Exception {
+		run(new BenchmarkStage<SourceParseInput>("r.lexer") { //$NON-NLS-1$
+			private final RLexer lexer= new RLexer();
+			@Override
+			public SourceParseInput prepare(final BenchmarkCorpus.Entry entry) {
+				return new StringParseInput(entry.getText());
+			}
+			@Override
+			public Object run(final SourceParseInput input) {
+				this.lexer.reset(input);
+				this.lexer.setFull();
+				int count= 0;
+				while (this.lexer.next() != RTerminal.EOF) {
+					count++;
+				}
+				return Integer.valueOf(count);
+			}
+		});
+	}
+	
+	@Test
+	public void scanner() throws Exception {
+		run(new BenchmarkStage<SourceParseInput>("r.scanner") { //$NON-NLS-1$
+			private final IStringCache stringCache= new FixInterningStringCache(24);
+			@Override
+			public SourceParseInput prepare(final BenchmarkCorpus.Entry entry) {
+				return new StringParseInput(entry.getText());
+			}
+			@Override
+			public Object run(final SourceParseInput input) {
+				final RScanner scanner= new RScanner(input, AstInfo.LEVEL_MODEL_DEFAULT, this.stringCache);
+				scanner.setCommentLevel(100);
+				return scanner.scanSourceUnit();
+			}
+		});
+	}
+	
+	@Test
+	public void roxygenScanner() throws Exception {
+		run(new BenchmarkStage<ParsedEntry>("r.roxygenScanner") { //$NON-NLS-1$
+			private final IStringCache stringCache= new FixInterningStringCache(24);
+			private final RoxygenScanner roxygenScanner= new RoxygenScanner(this.stringCache);
+			@Override
+			public ParsedEntry prepare(final BenchmarkCorpus.Entry entry) {
+				return new ParsedEntry(entry, this.stringCache, false);
+			}
+			@Override
+			public Object run(final ParsedEntry input) {
+				this.roxygenScanner.init(input.input);
+				this.roxygenScanner.update(input.ast);
+				return input.ast;
+			}
+		});
+	}
+	
+	@Test
+	public void sourceAnalyzer() throws Exception {
+		run(new BenchmarkStage<ParsedEntry>("r.sourceAnalyzer") { //$NON-NLS-1$
+			private final IStringCache stringCache= new FixInterningStringCache(24);
+			private final SourceAnalyzer analyzer= new SourceAnalyzer();
+			@Override
+			public ParsedEntry prepare(final BenchmarkCorpus.Entry entry) {
+				// the analyzer adds attachments to the AST, so it requires a new AST
+				return new ParsedEntry(entry, this.stringCache, true);
+			}
+			@Override
+			public Object run(final ParsedEntry input) {
+				return this.analyzer.createModel(input.su, input.getAstInfo());
+			}
+		});
+	}
+	
+	@Test
+	public void problemReporter() throws Exception {
+		final AtomicLong problemCount= new AtomicLong();
+		run(new BenchmarkStage<ParsedEntry>("r.problemReporter") { //$NON-NLS-1$
+			private final IStringCache stringCache= new FixInterningStringCache(24);
+			private final RProblemReporter reporter= new RProblemReporter();
+			private final IProblemRequestor requestor= ModelStubs.createProblemRequestor(problemCount);
+			@Override
+			public ParsedEntry prepare(final BenchmarkCorpus.Entry entry) {
+				return new ParsedEntry(entry, this.stringCache, true);
+			}
+			@Override
+			public Object run(final ParsedEntry input) {
+				this.reporter.run(input.su, input.content, input.ast, this.requestor);
+				return input.ast;
+			}
+		});
+	}
+	
+	@Test
+	public void indenter() throws Exception {
+		run(new BenchmarkStage<Object[]>("r.indenter") { //$NON-NLS-1$
+			private final IStringCache stringCache= new FixInterningStringCache(24);
+			private final RSourceIndenter indenter= new RSourceIndenter(RCore.getWorkbenchAccess());
+			@Override
+			public Object[] prepare(final BenchmarkCorpus.Entry entry) {
+				return new Object[] {
+						new Document(entry.getText()),
+						new ParsedEntry(entry, this.stringCache, false).ast,
+				};
+			}
+			@Override
+			public Object run(final Object[] input) throws Exception {
+				final Document document= (Document) input[0];
+				return this.indenter.getIndentEdits(document, (SourceComponent) input[1],
+						0, 0, document.getNumberOfLines() - 1 );
+			}
+		});
+	}
+	
+}
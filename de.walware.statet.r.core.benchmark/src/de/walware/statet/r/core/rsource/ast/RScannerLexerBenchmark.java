@@ -0,0 +1,146 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.core.rsource.ast;
+
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.walware.ecommons.text.FixInterningStringCache;
+import de.walware.ecommons.text.IStringCache;
+import de.walware.ecommons.text.SourceParseInput;
+import de.walware.ecommons.text.StringParseInput;
+
+import de.walware.statet.r.core.benchmark.BenchmarkCorpus;
+import de.walware.statet.r.core.benchmark.BenchmarkHarness;
+import de.walware.statet.r.core.benchmark.BenchmarkStage;
+import de.walware.statet.r.core.rlang.RTerminal;
+
+
+/**
+ * Benchmark of the lexer of RScanner.
+ * 
+ * The stages tokenize the corpus:
+ * <ul>
+ *   <li><code>r.scannerLexer.range</code> - reads only the range of the token texts,</li>
+ *   <li><code>r.scannerLexer.text</code> - creates the text of all tokens, like RScanner does
+ *     for the tokens of value nodes.</li>
+ * </ul>
+ * Additionally to the standard measures, the tokens per second and the allocated bytes per
+ * token are reported.
+ */
+public class RScannerLexerBenchmark {
+	
+	
+	public static final String TOKENS_PER_SEC= "tokensPerSec"; //$NON-NLS-1$
+	public static final String ALLOC_BYTES_PER_TOKEN= "allocBytesPerToken"; //$NON-NLS-1$
+	
+	
+	private static BenchmarkCorpus corpus;
+	
+	private static BenchmarkHarness harness;
+	
+	
+	@BeforeClass
+	public static void init() throws Exception {
+		corpus= BenchmarkCorpus.load();
+		harness= new BenchmarkHarness();
+	}
+	
+	@AfterClass
+	public static void finish() throws Exception {
+		if (harness != null) {
+			harness.saveResults();
+		}
+		harness= null;
+		corpus= null;
+	}
+	
+	
+	private static class LexerStage extends BenchmarkStage<SourceParseInput> {
+		
+		private final boolean text;
+		
+		private final IStringCache stringCache= new FixInterningStringCache(24);
+		
+		public LexerStage(final String id, final boolean text) {
+			super(id);
+			this.text= text;
+		}
+		
+		@Override
+		public SourceParseInput prepare(final BenchmarkCorpus.Entry entry) {
+			return new StringParseInput(entry.getText());
+		}
+		
+		@Override
+		public Object run(final SourceParseInput input) {
+			final RScannerDefaultLexer lexer= new RScannerDefaultLexer(input, this.stringCache);
+			lexer.setFull();
+			int count= 0;
+			int hash= 0;
+			while (lexer.next() != RTerminal.EOF) {
+				count++;
+				if (this.text) {
+					final String s= lexer.getText();
+					if (s != null) {
+						hash+= s.length();
+					}
+				}
+				else {
+					hash+= lexer.getTextLength();
+				}
+			}
+			return Integer.valueOf(count + hash);
+		}
+		
+	}
+	
+	
+	private static long countTokens(final List<BenchmarkCorpus.Entry> entries) {
+		long count= 0;
+		for (final BenchmarkCorpus.Entry entry : entries) {
+			final RScannerDefaultLexer lexer= new RScannerDefaultLexer(
+					new StringParseInput(entry.getText()), null );
+			lexer.setFull();
+			while (lexer.next() != RTerminal.EOF) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	private void run(final String id, final boolean text) throws Exception {
+		final List<BenchmarkCorpus.Entry> entries= corpus.getEntries();
+		final double tokensPerOp= (double) countTokens(entries) / entries.size();
+		final BenchmarkHarness.StageResult result= harness.run(new LexerStage(id, text), entries);
+		harness.report(result.getStageId(), TOKENS_PER_SEC, "%1$,.0f tokens/s", //$NON-NLS-1$
+				result.getOpsPerSec() * tokensPerOp );
+		harness.report(result.getStageId(), ALLOC_BYTES_PER_TOKEN, "%1$,.1f B/token", //$NON-NLS-1$
+				result.getAllocBytesPerOp() / tokensPerOp );
+		harness.check(result);
+	}
+	
+	
+	@Test
+	public void range() throws Exception {
+		run("r.scannerLexer.range", false); //$NON-NLS-1$
+	}
+	
+	@Test
+	public void text() throws Exception {
+		run("r.scannerLexer.text", true); //$NON-NLS-1$
+	}
+	
+}
@@ -0,0 +1,299 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.internal.core.sourcemodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.ILogListener;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Platform;
+import org.junit.Test;
+
+import de.walware.ecommons.ltk.AstInfo;
+import de.walware.ecommons.ltk.IModelManager;
+import de.walware.ecommons.ltk.IProblemRequestor;
+import de.walware.ecommons.ltk.SourceContent;
+
+import de.walware.statet.r.core.RCore;
+import de.walware.statet.r.core.benchmark.BenchmarkCorpus;
+import de.walware.statet.r.core.benchmark.ModelStubs;
+import de.walware.statet.r.core.model.IRModelInfo;
+import de.walware.statet.r.core.model.RSuModelContainer;
+import de.walware.statet.r.internal.core.RCorePlugin;
+
+
+/**
+ * Reconciles many source units from many threads, editing them in between.
+ * 
+ * Checks that the sections of the reconcile (creation of the AST, of the model and the problem
+ * report) of the same source unit are serialized by its unit lock, reconciles of different source
+ * units run concurrently, no errors occur, and the model of each source unit finally matches its
+ * content.
+ */
+public class RReconcilerStressTest {
+	
+	
+	private static final int UNIT_COUNT= 64;
+	private static final int THREAD_COUNT= 8;
+	private static final int RECONCILES_PER_THREAD= 250;
+	
+	private static final int FLAGS= (IModelManager.MODEL_FILE | IModelManager.RECONCILER);
+	
+	private static final AtomicLong STAMP= new AtomicLong();
+	
+	/** Max time a reconcile waits for the reconcile of another source unit */
+	private static final long CONCURRENT_TIMEOUT_MILLIS= 10000;
+	
+	
+	private final AtomicInteger overlaps= new AtomicInteger();
+	private final AtomicInteger unlocked= new AtomicInteger();
+	
+	private final AtomicInteger parseContentReads= new AtomicInteger();
+	
+	
+	private class TestContainer extends RSuModelContainer {
+		
+		private final String text;
+		private volatile SourceContent content;
+		
+		private final AtomicInteger active= new AtomicInteger();
+		
+		public TestContainer(final String id, final String text) {
+			super(ModelStubs.createSourceUnit(id));
+			this.text= text;
+			this.content= new SourceContent(STAMP.incrementAndGet(), text);
+		}
+		
+		/**
+		 * Called by the hooks of the sections of the reconcile which must run in the lock of the
+		 * source unit.
+		 */
+		protected void checkSection() {
+			if (!Thread.holdsLock(RReconciler.getUnitLock(this))) {
+				RReconcilerStressTest.this.unlocked.incrementAndGet();
+			}
+			if (this.active.incrementAndGet() != 1) {
+				RReconcilerStressTest.this.overlaps.incrementAndGet();
+			}
+			try {
+				Thread.sleep(1);
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				this.active.decrementAndGet();
+			}
+		}
+		
+		public void edit(final int edit) {
+			this.content= new SourceContent(STAMP.incrementAndGet(),
+					this.text + "\nedit" + edit + " <- function(x) x + " + edit + "\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		
+		public SourceContent getContent() {
+			return this.content;
+		}
+		
+		@Override
+		public SourceContent getParseContent(final IProgressMonitor monitor) {
+			// read by the reconciler before it enters the locked sections
+			RReconcilerStressTest.this.parseContentReads.incrementAndGet();
+			return this.content;
+		}
+		
+		@Override
+		public void setAst(final AstInfo ast) {
+			// end of the creation of the AST
+			checkSection();
+			super.setAst(ast);
+		}
+		
+		@Override
+		public void setModel(final IRModelInfo model) {
+			// end of the creation of the model
+			checkSection();
+			super.setModel(model);
+		}
+		
+		@Override
+		public IProblemRequestor createProblemRequestor(final long stamp) {
+			// begin of the problem report
+			checkSection();
+			return ModelStubs.createProblemRequestor(new AtomicLong());
+		}
+		
+	}
+	
+	/**
+	 * Waits in the creation of the AST until the other source unit is in its creation too.
+	 */
+	private class WaitingContainer extends TestContainer {
+		
+		private final CountDownLatch entered= new CountDownLatch(1);
+		
+		private WaitingContainer other;
+		
+		private volatile boolean otherEntered;
+		
+		public WaitingContainer(final String id, final String text) {
+			super(id, text);
+		}
+		
+		@Override
+		protected void checkSection() {
+			super.checkSection();
+			if (this.entered.getCount() > 0) {
+				this.entered.countDown();
+				try {
+					this.otherEntered= this.other.entered.await(CONCURRENT_TIMEOUT_MILLIS,
+							TimeUnit.MILLISECONDS );
+				}
+				catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		
+	}
+	
+	
+	@Test(timeout= 600000)
+	public void reconcileConcurrently() throws Exception {
+		final List<BenchmarkCorpus.Entry> entries= BenchmarkCorpus.load().getEntries();
+		final List<TestContainer> containers= new ArrayList<>(UNIT_COUNT);
+		for (int i= 0; i < UNIT_COUNT; i++) {
+			final BenchmarkCorpus.Entry entry= entries.get(i % entries.size());
+			containers.add(new TestContainer("stress-" + i + '-' + entry.getName(), entry.getText())); //$NON-NLS-1$
+		}
+		final RReconciler reconciler= new RReconciler(RCorePlugin.getDefault().getRModelManager());
+		
+		final ConcurrentLinkedQueue<Object> errors= new ConcurrentLinkedQueue<>();
+		final ILogListener logListener= new ILogListener() {
+			@Override
+			public void logging(final IStatus status, final String plugin) {
+				if (status.getSeverity() == IStatus.ERROR && RCore.PLUGIN_ID.equals(status.getPlugin())) {
+					errors.add(status);
+				}
+			}
+		};
+		Platform.addLogListener(logListener);
+		try {
+			final CountDownLatch start= new CountDownLatch(1);
+			final Thread[] threads= new Thread[THREAD_COUNT];
+			for (int t= 0; t < THREAD_COUNT; t++) {
+				final Random random= new Random(t);
+				threads[t]= new Thread("RReconcilerStressTest-" + t) { //$NON-NLS-1$
+					@Override
+					public void run() {
+						try {
+							start.await();
+							final IProgressMonitor monitor= new NullProgressMonitor();
+							for (int i= 0; i < RECONCILES_PER_THREAD; i++) {
+								final TestContainer container= containers.get(random.nextInt(UNIT_COUNT));
+								if (random.nextBoolean()) {
+									container.edit(random.nextInt(1000));
+								}
+								reconciler.reconcile(container, FLAGS, monitor);
+							}
+						}
+						catch (final Throwable e) {
+							errors.add(e);
+						}
+					}
+				};
+				threads[t].start();
+			}
+			start.countDown();
+			for (final Thread thread : threads) {
+				thread.join();
+			}
+			
+			// once more without concurrent edits, the model must match the last content then
+			final IProgressMonitor monitor= new NullProgressMonitor();
+			for (final TestContainer container : containers) {
+				reconciler.reconcile(container, FLAGS, monitor);
+				final IRModelInfo model= container.getCurrentModel();
+				assertNotNull(container.toString(), model);
+				assertEquals(container.toString(), container.getContent().stamp, model.getAst().stamp);
+			}
+		}
+		finally {
+			Platform.removeLogListener(logListener);
+		}
+		
+		assertTrue("Errors: " + errors, errors.isEmpty()); //$NON-NLS-1$
+		assertEquals("Reconciles outside of the unit lock", 0, this.unlocked.get()); //$NON-NLS-1$
+		assertEquals("Overlapping reconciles of the same unit", 0, this.overlaps.get()); //$NON-NLS-1$
+		assertEquals("Reconciles without reading the content", //$NON-NLS-1$
+				THREAD_COUNT * RECONCILES_PER_THREAD + UNIT_COUNT, this.parseContentReads.get() );
+	}
+	
+	@Test(timeout= 60000)
+	public void reconcileDifferentUnitsConcurrently() throws Exception {
+		final String text= BenchmarkCorpus.load().getEntries().get(0).getText();
+		final WaitingContainer container1= new WaitingContainer("concurrent-1", text); //$NON-NLS-1$
+		WaitingContainer container2;
+		int i= 2;
+		do {
+			container2= new WaitingContainer("concurrent-" + i++, text); //$NON-NLS-1$
+		} while (RReconciler.getUnitLock(container2) == RReconciler.getUnitLock(container1));
+		assertNotSame(RReconciler.getUnitLock(container1), RReconciler.getUnitLock(container2));
+		container1.other= container2;
+		container2.other= container1;
+		final RReconciler reconciler= new RReconciler(RCorePlugin.getDefault().getRModelManager());
+		
+		// each reconcile waits in its locked section for the other one, so both complete without
+		// timeout only if the sections of different units run concurrently
+		final ConcurrentLinkedQueue<Throwable> errors= new ConcurrentLinkedQueue<>();
+		final Thread[] threads= new Thread[2];
+		final WaitingContainer[] containers= new WaitingContainer[] { container1, container2 };
+		for (int t= 0; t < threads.length; t++) {
+			final WaitingContainer container= containers[t];
+			threads[t]= new Thread("RReconcilerStressTest-concurrent-" + t) { //$NON-NLS-1$
+				@Override
+				public void run() {
+					try {
+						reconciler.reconcile(container, FLAGS, new NullProgressMonitor());
+					}
+					catch (final Throwable e) {
+						errors.add(e);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		
+		assertTrue("Errors: " + errors, errors.isEmpty()); //$NON-NLS-1$
+		assertTrue("Reconciles of different units didn't run concurrently", //$NON-NLS-1$
+				container1.otherEntered && container2.otherEntered );
+		assertEquals("Reconciles outside of the unit lock", 0, this.unlocked.get()); //$NON-NLS-1$
+	}
+	
+}
@@ -26,6 +26,32 @@ public class RSymbolComparator implements Comparator<String> {
 	
 	public static final class PrefixPattern {
 		
+		
+		/**
+		 * Creates the key of a name for a sorted index of names.
+		 * 
+		 * The key is the lowercase name without the chars ignored by the pattern (except the
+		 * first char). If a candidate matches a pattern, the key of the candidate starts with the
+		 * key of the prefix of the pattern, so all matching names can be found by a range of
+		 * the index.
+		 * 
+		 * @param name the name
+		 * @return the key
+		 */
+		public static String createIndexKey(final String name) {
+			final int length = name.length();
+			final StringBuilder sb = new StringBuilder(length);
+			for (int i = 0; i < length; i++) {
+				final char c = name.charAt(i);
+				if (i > 0 && (c == '.' || c == '_')) {
+					continue;
+				}
+				sb.append(Character.toLowerCase(c));
+			}
+			return sb.toString();
+		}
+		
+		
 		private final char[] fPrefix;
 		
 		
@@ -531,6 +531,27 @@ public abstract class RElementName implements IElementName {
 		return new DualImpl(type, segmentName, idx);
 	}
 	
+	/**
+	 * Creates a new element name segment (without namespace) followed by the specified segments.
+	 * 
+	 * @param type the type of the segment
+	 * @param segmentName the name of the segment
+	 * @param idx the index for {@link #SUB_NAMEDPART} and {@link #SUB_INDEXED_D} segments
+	 *     ({@link IndexElementName}), otherwise <code>-1</code>
+	 * @param next the next segment or <code>null</code>
+	 * @return the element name
+	 */
+	public static RElementName create(final int type, final String segmentName, final int idx,
+			final RElementName next) {
+		if (idx >= 0) {
+			if (!(type == SUB_NAMEDPART || type == SUB_INDEXED_D)) {
+				throw new IllegalArgumentException();
+			}
+			return new DualImpl(type, segmentName, idx, next);
+		}
+		return new DefaultImpl(type, segmentName, next);
+	}
+	
 	public static RElementName parseDefault(final String code) {
 		final ParseLexer lexer = new ParseLexer(new StringParseInput(code));
 		lexer.setFull();
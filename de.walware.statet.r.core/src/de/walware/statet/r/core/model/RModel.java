@@ -28,6 +28,7 @@ import de.walware.statet.r.core.RProjects;
 import de.walware.statet.r.core.rsource.ast.RAstNode;
 import de.walware.statet.r.internal.core.FilteredFrame;
 import de.walware.statet.r.internal.core.RProject;
+import de.walware.statet.r.internal.core.builder.CompositeFrame;
 
 
 /**
@@ -146,7 +147,16 @@ public class RModel {
 	}
 	
 	private static boolean checkFrame(final IRFrame frame, final RElementAccess access, final List<ISourceElement> list) {
-		final List<? extends IRElement> elements= frame.getModelChildren(null);
+		final List<? extends IRElement> elements;
+		if (frame instanceof FilteredFrame && access.getSegmentName() != null) {
+			elements= ((FilteredFrame) frame).getModelChildren(access.getSegmentName());
+		}
+		else if (frame instanceof CompositeFrame && access.getSegmentName() != null) {
+			elements= ((CompositeFrame) frame).getModelChildren(access.getSegmentName(), null);
+		}
+		else {
+			elements= frame.getModelChildren(null);
+		}
 		for (final IRElement element : elements) {
 			final RElementName name= element.getElementName();
 			if (name != null && name.equals(access)
@@ -11,12 +11,18 @@
 
 package de.walware.statet.r.core.rhelp;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -58,6 +64,26 @@ public abstract class RHelpServlet extends HttpServlet {
 	private static final String ATTR_RENV_RESOLVED = "rhelp.renv.resolved"; //$NON-NLS-1$
 	private static final String ATTR_RENV_HELP = "rhelp.renv.help"; //$NON-NLS-1$
 	
+	/** Max number of rendered help pages in the cache */
+	private static final int PAGE_CACHE_MAX_COUNT = 64;
+	/** Max total size of the rendered help pages in the cache */
+	private static final int PAGE_CACHE_MAX_BYTES = 0x800000;
+	
+	
+	private static final class RenderedPage {
+		
+		final String etag;
+		final byte[] bytes;
+		byte[] gzipBytes;
+		
+		public RenderedPage(final String etag, final byte[] bytes) {
+			this.etag = etag;
+			this.bytes = bytes;
+		}
+		
+	}
+	
+	
 	private static final String[][] MANUALS = new String[][] {
 			{ "manual/R-intro.html", "An Introduction to R" }, //$NON-NLS-1$ //$NON-NLS-2$
 			{ "manual/R-data.html", "R Data Import/Export" }, //$NON-NLS-1$ //$NON-NLS-2$
@@ -131,6 +157,13 @@ public abstract class RHelpServlet extends HttpServlet {
 	
 	private RCorePlugin fPlugin;
 	
+	/** LRU cache of rendered help pages */
+	private final LinkedHashMap<String, RenderedPage> fPageCache = new LinkedHashMap<String, RenderedPage>(16, 0.75f, true);
+	private int fPageCacheBytes;
+	private volatile int fRenderStamp;
+	/** Time of the last change of the rendering (milliseconds) */
+	private volatile long fRenderStampTime = System.currentTimeMillis();
+	
 	
 	public RHelpServlet() {
 	}
@@ -148,6 +181,24 @@ public abstract class RHelpServlet extends HttpServlet {
 		super.destroy();
 		
 		fPlugin = null;
+		synchronized (fPageCache) {
+			fPageCache.clear();
+			fPageCacheBytes = 0;
+		}
+	}
+	
+	/**
+	 * Invalidates the cached help pages and the entity tags of the pages sent to the clients.
+	 * 
+	 * Must be called if the rendering of the help pages changed.
+	 */
+	protected void invalidateRenderedPages() {
+		synchronized (fPageCache) {
+			fRenderStamp++;
+			fRenderStampTime = System.currentTimeMillis();
+			fPageCache.clear();
+			fPageCacheBytes = 0;
+		}
 	}
 	
 	
@@ -246,17 +297,48 @@ public abstract class RHelpServlet extends HttpServlet {
 			return;
 		}
 		
-		final IREnvHelp help = (IREnvHelp) req.getAttribute(ATTR_RENV_HELP);
-		final String qs = req.getParameter(RHelpWebapp.PAR_QUERY_STING);
-		final String html = help.getHtmlPage(packageName, detail, qs,
-				getHightlightPreTags(), getHightlightPostTags());
-		if (html != null) {
-			printHtmlPage(req, resp, html);
+		final REnvHelp help = (REnvHelp) req.getAttribute(ATTR_RENV_HELP);
+		final String key = req.getAttribute(ATTR_RENV_ID) + "/" + packageName + '/' + detail + //$NON-NLS-1$
+				'?' + req.getQueryString();
+		final int renderStamp = fRenderStamp;
+		final long lastModified = Math.max(help.getStamp(), fRenderStampTime);
+		final String etag = '"' + Long.toHexString(help.getStamp()) + '-' +
+				Integer.toHexString(renderStamp) + '-' + Integer.toHexString(key.hashCode()) + '"';
+		final boolean gzip = isGzipAccepted(req);
+		final String representationETag = (gzip) ? getGzipETag(etag) : etag;
+		if (isNotModified(req, representationETag, lastModified)) {
+			resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			resp.setHeader("ETag", representationETag); //$NON-NLS-1$
+			resp.setHeader("Vary", "Accept-Encoding"); //$NON-NLS-1$ //$NON-NLS-2$
 			return;
 		}
-		final IRHelpPage page = help.getPageForTopic(packageName, detail);
+		RenderedPage page;
+		synchronized (fPageCache) {
+			page = fPageCache.get(key);
+		}
+		if (page == null || !page.etag.equals(etag)) {
+			final String qs = req.getParameter(RHelpWebapp.PAR_QUERY_STING);
+			final String html = help.getHtmlPage(packageName, detail, qs,
+					getHightlightPreTags(), getHightlightPostTags());
+			if (html != null) {
+				final StringWriter stringWriter = new StringWriter(html.length() + 0x1000);
+				final PrintWriter writer = new PrintWriter(stringWriter);
+				printHtmlPage(req, writer, html);
+				writer.flush();
+				page = new RenderedPage(etag, stringWriter.toString().getBytes(StandardCharsets.UTF_8));
+				cachePage(key, page, renderStamp);
+			}
+			else {
+				page = null;
+			}
+		}
 		if (page != null) {
-			redirect(req, resp, page);
+			sendPage(resp, page, gzip, lastModified);
+			return;
+		}
+		final IRHelpPage topicPage = help.getPageForTopic(packageName, detail);
+		if (topicPage != null) {
+			redirect(req, resp, topicPage);
 			return;
 		}
 		resp.sendError(HttpServletResponse.SC_NOT_FOUND,
@@ -264,6 +346,85 @@ public abstract class RHelpServlet extends HttpServlet {
 		return;
 	}
 	
+	private static boolean isGzipAccepted(final HttpServletRequest req) {
+		final String acceptEncoding = req.getHeader("Accept-Encoding"); //$NON-NLS-1$
+		return (acceptEncoding != null && acceptEncoding.contains("gzip")); //$NON-NLS-1$
+	}
+	
+	/**
+	 * Returns the entity tag of the gzip encoded representation, which must differ from the tag
+	 * of the identity representation.
+	 */
+	private static String getGzipETag(final String etag) {
+		return etag.substring(0, etag.length() - 1) + "-gz\""; //$NON-NLS-1$
+	}
+	
+	/**
+	 * @param etag the entity tag of the selected representation
+	 * @param lastModified the time of the last modification of the help and its rendering
+	 */
+	private boolean isNotModified(final HttpServletRequest req, final String etag,
+			final long lastModified) {
+		final String ifNoneMatch = req.getHeader("If-None-Match"); //$NON-NLS-1$
+		if (ifNoneMatch != null) {
+			return (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag)); //$NON-NLS-1$
+		}
+		try {
+			final long ifModifiedSince = req.getDateHeader("If-Modified-Since"); //$NON-NLS-1$
+			return (ifModifiedSince >= 0 && ifModifiedSince >= (lastModified / 1000) * 1000);
+		}
+		catch (final IllegalArgumentException e) {
+			return false;
+		}
+	}
+	
+	private void cachePage(final String key, final RenderedPage page, final int renderStamp) {
+		synchronized (fPageCache) {
+			if (renderStamp != fRenderStamp) {
+				return; // invalidated in the meantime
+			}
+			final RenderedPage old = fPageCache.put(key, page);
+			if (old != null) {
+				fPageCacheBytes -= old.bytes.length;
+			}
+			fPageCacheBytes += page.bytes.length;
+			final Iterator<RenderedPage> iter = fPageCache.values().iterator();
+			while (iter.hasNext()
+					&& (fPageCache.size() > PAGE_CACHE_MAX_COUNT || fPageCacheBytes > PAGE_CACHE_MAX_BYTES) ) {
+				fPageCacheBytes -= iter.next().bytes.length;
+				iter.remove();
+			}
+		}
+	}
+	
+	private void sendPage(final HttpServletResponse resp,
+			final RenderedPage page, final boolean gzip, final long lastModified) throws IOException {
+		resp.setContentType("text/html;charset=UTF-8"); //$NON-NLS-1$
+		resp.setHeader("Cache-Control", "max-age=30, must-revalidate"); //$NON-NLS-1$ //$NON-NLS-2$
+		resp.setHeader("ETag", (gzip) ? getGzipETag(page.etag) : page.etag); //$NON-NLS-1$
+		resp.setDateHeader("Last-Modified", lastModified); //$NON-NLS-1$
+		resp.setHeader("Vary", "Accept-Encoding"); //$NON-NLS-1$ //$NON-NLS-2$
+		byte[] bytes = page.bytes;
+		if (gzip) {
+			byte[] gzipBytes;
+			synchronized (page) {
+				gzipBytes = page.gzipBytes;
+				if (gzipBytes == null) {
+					final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 3);
+					try (final GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+						gzipOut.write(bytes);
+					}
+					gzipBytes = out.toByteArray();
+					page.gzipBytes = gzipBytes;
+				}
+			}
+			resp.setHeader("Content-Encoding", "gzip"); //$NON-NLS-1$ //$NON-NLS-2$
+			bytes = gzipBytes;
+		}
+		resp.setContentLength(bytes.length);
+		resp.getOutputStream().write(bytes);
+	}
+	
 	private void processPackageIndex(final HttpServletRequest req, final HttpServletResponse resp,
 			final String packageName) throws IOException {
 		final REnvHelp help = (REnvHelp) req.getAttribute(ATTR_RENV_HELP);
@@ -435,11 +596,8 @@ public abstract class RHelpServlet extends HttpServlet {
 //		resp.sendRedirect(sb.toString());
 //	}
 	
-	private void printHtmlPage(final HttpServletRequest req, final HttpServletResponse resp,
+	private void printHtmlPage(final HttpServletRequest req, final PrintWriter writer,
 			final String html) throws IOException {
-		resp.setContentType("text/html;charset=UTF-8"); //$NON-NLS-1$
-		resp.setHeader("Cache-Control", "max-age=30, must-revalidate"); //$NON-NLS-1$ //$NON-NLS-2$
-		final PrintWriter writer = resp.getWriter();
 		final int idxHead = html.indexOf("</head>"); //$NON-NLS-1$
 		if (idxHead > 0) {
 			writer.write(html, 0, idxHead);
@@ -16,6 +16,7 @@ import static de.walware.statet.r.core.rsource.IRSourceConstants.STATUS2_SYNTAX_
 import static de.walware.statet.r.core.rsource.IRSourceConstants.STATUS2_SYNTAX_TOKEN_NOT_CLOSED;
 import static de.walware.statet.r.core.rsource.IRSourceConstants.STATUS_OK;
 
+import de.walware.ecommons.text.IStringCache;
 import de.walware.ecommons.text.SourceParseInput;
 
 import de.walware.statet.r.core.rlang.RTerminal;
@@ -43,6 +44,10 @@ public class RLexer {
 	protected String fFoundText;
 	protected int fFoundStatus;
 	
+	private int fFoundTextNum;
+	private int fFoundTextLength;
+	private IStringCache fFoundTextCache;
+	
 	
 	/**
 	 * Creates and initializes new lexer
@@ -65,6 +70,7 @@ public class RLexer {
 		fFoundOffset = input.getIndex();
 		fFoundNum = 0;
 		fFoundLength = 0;
+		fFoundTextNum = 0;
 	}
 	
 	
@@ -98,10 +104,45 @@ public class RLexer {
 		return fFoundLength;
 	}
 	
+	/**
+	 * Returns the text of the current token.
+	 * 
+	 * If the text is specified as range in the input (see {@link #getTextOffset()}), the string
+	 * is created at the first call of this method.
+	 * 
+	 * @return the text or <code>null</code>
+	 */
 	public final String getText() {
+		if (fFoundText == null && fFoundTextNum > 0) {
+			fFoundText = (fFoundTextCache != null) ?
+					fInput.substring(fFoundTextNum, fFoundTextLength, fFoundTextCache) :
+					fInput.substring(fFoundTextNum, fFoundTextLength);
+		}
 		return fFoundText;
 	}
 	
+	/**
+	 * Returns the offset of the text of the current token in the input, if the text is specified
+	 * as range in the input, without creating the string.
+	 * 
+	 * @return the offset or <code>-1</code>
+	 */
+	public final int getTextOffset() {
+		return (fFoundTextNum > 0) ?
+				fFoundOffset + fInput.getLength(fFoundTextNum - 1) : -1;
+	}
+	
+	/**
+	 * Returns the length of the text of the current token in the input, if the text is specified
+	 * as range in the input (see {@link #getTextOffset()}).
+	 * 
+	 * @return the length or <code>-1</code>
+	 */
+	public final int getTextLength() {
+		return (fFoundTextNum > 0) ?
+				fInput.getLength(fFoundTextNum - 1 + fFoundTextLength) - fInput.getLength(fFoundTextNum - 1) : -1;
+	}
+	
 	public final int getStatusCode() {
 		return fFoundStatus;
 	}
@@ -110,6 +151,7 @@ public class RLexer {
 		fInput.consume(fFoundNum, fFoundLength);
 		fFoundOffset = fInput.getIndex();
 		fFoundNum = 1;
+		fFoundTextNum = 0;
 		final int c1 = fInput.get(1);
 		
 		searchNext1(c1);
@@ -1117,6 +1159,23 @@ public class RLexer {
 	}
 	
 	
+	/**
+	 * Sets the text of the found token as range in the input, without creating the string.
+	 * 
+	 * The string is created only if it is requested by {@link #getText()}.
+	 * 
+	 * @param num the start of the text in the input, relative to the start of the token (1 based)
+	 * @param length the length of the text in the input
+	 * @param cache optional string cache for the text
+	 */
+	protected final void setFoundText(final int num, final int length, final IStringCache cache) {
+		fFoundText = null;
+		fFoundTextNum = num;
+		fFoundTextLength = length;
+		fFoundTextCache = cache;
+	}
+	
+	
 	protected void createFix(final RTerminal type) {
 		fFoundType = type;
 		fFoundText = null;
@@ -0,0 +1,213 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.core.rsource.ast;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.collections.primitives.ArrayIntList;
+import org.apache.commons.collections.primitives.IntList;
+
+
+/**
+ * Creates deep copies of AST nodes, e.g. to reuse the nodes of a previous AST in a new AST
+ * without modifying the previous AST.
+ * 
+ * The copies have no attachments. The offsets of the copies are shifted by the specified value.
+ * The parent references are mapped to the corresponding copies; note that the parent of a node
+ * is not necessarily the node holding it (e.g. in operator chains).
+ * 
+ * The fields of the node classes are detected by reflection: child nodes are the fields of type
+ * {@link Expression}, {@link RAstNode} (except the parent), lists and arrays of them; offsets are
+ * the <code>int</code> fields with a name ending with <code>Offset</code> and the separator lists
+ * ({@link IntList}).
+ */
+final class RAstCopier {
+	
+	
+	private static final class NodeFields {
+		
+		final Field[] offsetFields;
+		final Field[] childFields;
+		
+		public NodeFields(final Class<?> nodeClass) {
+			final List<Field> offsetFields = new ArrayList<Field>();
+			final List<Field> childFields = new ArrayList<Field>();
+			Class<?> c = nodeClass;
+			while (c != Object.class) {
+				for (final Field field : c.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers())
+							|| (c == RAstNode.class && !field.getName().endsWith("Offset"))) { //$NON-NLS-1$
+						continue; // parent, status and attachments
+					}
+					final Class<?> type = field.getType();
+					if (type == Integer.TYPE) {
+						if (field.getName().endsWith("Offset")) { //$NON-NLS-1$
+							field.setAccessible(true);
+							offsetFields.add(field);
+						}
+					}
+					else if (type == Expression.class || RAstNode.class.isAssignableFrom(type)
+							|| List.class.isAssignableFrom(type) || IntList.class.isAssignableFrom(type)
+							|| (type.isArray() && RAstNode.class.isAssignableFrom(type.getComponentType())) ) {
+						field.setAccessible(true);
+						childFields.add(field);
+					}
+				}
+				c = c.getSuperclass();
+			}
+			this.offsetFields = offsetFields.toArray(new Field[offsetFields.size()]);
+			this.childFields = childFields.toArray(new Field[childFields.size()]);
+		}
+		
+	}
+	
+	private static final ConcurrentHashMap<Class<?>, NodeFields> FIELDS = new ConcurrentHashMap<Class<?>, NodeFields>();
+	
+	private static NodeFields getFields(final Class<?> nodeClass) {
+		NodeFields fields = FIELDS.get(nodeClass);
+		if (fields == null) {
+			fields = new NodeFields(nodeClass);
+			FIELDS.putIfAbsent(nodeClass, fields);
+		}
+		return fields;
+	}
+	
+	
+	private final int fShift;
+	
+	private final Map<RAstNode, RAstNode> fCopies = new IdentityHashMap<RAstNode, RAstNode>();
+	
+	
+	/**
+	 * @param shift the value to add to the offsets of the nodes
+	 */
+	public RAstCopier(final int shift) {
+		fShift = shift;
+	}
+	
+	
+	/**
+	 * Copies the node with its children.
+	 * 
+	 * @param node the node to copy
+	 * @param parent the parent of the node
+	 * @param newParent the parent of the copy; references to <code>parent</code> are replaced by
+	 *     <code>newParent</code>
+	 * @return the copy
+	 */
+	public RAstNode copy(final RAstNode node, final Object parent, final RAstNode newParent)
+			throws IllegalAccessException {
+		try {
+			final RAstNode copy = copyNode(node);
+			for (final Map.Entry<RAstNode, RAstNode> entry : fCopies.entrySet()) {
+				final RAstNode nodeParent = entry.getKey().fRParent;
+				if (nodeParent == parent) {
+					entry.getValue().fRParent = newParent;
+				}
+				else if (nodeParent != null) {
+					final RAstNode parentCopy = fCopies.get(nodeParent);
+					if (parentCopy != null) {
+						entry.getValue().fRParent = parentCopy;
+					}
+				}
+			}
+			if (node instanceof SourceComponent && ((SourceComponent) node).fParent == parent) {
+				((SourceComponent) copy).fParent = newParent;
+			}
+			return copy;
+		}
+		finally {
+			fCopies.clear();
+		}
+	}
+	
+	public Expression copy(final Expression expr, final Object parent, final RAstNode newParent)
+			throws IllegalAccessException {
+		final Expression copy = new Expression();
+		if (expr.node != null) {
+			copy.node = copy(expr.node, parent, newParent);
+		}
+		return copy;
+	}
+	
+	private RAstNode copyNode(final RAstNode node) throws IllegalAccessException {
+		final RAstNode copy = node.shallowCopy();
+		fCopies.put(node, copy);
+		
+		final NodeFields fields = getFields(node.getClass());
+		if (fShift != 0) {
+			for (final Field field : fields.offsetFields) {
+				final int offset = field.getInt(node);
+				if (offset != Integer.MIN_VALUE) {
+					field.setInt(copy, offset + fShift);
+				}
+			}
+		}
+		for (final Field field : fields.childFields) {
+			final Object value = field.get(node);
+			if (value != null) {
+				field.set(copy, copyValue(value));
+			}
+		}
+		return copy;
+	}
+	
+	private Object copyValue(final Object value) throws IllegalAccessException {
+		if (value instanceof RAstNode) {
+			final RAstNode copy = fCopies.get(value);
+			return (copy != null) ? copy : copyNode((RAstNode) value);
+		}
+		if (value instanceof Expression) {
+			final Expression copy = new Expression();
+			if (((Expression) value).node != null) {
+				copy.node = (RAstNode) copyValue(((Expression) value).node);
+			}
+			return copy;
+		}
+		if (value instanceof IntList) {
+			final IntList list = (IntList) value;
+			final int size = list.size();
+			final IntList copy = new ArrayIntList(size);
+			for (int i = 0; i < size; i++) {
+				final int offset = list.get(i);
+				copy.add((offset != Integer.MIN_VALUE) ? offset + fShift : offset);
+			}
+			return copy;
+		}
+		if (value instanceof List) {
+			final List<?> list = (List<?>) value;
+			final List<Object> copy = new ArrayList<Object>(list.size());
+			for (final Object element : list) {
+				copy.add((element != null) ? copyValue(element) : null);
+			}
+			return (value instanceof ArrayList) ? copy : Collections.unmodifiableList(copy);
+		}
+		{	final Object[] array = (Object[]) value;
+			final Object[] copy = Arrays.copyOf(array, array.length);
+			for (int i = 0; i < array.length; i++) {
+				if (array[i] != null) {
+					copy[i] = copyValue(array[i]);
+				}
+			}
+			return copy;
+		}
+	}
+	
+}
@@ -27,7 +27,7 @@ import de.walware.statet.r.core.rlang.RTerminal;
 /**
  * A node of a R AST
  */
-public abstract class RAstNode implements IAstNode {
+public abstract class RAstNode implements IAstNode, Cloneable {
 	
 	
 	interface Assoc {
@@ -255,6 +255,20 @@ public abstract class RAstNode implements IAstNode {
 	
 	abstract void updateStopOffset();
 	
+	/**
+	 * Returns a shallow copy of this node without attachments, see {@link RAstCopier}.
+	 */
+	final RAstNode shallowCopy() {
+		try {
+			final RAstNode copy = (RAstNode) clone();
+			copy.attachments= NO_ATTACHMENT;
+			return copy;
+		}
+		catch (final CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
 	
 	@Override
 	public synchronized void addAttachment(final Object data) {
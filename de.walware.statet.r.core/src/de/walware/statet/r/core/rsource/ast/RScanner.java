@@ -217,6 +217,116 @@ public final class RScanner {
 		}
 	}
 	
+	/**
+	 * Scans the source range and adds copies of the top level expressions and comments of a
+	 * previous scan of the source before and after the range.
+	 * 
+	 * The text of the source before <code>offset</code> and after <code>offset+length</code> must
+	 * be unchanged since the scan of <code>previous</code>. <code>offset</code> must be the start
+	 * offset of the expression <code>prefixCount</code> of <code>previous</code> (or the start of
+	 * the range of <code>previous</code>, if no expression is reused before the range), and
+	 * <code>offset+length-shift</code> the stop offset of the expression
+	 * <code>suffixIndex-1</code> (or the end of the range of <code>previous</code>, if no
+	 * expression is reused after the range). So the unchanged expressions next to the changed
+	 * text are scanned again; the last one must be found again at the same position.
+	 * 
+	 * The nodes of <code>previous</code> are not modified; the new source component contains
+	 * copies without attachments.
+	 * 
+	 * @param parent the parent of the new source component
+	 * @param previous the source component of the previous scan
+	 * @param prefixCount the number of expressions of <code>previous</code> to reuse before the
+	 *     range
+	 * @param suffixIndex the index of the first expression of <code>previous</code> to reuse after
+	 *     the range
+	 * @param shift the difference of the offsets after the range to the offsets in
+	 *     <code>previous</code>
+	 * @param offset the offset of the range to scan
+	 * @param length the length of the range to scan
+	 * @return the new source component, or <code>null</code> if <code>previous</code> or the
+	 *     scanned range contains syntax errors (e.g. an unbalanced bracket), so a scan of the
+	 *     complete source can differ from the combined result
+	 */
+	public SourceComponent scanSourceRange(final IAstNode parent, final SourceComponent previous,
+			final int prefixCount, final int suffixIndex, final int shift,
+			final int offset, final int length) {
+		if ((previous.fStatus & RScannerPostExprVisitor.SYNTAXERROR_MASK) != 0) {
+			return null;
+		}
+		final SourceComponent rootNode = scanSourceRange(parent, offset, length);
+		if (rootNode.fStatus == STATUS_RUNTIME_ERROR
+				|| (rootNode.fStatus & RScannerPostExprVisitor.SYNTAXERROR_MASK) != 0) {
+			return null;
+		}
+		if (suffixIndex < previous.fExpressions.size()) {
+			// the last scanned expression must match the previous one before the reused expressions,
+			// otherwise a token (e.g. a string) can continue behind the range
+			final RAstNode margin = previous.fExpressions.get(suffixIndex - 1).node;
+			final int count = rootNode.fExpressions.size();
+			final RAstNode last = (count > 0) ? rootNode.fExpressions.get(count - 1).node : null;
+			if (last == null || last.getClass() != margin.getClass()
+					|| last.fStartOffset != margin.fStartOffset + shift
+					|| last.fStopOffset != margin.fStopOffset + shift) {
+				return null;
+			}
+		}
+		
+		try {
+			final int stopOffset = offset + length;
+			final List<Expression> expressions = new ArrayList<Expression>(prefixCount
+					+ rootNode.fExpressions.size() + previous.fExpressions.size() - suffixIndex );
+			{	final RAstCopier copier = new RAstCopier(0);
+				for (int i = 0; i < prefixCount; i++) {
+					expressions.add(copier.copy(previous.fExpressions.get(i), previous, rootNode));
+				}
+			}
+			expressions.addAll(rootNode.fExpressions);
+			{	final RAstCopier copier = new RAstCopier(shift);
+				for (int i = suffixIndex; i < previous.fExpressions.size(); i++) {
+					expressions.add(copier.copy(previous.fExpressions.get(i), previous, rootNode));
+				}
+			}
+			rootNode.fExpressions.clear();
+			rootNode.fExpressions.addAll(expressions);
+			for (final Expression expr : expressions) {
+				if ((expr.node.fStatus & RScannerPostExprVisitor.SYNTAXERROR_MASK) != 0) {
+					rootNode.fStatus |= STATUSFLAG_ERROR_IN_CHILD;
+				}
+			}
+			
+			if (fCommentsLevel > 0 && previous.fComments != null) {
+				final List<RAstNode> comments = new ArrayList<RAstNode>(
+						previous.fComments.size() + rootNode.fComments.size() );
+				final RAstCopier prefixCopier = new RAstCopier(0);
+				final RAstCopier suffixCopier = new RAstCopier(shift);
+				int i = 0;
+				for (; i < previous.fComments.size(); i++) {
+					final RAstNode comment = previous.fComments.get(i);
+					if (comment.fStartOffset >= offset) {
+						break;
+					}
+					comments.add(prefixCopier.copy(comment, previous, rootNode));
+				}
+				comments.addAll(rootNode.fComments);
+				for (; i < previous.fComments.size(); i++) {
+					final RAstNode comment = previous.fComments.get(i);
+					if (comment.fStartOffset + shift >= stopOffset) {
+						comments.add(suffixCopier.copy(comment, previous, rootNode));
+					}
+				}
+				rootNode.fComments = Collections.unmodifiableList(comments);
+			}
+		}
+		catch (final Exception e) {
+			RCorePlugin.logError(-1, "Error occured while copying R AST nodes", e);
+			return null;
+		}
+		
+		rootNode.updateStartOffset();
+		rootNode.updateStopOffset();
+		return rootNode;
+	}
+	
 	public RAstNode scanExpr() {
 		try {
 			fLexer.setFull();
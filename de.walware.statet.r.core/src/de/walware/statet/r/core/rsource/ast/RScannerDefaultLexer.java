@@ -24,10 +24,18 @@ import de.walware.statet.r.core.rlang.RTerminal;
 
 /**
  * Lexer for RScanner
+ * 
+ * The text of the tokens is specified as range in the input; the strings are created by
+ * {@link #getText()} on demand. Symbols, numbers and short strings are deduplicated by the
+ * string cache.
  */
 class RScannerDefaultLexer extends RScannerLexer {
 	
 	
+	/** Max length of string literals and specials deduplicated by the string cache */
+	private static final int CACHE_MAX_LENGTH = 8;
+	
+	
 	private final IStringCache fStringCache;
 	
 	
@@ -40,14 +48,14 @@ class RScannerDefaultLexer extends RScannerLexer {
 	@Override
 	protected void createNumberToken(final RTerminal type, final int status) {
 		fFoundType = type;
-		fFoundText = fInput.substring(1, fFoundNum);
+		setFoundText(1, fFoundNum, fStringCache);
 		fFoundStatus = status;
 	}
 	
 	@Override
 	protected void createSymbolToken() {
 		fFoundType = RTerminal.SYMBOL;
-		fFoundText = fInput.substring(1, fFoundNum, fStringCache);
+		setFoundText(1, fFoundNum, fStringCache);
 		fFoundStatus = STATUS_OK;
 	}
 	
@@ -56,7 +64,7 @@ class RScannerDefaultLexer extends RScannerLexer {
 		fFoundType = type;
 		final int sLength = ((status & STATUS_MASK_12) != STATUS2_SYNTAX_TOKEN_NOT_CLOSED) ?
 				(fFoundNum - 2) : (fFoundNum - 1);
-		fFoundText = fInput.substring(2, sLength, fStringCache);
+		setFoundText(2, sLength, fStringCache);
 		fFoundStatus = status;
 	}
 	
@@ -65,7 +73,7 @@ class RScannerDefaultLexer extends RScannerLexer {
 		fFoundType = type;
 		final int sLength = ((status & STATUS_MASK_12) != STATUS2_SYNTAX_TOKEN_NOT_CLOSED) ?
 				(fFoundNum - 2) : (fFoundNum - 1);
-		fFoundText = fInput.substring(2, sLength);
+		setFoundText(2, sLength, (sLength <= CACHE_MAX_LENGTH) ? fStringCache : null);
 		fFoundStatus = status;
 	}
 	
@@ -74,9 +82,7 @@ class RScannerDefaultLexer extends RScannerLexer {
 		fFoundType = RTerminal.SPECIAL;
 		final int sLength = ((status & STATUS_MASK_12) != STATUS2_SYNTAX_TOKEN_NOT_CLOSED) ?
 				(fFoundNum - 2) : (fFoundNum - 1);
-				;
-		fFoundText = (sLength <= 3) ?
-				fInput.substring(2, sLength, fStringCache) : fInput.substring(2, sLength);
+		setFoundText(2, sLength, (sLength <= CACHE_MAX_LENGTH) ? fStringCache : null);
 		fFoundStatus = status;
 	}
 	
@@ -62,12 +62,21 @@ public class RoxygenScanner {
 	}
 	
 	public void update(final SourceComponent component) {
+		update(component, 0, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Updates the documentation comments of the source component starting in the specified
+	 * range.
+	 */
+	public void update(final SourceComponent component, final int startOffset, final int stopOffset) {
 		final List<RAstNode> comments = component.fComments;
 		if (comments == null || comments.isEmpty()) {
 			return;
 		}
 		for (final RAstNode comment : comments) {
-			if (comment.getNodeType() == NodeType.DOCU_AGGREGATION) {
+			if (comment.getNodeType() == NodeType.DOCU_AGGREGATION
+					&& comment.fStartOffset >= startOffset && comment.fStartOffset < stopOffset) {
 				update((DocuComment) comment);
 			}
 		}
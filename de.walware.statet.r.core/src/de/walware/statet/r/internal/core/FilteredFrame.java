@@ -21,6 +21,7 @@ import de.walware.statet.r.core.model.IRElement;
 import de.walware.statet.r.core.model.IRFrame;
 import de.walware.statet.r.core.model.IRLangElement;
 import de.walware.statet.r.core.model.RElementName;
+import de.walware.statet.r.internal.core.builder.CompositeFrame;
 
 
 public class FilteredFrame implements IRFrame, IModelElement.Filter {
@@ -61,6 +62,18 @@ public class FilteredFrame implements IRFrame, IModelElement.Filter {
 		return fFrame.getModelChildren((fExclude != null) ? this : null);
 	}
 	
+	/**
+	 * Returns the children with the specified name.
+	 * 
+	 * @see CompositeFrame#getModelChildren(String, IModelElement.Filter)
+	 */
+	public List<? extends IRLangElement> getModelChildren(final String name) {
+		if (fFrame instanceof CompositeFrame) {
+			return ((CompositeFrame) fFrame).getModelChildren(name, (fExclude != null) ? this : null);
+		}
+		return fFrame.getModelChildren((fExclude != null) ? this : null);
+	}
+	
 	@Override
 	public List<? extends IRElement> getModelElements() {
 		return fFrame.getModelElements();
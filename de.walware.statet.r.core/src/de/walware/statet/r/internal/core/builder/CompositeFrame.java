@@ -15,9 +15,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 
@@ -29,19 +32,117 @@ import de.walware.statet.r.core.model.IRLangElement;
 import de.walware.statet.r.core.model.RElementName;
 
 
+/**
+ * Frame of a project, composed of the exported elements of all source units of the project.
+ * 
+ * The frame knows all source units (id, model type and main names), but the elements of a
+ * source unit ({@link RUnitElement}) are loaded on demand by the {@link UnitLoader} when they
+ * are required by a lookup. The number of loaded elements kept in memory is limited (LRU). The
+ * enumeration of all children streams the elements of the source units not loaded from the
+ * loader and keeps them only while the limit is not reached, so it doesn't displace the elements
+ * kept for lookups.
+ */
 public class CompositeFrame implements IRFrame {
 	
 	
+	/**
+	 * Loads the element of a source unit, e.g. from the index.
+	 */
+	public static interface UnitLoader {
+		
+		/**
+		 * @param frame the frame requesting the element
+		 * @param unitId the id of the source unit
+		 * @param modelTypeId the model type id of the source unit
+		 * @return the element or <code>null</code>, if not available
+		 */
+		RUnitElement load(CompositeFrame frame, String unitId, String modelTypeId);
+		
+		/**
+		 * Loads the elements of all source units available, one after another.
+		 * 
+		 * @param frame the frame requesting the elements
+		 * @param handler the handler receiving the elements
+		 */
+		void loadAll(CompositeFrame frame, ElementHandler handler);
+		
+	}
+	
+	/**
+	 * Receives the elements of source units.
+	 */
+	public static interface ElementHandler {
+		
+		/**
+		 * @param unitId the id of the source unit
+		 * @param element the element of the source unit
+		 * @return <code>true</code> to continue, <code>false</code> to stop
+		 */
+		boolean handle(String unitId, RUnitElement element);
+		
+	}
+	
+	private static final class Unit {
+		
+		final String modelTypeId;
+		final String[] names;
+		
+		Unit(final String modelTypeId, final String[] names) {
+			this.modelTypeId = modelTypeId;
+			this.names = names;
+		}
+		
+		boolean containsName(final String name) {
+			if (this.names == null) {
+				return true;
+			}
+			for (int i = 0; i < this.names.length; i++) {
+				if (this.names[i].equals(name)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
+	}
+	
+	private static final String[] NO_NAMES = new String[0];
+	
+	
 	private final int fFrameType;
 	private final RElementName fElementName;
 	
-	public final Map<String, RUnitElement> fModelElements;
+	/** All source units (unitId -> unit), modified only with index write lock */
+	private final Map<String, Unit> fUnits;
+	/** Loaded elements (unitId -> element), synchronized */
+	private final LinkedHashMap<String, RUnitElement> fElements;
+	private final UnitLoader fLoader;
+	private final int fMaxLoaded;
+	
 	private final Lock fLock;
 	
 	
-	public CompositeFrame(final ReadWriteLock lock, final String packageName, final String projectName, final Map<String, RUnitElement> elements) {
+	/**
+	 * Creates a new frame.
+	 * 
+	 * @param lock the lock of the index
+	 * @param loader the loader for elements of source units, or <code>null</code> if all elements
+	 *     are added directly
+	 * @param maxLoaded the max number of loaded elements kept in memory if a loader is specified
+	 */
+	public CompositeFrame(final ReadWriteLock lock, final String packageName, final String projectName,
+			final UnitLoader loader, final int maxLoaded) {
 		fLock = lock.readLock();
-		fModelElements = (elements != null) ? elements : new HashMap<String, RUnitElement>();
+		fUnits = new LinkedHashMap<String, Unit>();
+		fLoader = loader;
+		fMaxLoaded = maxLoaded;
+		fElements = new LinkedHashMap<String, RUnitElement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, RUnitElement> eldest) {
+				return (fLoader != null && size() > fMaxLoaded);
+			}
+		};
 		
 		if (packageName != null) {
 			fFrameType = PACKAGE;
@@ -53,6 +154,21 @@ public class CompositeFrame implements IRFrame {
 		}
 	}
 	
+	/**
+	 * Creates a new frame with the source units of the specified frame.
+	 */
+	public CompositeFrame(final ReadWriteLock lock, final String packageName, final String projectName,
+			final CompositeFrame template) {
+		this(lock, packageName, projectName, template.fLoader, template.fMaxLoaded);
+		fUnits.putAll(template.fUnits);
+		synchronized (template.fElements) {
+			for (final Map.Entry<String, RUnitElement> entry : template.fElements.entrySet()) {
+				entry.getValue().fEnvir = this;
+				fElements.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+	
 	
 	@Override
 	public RElementName getElementName() {
@@ -69,13 +185,96 @@ public class CompositeFrame implements IRFrame {
 		return fFrameType;
 	}
 	
+	
+	private RUnitElement getElement(final String unitId, final Unit unit) {
+		RUnitElement element;
+		synchronized (fElements) {
+			element = fElements.get(unitId);
+		}
+		if (element == null && fLoader != null) {
+			element = fLoader.load(this, unitId, unit.modelTypeId);
+			if (element != null) {
+				synchronized (fElements) {
+					final RUnitElement loaded = fElements.get(unitId);
+					if (loaded != null) {
+						return loaded;
+					}
+					fElements.put(unitId, element);
+				}
+			}
+		}
+		return element;
+	}
+	
+	/**
+	 * Passes the elements of all source units to the handler.
+	 * 
+	 * The elements already loaded are passed first, the other elements are loaded by the loader
+	 * at once. The loaded elements are kept only while the limit is not reached.
+	 * 
+	 * Requires read lock of the index.
+	 * 
+	 * @return <code>false</code> if stopped by the handler, otherwise <code>true</code>
+	 */
+	private boolean visitAllElements(final ElementHandler handler) {
+		final Map<String, RUnitElement> loaded;
+		synchronized (fElements) {
+			loaded = new HashMap<String, RUnitElement>(fElements);
+		}
+		final Set<String> missing = new HashSet<String>();
+		for (final Map.Entry<String, Unit> entry : fUnits.entrySet()) {
+			final RUnitElement element = loaded.get(entry.getKey());
+			if (element != null) {
+				if (!handler.handle(entry.getKey(), element)) {
+					return false;
+				}
+			}
+			else {
+				missing.add(entry.getKey());
+			}
+		}
+		if (missing.isEmpty() || fLoader == null) {
+			return true;
+		}
+		final boolean[] stopped = new boolean[1];
+		fLoader.loadAll(this, new ElementHandler() {
+			@Override
+			public boolean handle(final String unitId, final RUnitElement element) {
+				if (!missing.remove(unitId)) {
+					return true;
+				}
+				RUnitElement current;
+				synchronized (fElements) {
+					current = fElements.get(unitId);
+					if (current == null) {
+						current = element;
+						if (fElements.size() < fMaxLoaded) {
+							fElements.put(unitId, element);
+						}
+					}
+				}
+				if (!handler.handle(unitId, current)) {
+					stopped[0] = true;
+					return false;
+				}
+				return true;
+			}
+		});
+		return !stopped[0];
+	}
+	
 	@Override
 	public List<? extends IRElement> getModelElements() {
 		fLock.lock();
 		try {
-			final Collection<RUnitElement> values = fModelElements.values();
-			final List<IRElement> list = new ArrayList<IRElement>(values.size());
-			list.addAll(values);
+			final List<RUnitElement> list = new ArrayList<RUnitElement>(fUnits.size());
+			visitAllElements(new ElementHandler() {
+				@Override
+				public boolean handle(final String unitId, final RUnitElement element) {
+					list.add(element);
+					return true;
+				}
+			});
 			return list;
 		}
 		finally {
@@ -87,15 +286,15 @@ public class CompositeFrame implements IRFrame {
 	public boolean hasModelChildren(final Filter filter) {
 		fLock.lock();
 		try {
-			if (fModelElements.isEmpty()) {
+			if (fUnits.isEmpty()) {
 				return false;
 			}
-			for (final IRElement element : fModelElements.values()) {
-				if (element.hasModelChildren(filter)) {
-					return true;
+			return !visitAllElements(new ElementHandler() {
+				@Override
+				public boolean handle(final String unitId, final RUnitElement element) {
+					return !element.hasModelChildren(filter);
 				}
-			}
-			return false;
+			});
 		}
 		finally {
 			fLock.unlock();
@@ -106,18 +305,45 @@ public class CompositeFrame implements IRFrame {
 	public List<? extends IRLangElement> getModelChildren(final Filter filter) {
 		fLock.lock();
 		try {
-			if (fModelElements.isEmpty()) {
+			if (fUnits.isEmpty()) {
 				return Collections.EMPTY_LIST;
 			}
 			final ArrayList<IRLangElement> children = new ArrayList<IRLangElement>();
-			for (final IRLangElement element : fModelElements.values()) {
-				final List<? extends IRLangElement> elementChildren = element.getModelChildren(null);
-				if (!elementChildren.isEmpty()) {
-					children.ensureCapacity(children.size() + elementChildren.size());
-					for (final IRLangElement child : elementChildren) {
-						if (filter == null || filter.include(child)) {
-							children.add(child);
-						}
+			visitAllElements(new ElementHandler() {
+				@Override
+				public boolean handle(final String unitId, final RUnitElement element) {
+					addChildren(children, element, null, filter);
+					return true;
+				}
+			});
+			return children;
+		}
+		finally {
+			fLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the children with the specified main name.
+	 * 
+	 * Only the elements of source units having the name as main name are loaded.
+	 * 
+	 * @param name the segment name of the children
+	 * @param filter an optional filter
+	 * @return list with the children
+	 */
+	public List<? extends IRLangElement> getModelChildren(final String name, final Filter filter) {
+		fLock.lock();
+		try {
+			if (fUnits.isEmpty()) {
+				return Collections.EMPTY_LIST;
+			}
+			final ArrayList<IRLangElement> children = new ArrayList<IRLangElement>();
+			for (final Map.Entry<String, Unit> entry : fUnits.entrySet()) {
+				if (entry.getValue().containsName(name)) {
+					final RUnitElement element = getElement(entry.getKey(), entry.getValue());
+					if (element != null) {
+						addChildren(children, element, name, filter);
 					}
 				}
 			}
@@ -128,28 +354,94 @@ public class CompositeFrame implements IRFrame {
 		}
 	}
 	
+	private static void addChildren(final ArrayList<IRLangElement> children,
+			final RUnitElement element, final String name, final Filter filter) {
+		final List<? extends IRLangElement> elementChildren = element.getModelChildren(null);
+		if (!elementChildren.isEmpty()) {
+			children.ensureCapacity(children.size() + elementChildren.size());
+			for (final IRLangElement child : elementChildren) {
+				if ((name == null || isName(child.getElementName(), name))
+						&& (filter == null || filter.include(child)) ) {
+					children.add(child);
+				}
+			}
+		}
+	}
+	
+	private static boolean isName(final RElementName elementName, final String name) {
+		return (elementName != null && name.equals(elementName.getSegmentName()));
+	}
+	
 	@Override
 	public List<? extends IRFrame> getPotentialParents() {
 		return Collections.EMPTY_LIST;
 	}
 	
 	
-	public RUnitElement setModelElement(final String suId, final RUnitElement element) {
+	/**
+	 * Adds a source unit without loading its element.
+	 * 
+	 * Requires write lock of the index.
+	 * 
+	 * @param names the main names of the source unit
+	 */
+	public void addUnit(final String suId, final String modelTypeId, final Collection<String> names) {
+		fUnits.put(suId, new Unit(modelTypeId, toArray(names)));
+	}
+	
+	/**
+	 * Requires write lock of the index.
+	 * 
+	 * @param names the main names of the source unit
+	 */
+	public RUnitElement setModelElement(final String suId, final RUnitElement element,
+			final Collection<String> names) {
 		element.fEnvir = this;
-		return fModelElements.put(suId, element);
+		fUnits.put(suId, new Unit(element.getSourceUnit().getModelTypeId(), toArray(names)));
+		synchronized (fElements) {
+			return fElements.put(suId, element);
+		}
 	}
 	
-	public RUnitElement removeModelElement(final String suId) {
-		return fModelElements.remove(suId);
+	/**
+	 * Requires write lock of the index.
+	 */
+	public void removeModelElement(final String suId) {
+		fUnits.remove(suId);
+		synchronized (fElements) {
+			fElements.remove(suId);
+		}
 	}
 	
+	/**
+	 * Requires write lock of the index.
+	 */
 	public void removeModelElements(final String modelTypeId) {
-		for (final Iterator<RUnitElement> iter= fModelElements.values().iterator(); iter.hasNext(); ) {
-			final RUnitElement unitElement= iter.next();
-			if (unitElement.getModelTypeId() == modelTypeId) {
+		for (final Iterator<Map.Entry<String, Unit>> iter = fUnits.entrySet().iterator(); iter.hasNext(); ) {
+			final Map.Entry<String, Unit> entry = iter.next();
+			if (entry.getValue().modelTypeId.equals(modelTypeId)) {
 				iter.remove();
+				synchronized (fElements) {
+					fElements.remove(entry.getKey());
+				}
+			}
+		}
+	}
+	
+	private static String[] toArray(final Collection<String> names) {
+		if (names == null) {
+			return null;
+		}
+		if (names.isEmpty()) {
+			return NO_NAMES;
+		}
+		final List<String> list = new ArrayList<String>(names.size());
+		for (final String name : names) {
+			if (name != null) {
+				list.add(name);
 			}
 		}
+		return list.toArray(new String[list.size()]);
 	}
 	
 }
@@ -16,6 +16,7 @@ import java.util.List;
 
 import de.walware.statet.r.core.model.IRClass;
 import de.walware.statet.r.core.model.IRLangElement;
+import de.walware.statet.r.core.model.RElementName;
 
 
 public class ExportedRClass extends ExportedRElement implements IRClass, Serializable {
@@ -32,6 +33,15 @@ public class ExportedRClass extends ExportedRElement implements IRClass, Seriali
 		fSuperClassNames = sourceElement.getExtendedClassNames();
 	}
 	
+	ExportedRClass(final IRLangElement parent, final int elementType,
+			final RElementName elementName, final String elementId,
+			final int sourceOffset, final int sourceLength, final int nameOffset, final int nameLength,
+			final List<String> superClassNames) {
+		super(parent, elementType, elementName, elementId,
+				sourceOffset, sourceLength, nameOffset, nameLength );
+		fSuperClassNames = superClassNames;
+	}
+	
 	public ExportedRClass() {
 	}
 	
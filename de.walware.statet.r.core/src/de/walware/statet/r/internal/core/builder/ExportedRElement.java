@@ -102,6 +102,19 @@ public class ExportedRElement implements IRLangElement, Serializable {
 		}
 	}
 	
+	ExportedRElement(final IRLangElement parent, final int elementType,
+			final RElementName elementName, final String elementId,
+			final int sourceOffset, final int sourceLength, final int nameOffset, final int nameLength) {
+		fParent = parent;
+		fElementType = elementType;
+		fElementName = elementName;
+		fElementId = elementId;
+		fSourceOffset = sourceOffset;
+		fSourceLength = sourceLength;
+		fNameOffset = nameOffset;
+		fNameLength = nameLength;
+	}
+	
 	public ExportedRElement() {
 	}
 	
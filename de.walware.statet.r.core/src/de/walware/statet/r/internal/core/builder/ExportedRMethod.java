@@ -16,6 +16,7 @@ import java.io.Serializable;
 import de.walware.statet.r.core.model.ArgsDefinition;
 import de.walware.statet.r.core.model.IRLangElement;
 import de.walware.statet.r.core.model.IRMethod;
+import de.walware.statet.r.core.model.RElementName;
 
 
 public class ExportedRMethod extends ExportedRElement implements IRMethod, Serializable {
@@ -32,6 +33,15 @@ public class ExportedRMethod extends ExportedRElement implements IRMethod, Seria
 		fArgs = sourceElement.getArgsDefinition();
 	}
 	
+	ExportedRMethod(final IRLangElement parent, final int elementType,
+			final RElementName elementName, final String elementId,
+			final int sourceOffset, final int sourceLength, final int nameOffset, final int nameLength,
+			final ArgsDefinition args) {
+		super(parent, elementType, elementName, elementId,
+				sourceOffset, sourceLength, nameOffset, nameLength );
+		fArgs = args;
+	}
+	
 	public ExportedRMethod() {
 	}
 	
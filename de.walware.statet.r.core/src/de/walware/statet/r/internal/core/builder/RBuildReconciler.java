@@ -60,6 +60,21 @@ public class RBuildReconciler extends RReconciler {
 	 * @throws CoreException
 	 **/
 	public IRModelInfo build(final RSuModelContainer adapter, final IProgressMonitor monitor) {
+		final Data data= buildModel(adapter, monitor);
+		if (data == null) {
+			return null;
+		}
+		return buildTasks(data, monitor);
+	}
+	
+	/**
+	 * Creates AST and model of the source unit (first part of {@link #build}).
+	 * 
+	 * Doesn't require {@link #init(IRProject, MultiStatus)}, so it can be run by build workers.
+	 * 
+	 * @return the build data or <code>null</code>, if the source unit is not buildable
+	 */
+	public Data buildModel(final RSuModelContainer adapter, final IProgressMonitor monitor) {
 		final IRSourceUnit su= adapter.getSourceUnit();
 		final int type= (su.getModelTypeId().equals(RModel.TYPE_ID) ? su.getElementType() : 0);
 		if (type == 0) {
@@ -89,6 +104,19 @@ public class RBuildReconciler extends RReconciler {
 		if (this.stop || monitor.isCanceled()) {
 			throw new OperationCanceledException();
 		}
+		return data;
+	}
+	
+	/**
+	 * Updates the task markers of the source unit (second part of {@link #build}).
+	 * 
+	 * Requires {@link #init(IRProject, MultiStatus)}.
+	 * 
+	 * @param data the data created by {@link #buildModel(RSuModelContainer, IProgressMonitor)}
+	 * @return the model of the source unit
+	 */
+	public IRModelInfo buildTasks(final Data data, final IProgressMonitor monitor) {
+		final IRSourceUnit su= data.adapter.getSourceUnit();
 		
 //		final IProblemRequestor problemRequestor= su.getProblemRequestor();
 //		if (problemRequestor != null) {
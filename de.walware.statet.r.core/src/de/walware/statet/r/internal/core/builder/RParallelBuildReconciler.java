@@ -0,0 +1,201 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.internal.core.builder;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+
+import de.walware.ecommons.ICommonStatusConstants;
+
+import de.walware.statet.r.core.RCore;
+import de.walware.statet.r.core.model.IRModelInfo;
+import de.walware.statet.r.core.model.IRWorkspaceSourceUnit;
+import de.walware.statet.r.core.model.RModelIndexUpdate;
+import de.walware.statet.r.core.model.RSuModelContainer;
+import de.walware.statet.r.internal.core.sourcemodel.RModelManager;
+import de.walware.statet.r.internal.core.sourcemodel.RReconciler.Data;
+
+
+/**
+ * Builds the AST and model of source units of a project build in parallel.
+ * 
+ * Lexing, parsing and modeling runs on a bounded fork-join pool, each worker thread uses its
+ * own reconciler. The remaining steps (task markers, index update) are done by the calling
+ * builder thread in the original order of the source units.
+ * 
+ * The number of worker threads can be configured by the system property
+ * {@value #THREADS_PROPERTY}; a value &lt;= 1 disables the parallel build.
+ */
+public class RParallelBuildReconciler {
+	
+	
+	public static final String THREADS_PROPERTY= "de.walware.statet.r.builder.threads"; //$NON-NLS-1$
+	
+	/** Min number of source units for parallel build */
+	private static final int MIN_UNITS= 8;
+	
+	/** Max number of source units per thread processed in advance */
+	private static final int QUEUE_FACTOR= 4;
+	
+	
+	private static int readThreadCount() {
+		final String value= System.getProperty(THREADS_PROPERTY);
+		if (value != null && !value.isEmpty()) {
+			try {
+				return Integer.parseInt(value);
+			}
+			catch (final NumberFormatException e) {}
+		}
+		return Math.min(Runtime.getRuntime().availableProcessors(), 4);
+	}
+	
+	
+	private final RModelManager manager;
+	
+	private final int threadCount;
+	
+	private ForkJoinPool pool;
+	
+	private final ThreadLocal<RBuildReconciler> workerReconciler= new ThreadLocal<RBuildReconciler>() {
+		@Override
+		protected RBuildReconciler initialValue() {
+			return new RBuildReconciler(RParallelBuildReconciler.this.manager);
+		}
+	};
+	
+	
+	public RParallelBuildReconciler(final RModelManager manager) {
+		this.manager= manager;
+		this.threadCount= readThreadCount();
+	}
+	
+	
+	public int getThreadCount() {
+		return this.threadCount;
+	}
+	
+	/**
+	 * Returns if the specified number of source units should be built in parallel.
+	 */
+	public boolean isEnabled(final int count) {
+		return (this.threadCount > 1 && count >= MIN_UNITS);
+	}
+	
+	private synchronized ForkJoinPool getPool() {
+		if (this.pool == null) {
+			this.pool= new ForkJoinPool(this.threadCount);
+		}
+		return this.pool;
+	}
+	
+	public synchronized void dispose() {
+		if (this.pool != null) {
+			this.pool.shutdownNow();
+			this.pool= null;
+		}
+	}
+	
+	
+	/**
+	 * Builds the specified source units and adds the results to the index update.
+	 * 
+	 * @param reconciler the initialized reconciler of the builder thread (task markers)
+	 * @param update the source units to build
+	 * @param indexUpdate the index update to add the models to, in the order of <code>update</code>
+	 * @param status the status collector
+	 * @param monitor the progress monitor of the build
+	 */
+	public void build(final RBuildReconciler reconciler,
+			final List<IRWorkspaceSourceUnit> update, final RModelIndexUpdate indexUpdate,
+			final MultiStatus status, final IProgressMonitor monitor) {
+		final ForkJoinPool pool= getPool();
+		final IProgressMonitor workerMonitor= new NullProgressMonitor();
+		final int maxPending= this.threadCount * QUEUE_FACTOR;
+		final ArrayDeque<Future<Data>> pending= new ArrayDeque<>(maxPending);
+		final ArrayDeque<IRWorkspaceSourceUnit> pendingUnits= new ArrayDeque<>(maxPending);
+		int next= 0;
+		try {
+			while (true) {
+				while (next < update.size() && pending.size() < maxPending) {
+					final IRWorkspaceSourceUnit sourceUnit= update.get(next++);
+					final RSuModelContainer adapter= (RSuModelContainer) sourceUnit.getAdapter(RSuModelContainer.class);
+					if (adapter != null) {
+						pending.add(pool.submit(new Callable<Data>() {
+							@Override
+							public Data call() throws Exception {
+								return RParallelBuildReconciler.this.workerReconciler.get()
+										.buildModel(adapter, workerMonitor);
+							}
+						}));
+						pendingUnits.add(sourceUnit);
+					}
+				}
+				
+				final Future<Data> future= pending.poll();
+				if (future == null) {
+					return;
+				}
+				final IRWorkspaceSourceUnit sourceUnit= pendingUnits.poll();
+				
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				
+				try {
+					final Data data= future.get();
+					final IRModelInfo model= (data != null) ? reconciler.buildTasks(data, monitor) : null;
+					indexUpdate.update(sourceUnit, model);
+				}
+				catch (final ExecutionException e) {
+					if (e.getCause() instanceof OperationCanceledException) {
+						throw (OperationCanceledException) e.getCause();
+					}
+					status.add(new Status(IStatus.ERROR, RCore.PLUGIN_ID, ICommonStatusConstants.BUILD_ERROR,
+							NLS.bind("An error occurred when indexing ''{0}''", sourceUnit.getResource().getFullPath().toString()),
+							e.getCause() ));
+				}
+				catch (final InterruptedException e) {
+					throw new OperationCanceledException();
+				}
+				catch (final OperationCanceledException e) {
+					throw e;
+				}
+				catch (final Exception e) {
+					status.add(new Status(IStatus.ERROR, RCore.PLUGIN_ID, ICommonStatusConstants.BUILD_ERROR,
+							NLS.bind("An error occurred when indexing ''{0}''", sourceUnit.getResource().getFullPath().toString()),
+							e ));
+				}
+			}
+		}
+		finally {
+			if (!pending.isEmpty()) {
+				workerMonitor.setCanceled(true);
+				for (final Future<Data> future : pending) {
+					future.cancel(false);
+				}
+			}
+		}
+	}
+	
+}
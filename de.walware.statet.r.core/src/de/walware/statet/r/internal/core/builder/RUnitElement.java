@@ -11,10 +11,11 @@
 
 package de.walware.statet.r.internal.core.builder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Collections;
@@ -40,14 +41,37 @@ public class RUnitElement implements IRLangElement, Serializable {
 	private static final long serialVersionUID = 2909953007129363256L;
 	
 	
+	/**
+	 * Reads the element written by {@link #save(OutputStream)}.
+	 * 
+	 * Supports the compact format ({@link RUnitElementSerializer}) and the previous format
+	 * (Java serialization).
+	 */
 	public static RUnitElement read(final IRSourceUnit su, final CompositeFrame envir, final InputStream input) throws IOException, ClassNotFoundException {
-		final ObjectInputStream o = new ObjectInputStream(input);
-		final RUnitElement element = (RUnitElement) o.readObject();
+		final byte[] bytes = readBytes(input);
+		final RUnitElement element;
+		if (bytes.length > 0 && RUnitElementSerializer.isSupported(bytes[0])) {
+			element = new RUnitElementSerializer().read(su, bytes);
+		}
+		else {
+			final ObjectInputStream o = new ObjectInputStream(new ByteArrayInputStream(bytes));
+			element = (RUnitElement) o.readObject();
+		}
 		element.fSourceUnit = su;
 		element.fEnvir = envir;
 		return element;
 	}
 	
+	private static byte[] readBytes(final InputStream input) throws IOException {
+		final ByteArrayOutputStream output = new ByteArrayOutputStream(1024);
+		final byte[] buffer = new byte[4096];
+		int n;
+		while ((n = input.read(buffer)) >= 0) {
+			output.write(buffer, 0, n);
+		}
+		return output.toByteArray();
+	}
+	
 	
 	private transient ISourceUnit fSourceUnit;
 	transient CompositeFrame fEnvir;
@@ -127,9 +151,8 @@ public class RUnitElement implements IRLangElement, Serializable {
 	
 	
 	public void save(final OutputStream outputStream) throws IOException {
-		final ObjectOutputStream o = new ObjectOutputStream(outputStream);
-		o.writeObject(this);
-		o.flush();
+		new RUnitElementSerializer().write(this, outputStream);
+		outputStream.flush();
 	}
 	
 	
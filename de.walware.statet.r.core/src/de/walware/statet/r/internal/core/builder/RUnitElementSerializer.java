@@ -0,0 +1,343 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.internal.core.builder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.text.IRegion;
+
+import de.walware.statet.r.core.model.ArgsBuilder;
+import de.walware.statet.r.core.model.ArgsDefinition;
+import de.walware.statet.r.core.model.IRLangElement;
+import de.walware.statet.r.core.model.IRSourceUnit;
+import de.walware.statet.r.core.model.RElementName;
+
+
+/**
+ * Compact binary format for the exported elements of a source unit ({@link RUnitElement}).
+ * 
+ * The format starts with the version byte {@link #VERSION_1}, followed by a table of all strings
+ * (element names, ids, ...) and the elements referring the strings by their index in the table.
+ * All integer values are written as unsigned variable-length integers (varint).
+ * 
+ * Data written by Java serialization (the previous format) starts with the byte
+ * <code>0xAC</code>, so it can be detected by {@link #isSupported(int)}.
+ */
+final class RUnitElementSerializer {
+	
+	
+	static final byte VERSION_1= 0x01;
+	
+	private static final Charset UTF_8= Charset.forName("UTF-8"); //$NON-NLS-1$
+	
+	private static final byte ELEMENT= 0;
+	private static final byte METHOD= 1;
+	private static final byte CLASS= 2;
+	
+	
+	static boolean isSupported(final int firstByte) {
+		return (firstByte == VERSION_1);
+	}
+	
+	
+	private static final class Output extends ByteArrayOutputStream {
+		
+		public Output() {
+			super(256);
+		}
+		
+		public void writeInt(int value) {
+			while ((value & ~0x7F) != 0) {
+				write((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			write(value);
+		}
+		
+	}
+	
+	private static final class Input {
+		
+		private final byte[] buf;
+		private int pos;
+		
+		public Input(final byte[] buf) {
+			this.buf= buf;
+		}
+		
+		public byte readByte() throws IOException {
+			if (this.pos >= this.buf.length) {
+				throw new EOFException();
+			}
+			return this.buf[this.pos++];
+		}
+		
+		public int readInt() throws IOException {
+			int value= 0;
+			int shift= 0;
+			while (true) {
+				final byte b= readByte();
+				value|= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+				shift+= 7;
+				if (shift > 28) {
+					throw new IOException("Invalid varint."); //$NON-NLS-1$
+				}
+			}
+		}
+		
+		public String readUtf8() throws IOException {
+			final int length= readInt();
+			if (length > this.buf.length - this.pos) {
+				throw new EOFException();
+			}
+			final String s= new String(this.buf, this.pos, length, UTF_8);
+			this.pos+= length;
+			return s;
+		}
+		
+	}
+	
+	
+	private final Map<String, Integer> stringIdx= new HashMap<>();
+	private final List<String> strings= new ArrayList<>();
+	
+	private String[] stringTable;
+	
+	
+	public RUnitElementSerializer() {
+	}
+	
+	
+	public void write(final RUnitElement unitElement, final OutputStream out) throws IOException {
+		this.stringIdx.clear();
+		this.strings.clear();
+		
+		final Output data= new Output();
+		final List<IRLangElement> elements= unitElement.fElements;
+		data.writeInt(elements.size());
+		for (final IRLangElement element : elements) {
+			writeElement((ExportedRElement) element, data);
+		}
+		
+		final Output header= new Output();
+		header.write(VERSION_1);
+		header.writeInt(this.strings.size());
+		for (final String s : this.strings) {
+			final byte[] bytes= s.getBytes(UTF_8);
+			header.writeInt(bytes.length);
+			header.write(bytes, 0, bytes.length);
+		}
+		header.writeTo(out);
+		data.writeTo(out);
+	}
+	
+	private void writeString(final String s, final Output out) {
+		if (s == null) {
+			out.writeInt(0);
+			return;
+		}
+		Integer idx= this.stringIdx.get(s);
+		if (idx == null) {
+			this.strings.add(s);
+			idx= Integer.valueOf(this.strings.size());
+			this.stringIdx.put(s, idx);
+		}
+		out.writeInt(idx.intValue());
+	}
+	
+	private void writeElement(final ExportedRElement element, final Output out) {
+		if (element instanceof ExportedRMethod) {
+			out.write(METHOD);
+		}
+		else if (element instanceof ExportedRClass) {
+			out.write(CLASS);
+		}
+		else {
+			out.write(ELEMENT);
+		}
+		out.writeInt(element.getElementType());
+		writeName(element.getElementName(), out);
+		writeString(element.getId(), out);
+		writeRegion(element.getSourceRange(), out);
+		writeRegion(element.getNameSourceRange(), out);
+		
+		if (element instanceof ExportedRMethod) {
+			final ArgsDefinition args= ((ExportedRMethod) element).getArgsDefinition();
+			if (args == null) {
+				out.writeInt(0);
+			}
+			else {
+				out.writeInt(args.size() + 1);
+				for (int i= 0; i < args.size(); i++) {
+					final ArgsDefinition.Arg arg= args.get(i);
+					writeString(arg.name, out);
+					out.writeInt(arg.type);
+					writeString(arg.className, out);
+				}
+			}
+		}
+		else if (element instanceof ExportedRClass) {
+			final List<String> superClassNames= ((ExportedRClass) element).getExtendedClassNames();
+			if (superClassNames == null) {
+				out.writeInt(0);
+			}
+			else {
+				out.writeInt(superClassNames.size() + 1);
+				for (final String name : superClassNames) {
+					writeString(name, out);
+				}
+			}
+		}
+	}
+	
+	private void writeName(RElementName name, final Output out) {
+		int count= 0;
+		for (RElementName segment= name; segment != null; segment= segment.getNextSegment()) {
+			count++;
+		}
+		out.writeInt(count);
+		while (name != null) {
+			out.writeInt(name.getType());
+			writeString(name.getSegmentName(), out);
+			out.writeInt((name instanceof RElementName.IndexElementName) ?
+					((RElementName.IndexElementName) name).getIndex() + 1 : 0 );
+			name= name.getNextSegment();
+		}
+	}
+	
+	private void writeRegion(final IRegion region, final Output out) {
+		if (region == null) {
+			out.writeInt(0);
+			return;
+		}
+		out.writeInt(region.getOffset() + 1);
+		out.writeInt(region.getLength());
+	}
+	
+	
+	public RUnitElement read(final IRSourceUnit su, final byte[] bytes) throws IOException {
+		final Input in= new Input(bytes);
+		if (!isSupported(in.readByte())) {
+			throw new IOException("Unsupported format."); //$NON-NLS-1$
+		}
+		{	final int count= in.readInt();
+			this.stringTable= new String[count + 1];
+			for (int i= 1; i <= count; i++) {
+				this.stringTable[i]= in.readUtf8();
+			}
+		}
+		try {
+			final int count= in.readInt();
+			final List<IRLangElement> elements= new ArrayList<>(count);
+			final RUnitElement unitElement= new RUnitElement(su, elements);
+			for (int i= 0; i < count; i++) {
+				elements.add(readElement(unitElement, in));
+			}
+			return unitElement;
+		}
+		finally {
+			this.stringTable= null;
+		}
+	}
+	
+	private String readString(final Input in) throws IOException {
+		final int idx= in.readInt();
+		if (idx >= this.stringTable.length) {
+			throw new IOException("Invalid string reference."); //$NON-NLS-1$
+		}
+		return this.stringTable[idx];
+	}
+	
+	private ExportedRElement readElement(final RUnitElement parent, final Input in) throws IOException {
+		final byte kind= in.readByte();
+		final int elementType= in.readInt();
+		final RElementName elementName= readName(in);
+		final String elementId= readString(in);
+		final int sourceOffset= in.readInt() - 1;
+		final int sourceLength= (sourceOffset >= 0) ? in.readInt() : 0;
+		final int nameOffset= in.readInt() - 1;
+		final int nameLength= (nameOffset >= 0) ? in.readInt() : 0;
+		
+		switch (kind) {
+		case ELEMENT:
+			return new ExportedRElement(parent, elementType, elementName, elementId,
+					sourceOffset, sourceLength, nameOffset, nameLength );
+		case METHOD: {
+			final int count= in.readInt() - 1;
+			ArgsDefinition args= null;
+			if (count >= 0) {
+				final ArgsBuilder builder= new ArgsBuilder();
+				for (int i= 0; i < count; i++) {
+					final String name= readString(in);
+					final int type= in.readInt();
+					final String className= readString(in);
+					builder.add(name, type, className);
+				}
+				args= builder.toDef();
+			}
+			return new ExportedRMethod(parent, elementType, elementName, elementId,
+					sourceOffset, sourceLength, nameOffset, nameLength,
+					args );
+		}
+		case CLASS: {
+			final int count= in.readInt() - 1;
+			List<String> superClassNames= null;
+			if (count >= 0) {
+				final String[] names= new String[count];
+				for (int i= 0; i < count; i++) {
+					names[i]= readString(in);
+				}
+				superClassNames= Collections.unmodifiableList(Arrays.asList(names));
+			}
+			return new ExportedRClass(parent, elementType, elementName, elementId,
+					sourceOffset, sourceLength, nameOffset, nameLength,
+					superClassNames );
+		}
+		default:
+			throw new IOException("Invalid element kind."); //$NON-NLS-1$
+		}
+	}
+	
+	private RElementName readName(final Input in) throws IOException {
+		final int count= in.readInt();
+		if (count == 0) {
+			return null;
+		}
+		final int[] types= new int[count];
+		final String[] names= new String[count];
+		final int[] idxs= new int[count];
+		for (int i= 0; i < count; i++) {
+			types[i]= in.readInt();
+			names[i]= readString(in);
+			idxs[i]= in.readInt() - 1;
+		}
+		RElementName name= null;
+		for (int i= count - 1; i >= 0; i--) {
+			name= RElementName.create(types[i], names[i], idxs[i], name);
+		}
+		return name;
+	}
+	
+}
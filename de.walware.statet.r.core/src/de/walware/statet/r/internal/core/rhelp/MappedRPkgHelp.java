@@ -0,0 +1,202 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.internal.core.rhelp;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import de.walware.ecommons.collections.ConstArrayList;
+
+import de.walware.statet.r.core.RSymbolComparator;
+import de.walware.statet.r.core.renv.IREnv;
+import de.walware.statet.r.core.rhelp.IRHelpPage;
+import de.walware.statet.r.core.rhelp.IRPkgHelp;
+
+
+/**
+ * Package help reading its data from a buffer of the help data file.
+ * 
+ * Only the name of the package is kept in the heap; the other properties are read from the
+ * buffer on demand, the help pages when they are requested the first time.
+ * 
+ * @see SaveUtil
+ */
+public final class MappedRPkgHelp implements IRPkgHelp {
+	
+	
+	/** Size of a package entry: name, title, version, built, page index, page count */
+	static final int PKG_ENTRY_SIZE= 6 * 4;
+	
+	/** Size of a page entry: name, title */
+	static final int PAGE_ENTRY_SIZE= 2 * 4;
+	
+	
+	/**
+	 * Buffer of a help data image.
+	 */
+	static final class Data {
+		
+		private final ByteBuffer buffer;
+		
+		private final int pagesOffset;
+		private final int stringsOffset;
+		
+		
+		public Data(final ByteBuffer buffer, final int pagesOffset, final int stringsOffset) {
+			this.buffer= buffer;
+			this.pagesOffset= pagesOffset;
+			this.stringsOffset= stringsOffset;
+		}
+		
+		
+		public int getInt(final int offset) {
+			return this.buffer.getInt(offset);
+		}
+		
+		/**
+		 * Reads a string from the string table.
+		 * 
+		 * @param ref the reference of the string in the string table, -1 for <code>null</code>
+		 * @return the string
+		 */
+		public String getString(final int ref) {
+			if (ref < 0) {
+				return null;
+			}
+			final ByteBuffer buffer= this.buffer;
+			int offset= this.stringsOffset + ref;
+			final int length= buffer.getInt(offset);
+			offset += 4;
+			if (length < 0) { // latin-1
+				final char[] chars= new char[-length];
+				for (int i= 0; i < chars.length; i++) {
+					chars[i]= (char) (buffer.get(offset++) & 0xff);
+				}
+				return new String(chars);
+			}
+			else {
+				final char[] chars= new char[length];
+				for (int i= 0; i < chars.length; i++) {
+					chars[i]= buffer.getChar(offset);
+					offset += 2;
+				}
+				return new String(chars);
+			}
+		}
+		
+	}
+	
+	
+	private final Data data;
+	private final int entryOffset;
+	
+	private final String name;
+	private final IREnv rEnv;
+	
+	private volatile List<IRHelpPage> helpPages;
+	
+	
+	MappedRPkgHelp(final Data data, final int entryOffset, final String name, final IREnv rEnv) {
+		this.data= data;
+		this.entryOffset= entryOffset;
+		this.name= name;
+		this.rEnv= rEnv;
+	}
+	
+	
+	@Override
+	public String getName() {
+		return this.name;
+	}
+	
+	@Override
+	public String getTitle() {
+		return this.data.getString(this.data.getInt(this.entryOffset + 4));
+	}
+	
+	@Override
+	public String getVersion() {
+		return this.data.getString(this.data.getInt(this.entryOffset + 8));
+	}
+	
+	@Override
+	public IREnv getREnv() {
+		return this.rEnv;
+	}
+	
+	@Override
+	public String getBuilt() {
+		return this.data.getString(this.data.getInt(this.entryOffset + 12));
+	}
+	
+	@Override
+	public List<IRHelpPage> getHelpPages() {
+		List<IRHelpPage> pages= this.helpPages;
+		if (pages == null) {
+			final int pageIdx= this.data.getInt(this.entryOffset + 16);
+			final int count= this.data.getInt(this.entryOffset + 20);
+			final IRHelpPage[] array= new IRHelpPage[count];
+			int offset= this.data.pagesOffset + pageIdx * PAGE_ENTRY_SIZE;
+			for (int i= 0; i < count; i++) {
+				array[i]= new RHelpPage(this,
+						this.data.getString(this.data.getInt(offset)),
+						this.data.getString(this.data.getInt(offset + 4)) );
+				offset += PAGE_ENTRY_SIZE;
+			}
+			pages= new ConstArrayList<>(array);
+			this.helpPages= pages;
+		}
+		return pages;
+	}
+	
+	@Override
+	public IRHelpPage getHelpPage(final String name) {
+		if (name != null) {
+			for (final IRHelpPage page : getHelpPages()) {
+				if (page.getName().equals(name)) {
+					return page;
+				}
+			}
+		}
+		return null;
+	}
+	
+	
+	@Override
+	public int hashCode() {
+		return this.name.hashCode();
+	}
+	
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof IRPkgHelp)) {
+			return false;
+		}
+		final IRPkgHelp other= (IRPkgHelp) obj;
+		return (this.name.equals(other.getName())
+				&& this.rEnv.equals(other.getREnv()));
+	}
+	
+	@Override
+	public int compareTo(final IRPkgHelp o) {
+		return RSymbolComparator.R_NAMES_COLLATOR.compare(this.name, o.getName());
+	}
+	
+	@Override
+	public String toString() {
+		return this.name;
+	}
+	
+}
@@ -42,6 +42,8 @@ public class REnvHelp implements IREnvHelp {
 	
 	private final IREnv fREnv;
 	
+	private final long fStamp;
+	
 	private final String fDocDir;
 	
 	private final List<IRHelpKeyword.Group> fKeywords;
@@ -58,6 +60,7 @@ public class REnvHelp implements IREnvHelp {
 	public REnvHelp(final IREnv rEnv, final String docDir,
 			final ConstList<Group> keywords, final ConstList<IRPkgHelp> packages) {
 		fREnv = rEnv;
+		fStamp = System.currentTimeMillis();
 		fDocDir = docDir;
 		fKeywords = keywords;
 		fPackages = packages;
@@ -84,6 +87,15 @@ public class REnvHelp implements IREnvHelp {
 		return fREnv;
 	}
 	
+	/**
+	 * Returns the time when this help was created (loaded or updated).
+	 * 
+	 * @return the time in milliseconds
+	 */
+	public long getStamp() {
+		return fStamp;
+	}
+	
 	@Override
 	public List<IRHelpKeyword.Group> getKeywords() {
 		return fKeywords;
@@ -147,6 +159,41 @@ public class REnvHelp implements IREnvHelp {
 		return reader;
 	}
 	
+	/**
+	 * Opens the index reader of this help by reopening the reader of the previous help, so the
+	 * unchanged segments of the index are shared.
+	 * 
+	 * @param previous the previous help of the R environment
+	 */
+	void reopenIndex(final REnvHelp previous) {
+		if (fIndexReader != null) {
+			return;
+		}
+		previous.lock();
+		try {
+			final REnvIndexReader previousReader = previous.fIndexReader;
+			if (previous.fDisposed || previousReader == null) {
+				return;
+			}
+			final REnvIndexReader reader = new REnvIndexReader(previousReader);
+			synchronized (this) {
+				if (fIndexReader == null && !fDisposed) {
+					fIndexReader = reader;
+					return;
+				}
+			}
+			reader.dispose();
+		}
+		catch (final Exception e) {
+			// the reader is opened on demand
+			RCorePlugin.log(new Status(IStatus.WARNING, RCore.PLUGIN_ID, -1,
+					"An error occurred when reopening the searcher for the R help index.", e));
+		}
+		finally {
+			previous.unlock();
+		}
+	}
+	
 	@Override
 	public IRHelpPage getPage(final String packageName, final String name) {
 		final IRPkgHelp pkgHelp = getPackageMap().get(packageName);
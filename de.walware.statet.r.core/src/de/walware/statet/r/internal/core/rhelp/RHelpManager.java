@@ -535,6 +535,25 @@ public class RHelpManager implements IRHelpManager, SettingsChangeNotifier.Chang
 	
 	public boolean updateHelp(final IREnvConfiguration rEnvConfig, 
 			final Map<String, String> rEnvSharedProperties, final REnvHelp help) {
+		return updateHelp(rEnvConfig, rEnvSharedProperties, help, null, null);
+	}
+	
+	/**
+	 * Updates the help of an R environment.
+	 * 
+	 * If the changed and removed packages are specified, the help is an update of the current
+	 * help and only the changes are saved.
+	 * 
+	 * @param rEnvConfig the configuration of the R environment
+	 * @param rEnvSharedProperties the properties to update
+	 * @param help the new help
+	 * @param changedPackages the new and changed packages or <code>null</code>
+	 * @param removedPackages the names of the removed packages or <code>null</code>
+	 * @return <code>true</code> if the help was updated
+	 */
+	public boolean updateHelp(final IREnvConfiguration rEnvConfig, 
+			final Map<String, String> rEnvSharedProperties, final REnvHelp help,
+			final List<IRPkgHelp> changedPackages, final List<String> removedPackages) {
 		final IREnv rEnv = help.getREnv();
 		final String rEnvId = rEnv.getId();
 		EnvItem item;
@@ -556,7 +575,15 @@ public class RHelpManager implements IRHelpManager, SettingsChangeNotifier.Chang
 				item.indexDir = rEnvConfig.getIndexDirectoryPath();
 				oldHelp = item.help;
 				item.help = help;
-				fSaveUtil.save(rEnvConfig, help);
+				if (oldHelp != null) {
+					help.reopenIndex(oldHelp);
+				}
+				if (changedPackages != null && removedPackages != null) {
+					fSaveUtil.saveUpdate(rEnvConfig, help, changedPackages, removedPackages);
+				}
+				else {
+					fSaveUtil.save(rEnvConfig, help);
+				}
 				if (rEnvConfig instanceof REnvConfiguration) {
 					((REnvConfiguration) rEnvConfig).updateSharedProperties(rEnvSharedProperties);
 				}
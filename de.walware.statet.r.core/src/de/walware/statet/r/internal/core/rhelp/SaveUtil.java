@@ -13,13 +13,24 @@ package de.walware.statet.r.internal.core.rhelp;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilenameFilter;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.runtime.IStatus;
@@ -30,6 +41,7 @@ import org.eclipse.osgi.util.NLS;
 import de.walware.ecommons.collections.ConstArrayList;
 
 import de.walware.statet.r.core.RCore;
+import de.walware.statet.r.core.renv.IREnv;
 import de.walware.statet.r.core.renv.IREnvConfiguration;
 import de.walware.statet.r.core.rhelp.IRHelpKeyword;
 import de.walware.statet.r.core.rhelp.IRHelpPage;
@@ -37,13 +49,57 @@ import de.walware.statet.r.core.rhelp.IRPkgHelp;
 import de.walware.statet.r.internal.core.RCorePlugin;
 
 
+/**
+ * Saves and loads the help data ({@link REnvHelp}) of R environments.
+ * 
+ * The data is stored as image with tables of fixed size entries and a string table:
+ * <pre>
+ * int version, int pagesOffset, int stringsOffset
+ * int docDir
+ * int keywordGroupCount, keyword groups (recursive: int label, int description, int count, ...)
+ * int removedCount, int[removedCount] removed package names
+ * int pkgCount, pkg entries (see {@link MappedRPkgHelp#PKG_ENTRY_SIZE})
+ * page entries (see {@link MappedRPkgHelp#PAGE_ENTRY_SIZE}) at pagesOffset
+ * strings (int length, chars; negative length for latin-1) at stringsOffset
+ * </pre>
+ * Strings are referenced by their offset in the string table.
+ * 
+ * The data file is memory-mapped when loading the help, the packages are created as
+ * {@link MappedRPkgHelp} reading their properties and pages on demand. Updates are appended as
+ * images with the changed and removed packages to a log file.
+ * 
+ * Each complete save creates a new data file, so a file is never replaced while it is mapped.
+ * Older files are deleted if possible.
+ */
 class SaveUtil {
 	
 	
-	private static final int VERSION= 7;
+	private static final int VERSION = 8;
 	
+	private static final String RHELP_FILE_PREFIX = "rhelp-"; //$NON-NLS-1$
+	private static final String RHELP_DATA_SUFFIX = ".dat"; //$NON-NLS-1$
+	
+	/**
+	 * Log with the updates of the help since the complete save, records:
+	 * <code>int length, byte[length] image</code>
+	 */
+	private static final String RHELP_LOG_SUFFIX = ".log"; //$NON-NLS-1$
+	
+	/** Old format */
 	private static final String RHELP_SER_FILE = "rhelp.ser"; //$NON-NLS-1$
 	
+	/** Max size of the log relative to the size of the complete data */
+	private static final int MAX_LOG_RATIO = 4;
+	
+	private static final FilenameFilter RHELP_FILE_FILTER = new FilenameFilter() {
+		@Override
+		public boolean accept(final File dir, final String name) {
+			return (name.startsWith(RHELP_FILE_PREFIX)
+					&& (name.endsWith(RHELP_DATA_SUFFIX) || name.endsWith(RHELP_LOG_SUFFIX)) );
+		}
+	};
+	
+	
 	/** Base (shared) */
 	public static File getIndexDirectory(final IREnvConfiguration rEnvConfig) {
 		try {
@@ -55,12 +111,223 @@ class SaveUtil {
 		}
 	}
 	
+	/**
+	 * Returns the current data file.
+	 * 
+	 * @return the file or <code>null</code> if missing
+	 */
+	private static File getDataFile(final File directory) {
+		final String[] names = directory.list(RHELP_FILE_FILTER);
+		String current = null;
+		if (names != null) {
+			for (final String name : names) {
+				if (name.endsWith(RHELP_DATA_SUFFIX)
+						&& (current == null || name.compareTo(current) > 0) ) {
+					current = name;
+				}
+			}
+		}
+		return (current != null) ? new File(directory, current) : null;
+	}
+	
+	private static File getLogFile(final File dataFile) {
+		final String name = dataFile.getName();
+		return new File(dataFile.getParentFile(),
+				name.substring(0, name.length() - RHELP_DATA_SUFFIX.length()) + RHELP_LOG_SUFFIX );
+	}
+	
+	
+	/**
+	 * Writer of a data image.
+	 */
+	private static class ImageWriter {
+		
+		private final ByteArrayOutputStream tablesBytes = new ByteArrayOutputStream(0x10000);
+		private final DataOutputStream tables = new DataOutputStream(this.tablesBytes);
+		
+		private final ByteArrayOutputStream pagesBytes = new ByteArrayOutputStream(0x10000);
+		private final DataOutputStream pages = new DataOutputStream(this.pagesBytes);
+		private int pageCount;
+		
+		private final ByteArrayOutputStream stringsBytes = new ByteArrayOutputStream(0x40000);
+		private final DataOutputStream strings = new DataOutputStream(this.stringsBytes);
+		private final Map<String, Integer> stringRefs = new HashMap<String, Integer>();
+		
+		
+		public ImageWriter() {
+		}
+		
+		
+		private int addString(final String s) throws IOException {
+			if (s == null) {
+				return -1;
+			}
+			final Integer existing = this.stringRefs.get(s);
+			if (existing != null) {
+				return existing.intValue();
+			}
+			final int ref = this.strings.size();
+			final int length = s.length();
+			LATIN1: {
+				for (int i = 0; i < length; i++) {
+					if ((s.charAt(i) & 0xffffff00) != 0) {
+						break LATIN1;
+					}
+				}
+				this.strings.writeInt(-length);
+				this.strings.writeBytes(s);
+				this.stringRefs.put(s, ref);
+				return ref;
+			}
+			this.strings.writeInt(length);
+			this.strings.writeChars(s);
+			this.stringRefs.put(s, ref);
+			return ref;
+		}
+		
+		public void writeHeader(final REnvHelp help) throws IOException {
+			this.tables.writeInt(addString(help.getDocDir()));
+			final List<IRHelpKeyword.Group> keywordGroups = help.getKeywords();
+			this.tables.writeInt(keywordGroups.size());
+			for (int i = 0; i < keywordGroups.size(); i++) {
+				final IRHelpKeyword.Group group = keywordGroups.get(i);
+				this.tables.writeInt(addString(group.getLabel()));
+				this.tables.writeInt(addString(group.getDescription()));
+				writeKeywords(group.getNestedKeywords());
+			}
+		}
+		
+		private void writeKeywords(final List<IRHelpKeyword> keywords) throws IOException {
+			this.tables.writeInt(keywords.size());
+			for (int i = 0; i < keywords.size(); i++) {
+				final IRHelpKeyword keyword = keywords.get(i);
+				this.tables.writeInt(addString(keyword.getKeyword()));
+				this.tables.writeInt(addString(keyword.getDescription()));
+				writeKeywords(keyword.getNestedKeywords());
+			}
+		}
+		
+		public void writeRemoved(final List<String> names) throws IOException {
+			this.tables.writeInt(names.size());
+			for (int i = 0; i < names.size(); i++) {
+				this.tables.writeInt(addString(names.get(i)));
+			}
+		}
+		
+		public void writePackages(final List<IRPkgHelp> packages) throws IOException {
+			this.tables.writeInt(packages.size());
+			for (int i = 0; i < packages.size(); i++) {
+				final IRPkgHelp pkgHelp = packages.get(i);
+				final List<IRHelpPage> helpPages = pkgHelp.getHelpPages();
+				this.tables.writeInt(addString(pkgHelp.getName()));
+				this.tables.writeInt(addString(pkgHelp.getTitle()));
+				this.tables.writeInt(addString(pkgHelp.getVersion()));
+				this.tables.writeInt(addString(pkgHelp.getBuilt()));
+				this.tables.writeInt(this.pageCount);
+				this.tables.writeInt(helpPages.size());
+				for (int j = 0; j < helpPages.size(); j++) {
+					final IRHelpPage page = helpPages.get(j);
+					this.pages.writeInt(addString(page.getName()));
+					this.pages.writeInt(addString(page.getTitle()));
+				}
+				this.pageCount += helpPages.size();
+			}
+		}
+		
+		public int getSize() {
+			return 12 + this.tables.size() + this.pages.size() + this.strings.size();
+		}
+		
+		public void writeTo(final DataOutputStream out) throws IOException {
+			final int pagesOffset = 12 + this.tables.size();
+			out.writeInt(VERSION);
+			out.writeInt(pagesOffset);
+			out.writeInt(pagesOffset + this.pages.size());
+			this.tablesBytes.writeTo(out);
+			this.pagesBytes.writeTo(out);
+			this.stringsBytes.writeTo(out);
+		}
+		
+	}
+	
+	/**
+	 * Reads a data image.
+	 */
+	private static class ImageReader {
+		
+		private final MappedRPkgHelp.Data data;
+		private int offset;
+		
+		String docDir;
+		ConstArrayList<IRHelpKeyword.Group> keywordGroups;
+		
+		
+		public ImageReader(final ByteBuffer buffer) throws IOException {
+			final int version = buffer.getInt(0);
+			if (version != VERSION) {
+				throw new UnsupportedClassVersionError("Readed: " + version);
+			}
+			this.data = new MappedRPkgHelp.Data(buffer, buffer.getInt(4), buffer.getInt(8));
+			this.offset = 12;
+		}
+		
+		
+		private int readInt() {
+			final int value = this.data.getInt(this.offset);
+			this.offset += 4;
+			return value;
+		}
+		
+		private String readString() {
+			return this.data.getString(readInt());
+		}
+		
+		public void readHeader() {
+			this.docDir = readString();
+			final int count = readInt();
+			final IRHelpKeyword.Group[] groups = new IRHelpKeyword.Group[count];
+			for (int i = 0; i < count; i++) {
+				final String label = readString();
+				final String description = readString();
+				groups[i] = new RHelpKeywordGroup(label, description, readKeywords());
+			}
+			this.keywordGroups = new ConstArrayList<>(groups);
+		}
+		
+		private List<IRHelpKeyword> readKeywords() {
+			final int count = readInt();
+			final IRHelpKeyword[] keywords = new IRHelpKeyword[count];
+			for (int i = 0; i < count; i++) {
+				final String keyword = readString();
+				final String description = readString();
+				keywords[i] = new RHelpKeyword(keyword, description, readKeywords());
+			}
+			return new ConstArrayList<>(keywords);
+		}
+		
+		public void readRemoved(final Map<String, IRPkgHelp> packages) {
+			final int count = readInt();
+			for (int i = 0; i < count; i++) {
+				packages.remove(readString());
+			}
+		}
+		
+		public void readPackages(final IREnv rEnv, final Map<String, IRPkgHelp> packages) {
+			final int count = readInt();
+			for (int i = 0; i < count; i++) {
+				final String name = readString();
+				packages.put(name, new MappedRPkgHelp(this.data, this.offset - 4, name, rEnv));
+				this.offset += MappedRPkgHelp.PKG_ENTRY_SIZE - 4;
+			}
+		}
+		
+	}
+	
 	
 	public SaveUtil() {
 	}
 	
 	public void save(final IREnvConfiguration rEnvConfig, final REnvHelp help) {
-		FIO fio = null;
 		try {
 			final File directory = getIndexDirectory(rEnvConfig);
 			if (directory == null) {
@@ -68,26 +335,49 @@ class SaveUtil {
 						rEnvConfig.getIndexDirectoryPath() ));
 			}
 			
+			final ImageWriter writer = new ImageWriter();
+			writer.writeHeader(help);
+			writer.writeRemoved(Collections.<String>emptyList());
+			writer.writePackages(help.getRPackages());
+			
 			final File newFile = new File(directory, "rhelp.new"); //$NON-NLS-1$
 			if (newFile.exists()) {
 				newFile.delete();
 			}
+			try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(newFile), 0x10000 ))) {
+				writer.writeTo(out);
+			}
 			
-			fio = FIO.get(new ObjectOutputStream(new BufferedOutputStream(
-					new FileOutputStream(newFile) )));
-			save(help, fio);
-			fio.flush();
-			fio.out.close();
-			fio.out = null;
-			fio = null;
+			final File currentFile = getDataFile(directory);
+			long stamp = System.currentTimeMillis();
+			if (currentFile != null) {
+				final String name = currentFile.getName();
+				try {
+					stamp = Math.max(stamp, Long.parseLong(name.substring(RHELP_FILE_PREFIX.length(),
+							name.length() - RHELP_DATA_SUFFIX.length() ), 16) + 1 );
+				}
+				catch (final NumberFormatException e) {}
+			}
+			final File dataFile = new File(directory,
+					RHELP_FILE_PREFIX + String.format("%016x", stamp) + RHELP_DATA_SUFFIX ); //$NON-NLS-1$
+			if (!newFile.renameTo(dataFile)) {
+				throw new IOException("Renaming failed.");
+			}
 			
+			// cleanup, files still mapped (Windows) are deleted with the next save
+			final File[] files = directory.listFiles(RHELP_FILE_FILTER);
+			if (files != null) {
+				for (final File file : files) {
+					if (!file.equals(dataFile)) {
+						file.delete();
+					}
+				}
+			}
 			final File serFile = new File(directory, RHELP_SER_FILE);
 			if (serFile.exists()) {
 				serFile.delete();
 			}
-			if (!newFile.renameTo(serFile)) {
-				throw new IOException("Renaming failed.");
-			}
 		}
 		catch (final Exception e) {
 			RCorePlugin.log(new Status(IStatus.ERROR, RCore.PLUGIN_ID, -1,
@@ -95,17 +385,50 @@ class SaveUtil {
 							rEnvConfig.getName()), e));
 			return;
 		}
-		finally {
-			if (fio != null && fio.out != null) {
-				try {
-					fio.out.close();
-				}
-				catch (final IOException ignore) {}
-				finally {
-					fio.out = null;
-				}
+	}
+	
+	/**
+	 * Saves the changes of an update of the help.
+	 * 
+	 * The changes are appended to the log of the saved help. If the log is too large compared to
+	 * the complete data, the complete help is saved instead.
+	 * 
+	 * @param rEnvConfig the configuration of the R environment
+	 * @param help the updated help
+	 * @param changedPackages the new and changed packages
+	 * @param removedPackages the names of the removed packages
+	 */
+	public void saveUpdate(final IREnvConfiguration rEnvConfig, final REnvHelp help,
+			final List<IRPkgHelp> changedPackages, final List<String> removedPackages) {
+		final File directory = getIndexDirectory(rEnvConfig);
+		final File dataFile = (directory != null) ? getDataFile(directory) : null;
+		if (dataFile == null) {
+			save(rEnvConfig, help);
+			return;
+		}
+		final File logFile = getLogFile(dataFile);
+		if (logFile.length() > dataFile.length() / MAX_LOG_RATIO) {
+			save(rEnvConfig, help);
+			return;
+		}
+		try {
+			final ImageWriter writer = new ImageWriter();
+			writer.writeHeader(help);
+			writer.writeRemoved(removedPackages);
+			writer.writePackages(changedPackages);
+			
+			try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(logFile, true), 0x10000 ))) {
+				out.writeInt(writer.getSize());
+				writer.writeTo(out);
 			}
 		}
+		catch (final Exception e) {
+			RCorePlugin.log(new Status(IStatus.WARNING, RCore.PLUGIN_ID, -1,
+					NLS.bind("An error occurred when saving the update of R help data for ''{0}''.",
+							rEnvConfig.getName()), e));
+			save(rEnvConfig, help);
+		}
 	}
 	
 	public boolean hasIndex(final IREnvConfiguration rEnvConfig) {
@@ -114,11 +437,10 @@ class SaveUtil {
 		}
 		final File directory = getIndexDirectory(rEnvConfig);
 		return (directory != null
-				&& new File(directory, RHELP_SER_FILE).exists() );
+				&& getDataFile(directory) != null );
 	}
 	
 	public REnvHelp load(final IREnvConfiguration rEnvConfig) {
-		FIO fio = null;
 		try {
 			final File directory = getIndexDirectory(rEnvConfig);
 			if (directory == null) {
@@ -126,18 +448,48 @@ class SaveUtil {
 						rEnvConfig.getIndexDirectoryPath() ));
 			}
 			
-			final File serFile = new File(directory, RHELP_SER_FILE);
-			if (!serFile.exists()) {
+			final File dataFile = getDataFile(directory);
+			if (dataFile == null) {
 				return null;
 			}
 			
-			fio = FIO.get(new ObjectInputStream(new BufferedInputStream(
-					new FileInputStream(serFile) )));
-			final REnvHelp help = load(rEnvConfig, fio);
-			fio.in.close();
-			fio.in = null;
-			fio = null;
-			return help;
+			final IREnv rEnv = rEnvConfig.getReference();
+			final Map<String, IRPkgHelp> packages = new LinkedHashMap<>();
+			ImageReader reader;
+			try (final RandomAccessFile file = new RandomAccessFile(dataFile, "r")) { //$NON-NLS-1$
+				final FileChannel channel = file.getChannel();
+				reader = new ImageReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			}
+			reader.readHeader();
+			reader.readRemoved(packages);
+			reader.readPackages(rEnv, packages);
+			
+			final File logFile = getLogFile(dataFile);
+			if (logFile.exists()) {
+				try (final DataInputStream in = new DataInputStream(new BufferedInputStream(
+						new FileInputStream(logFile) ))) {
+					while (true) {
+						final byte[] bytes;
+						try {
+							bytes = new byte[in.readInt()];
+							in.readFully(bytes);
+						}
+						catch (final EOFException e) {
+							break; // end or incomplete record
+						}
+						reader = new ImageReader(ByteBuffer.wrap(bytes));
+						reader.readHeader();
+						reader.readRemoved(packages);
+						reader.readPackages(rEnv, packages);
+					}
+				}
+			}
+			
+			final IRPkgHelp[] pkgHelps = packages.values().toArray(new IRPkgHelp[packages.size()]);
+			Arrays.sort(pkgHelps);
+			return new REnvHelp(rEnv, reader.docDir,
+					reader.keywordGroups,
+					new ConstArrayList<>(pkgHelps) );
 		}
 		catch (final Throwable e) {
 			if (e instanceof Error && !(e instanceof UnsupportedClassVersionError)) {
@@ -147,159 +499,6 @@ class SaveUtil {
 					NLS.bind("An error occurred when loading R help data for ''{0}''.", rEnvConfig.getName()), e));
 			return null;
 		}
-		finally {
-			if (fio != null && fio.in != null) {
-				try {
-					fio.in.close();
-				}
-				catch (final IOException ignore) {}
-				finally {
-					fio.in = null;
-				}
-			}
-		}
-	}
-	
-	public void save(final REnvHelp help, final FIO fio)
-			throws IOException {
-		fio.out.writeInt(VERSION);
-		fio.writeString(help.getDocDir());
-		
-		{	final List<IRHelpKeyword.Group> keywordGroups = help.getKeywords();
-			final int count = keywordGroups.size();
-			fio.out.writeInt(count);
-			for (int i = 0; i < keywordGroups.size(); i++) {
-				saveKeywordGroup(keywordGroups.get(i), fio);
-			}
-		}
-		{	final List<IRPkgHelp> packages = help.getRPackages();
-			final int count = packages.size();
-			fio.out.writeInt(count);
-			for (int i = 0; i < packages.size(); i++) {
-				savePackage(packages.get(i), fio);
-			}
-		}
-	}
-	
-	public REnvHelp load(final IREnvConfiguration rEnvConfig, final FIO fio)
-			throws IOException {
-		final int version = fio.in.readInt();
-		if (version != VERSION) {
-			throw new UnsupportedClassVersionError("Readed: " + version);
-		}
-		final String docDir = fio.readString();
-		
-		final IRHelpKeyword.Group[] keywordGroups;
-		{	final int count = fio.in.readInt();
-			keywordGroups = new IRHelpKeyword.Group[count];
-			for (int i = 0; i < count; i++) {
-				keywordGroups[i] = loadKeywordGroup(fio);
-			}
-		}
-		IRPkgHelp[] pkgHelps;
-		{	final int count = fio.in.readInt();
-			pkgHelps = new IRPkgHelp[count];
-			for (int i = 0; i < count; i++) {
-				pkgHelps[i] = loadPackage(rEnvConfig, fio);
-			}
-		}
-		return new REnvHelp(rEnvConfig.getReference(), docDir,
-				new ConstArrayList<>(keywordGroups),
-				new ConstArrayList<>(pkgHelps) );
-	}
-	
-	private void saveKeywordGroup(final IRHelpKeyword.Group group, final FIO fio)
-			throws IOException {
-		fio.writeString(group.getLabel());
-		fio.writeString(group.getDescription());
-		final List<IRHelpKeyword> keywords = group.getNestedKeywords();
-		final int count = keywords.size();
-		fio.out.writeInt(count);
-		for (int i = 0; i < count; i++) {
-			saveKeyword(keywords.get(i), fio);
-		}
-	}
-	
-	private IRHelpKeyword.Group loadKeywordGroup(final FIO fio) throws IOException {
-		final String label = fio.readString();
-		final String description = fio.readString();
-		final int count = fio.in.readInt();
-		final IRHelpKeyword[] keywords = new IRHelpKeyword[count];
-		for (int i = 0; i < count; i++) {
-			keywords[i] = loadKeyword(fio);
-		}
-		return new RHelpKeywordGroup(label, description,
-				new ConstArrayList<>(keywords) );
-	}
-	
-	private void saveKeyword(final IRHelpKeyword keyword, final FIO fio)
-			throws IOException {
-		fio.writeString(keyword.getKeyword());
-		fio.writeString(keyword.getDescription());
-		final List<IRHelpKeyword> nestedKeywords = keyword.getNestedKeywords();
-		final int count = nestedKeywords.size();
-		fio.out.writeInt(count);
-		for (int i = 0; i < nestedKeywords.size(); i++) {
-			saveKeyword(nestedKeywords.get(i), fio);
-		}
-	}
-	
-	private IRHelpKeyword loadKeyword(final FIO fio)
-			throws IOException {
-		final String keyword = fio.readString();
-		final String description = fio.readString();
-		final int count = fio.in.readInt();
-		final IRHelpKeyword[] nestedKeywords = new IRHelpKeyword[count];
-		for (int i = 0; i < count; i++) {
-			nestedKeywords[i] = loadKeyword(fio);
-		}
-		return new RHelpKeyword(keyword, description,
-				new ConstArrayList<>(nestedKeywords) );
-	}
-	
-	private void savePackage(final IRPkgHelp pkgHelp, final FIO fio)
-			throws IOException {
-		fio.writeString(pkgHelp.getName());
-		fio.writeString(pkgHelp.getTitle());
-		fio.writeString(pkgHelp.getVersion());
-		fio.writeString(pkgHelp.getBuilt());
-		final List<IRHelpPage> pages = pkgHelp.getHelpPages();
-		final int count = pages.size();
-		fio.out.writeInt(count);
-		for (int i = 0; i < count; i++) {
-			savePage(pages.get(i), fio);
-		}
-	}
-	
-	private IRPkgHelp loadPackage(final IREnvConfiguration rEnvConfig, final FIO fio)
-			throws IOException {
-		final String name= fio.readString();
-		final String title= fio.readString();
-		final String version= fio.readString();
-		final String built= fio.readString();
-		
-		final int count= fio.in.readInt();
-		final IRHelpPage[] pages= new IRHelpPage[count];
-		final RPkgHelp pkg= new RPkgHelp(name, title, version,
-				rEnvConfig.getReference(), built,
-				new ConstArrayList<>(pages) );
-		for (int i = 0; i < count; i++) {
-			pages[i] = loadPage(pkg, fio);
-		}
-		return pkg;
-	}
-	
-	private void savePage(final IRHelpPage page, final FIO fio)
-			throws IOException {
-		fio.writeString(page.getName());
-		fio.writeString(page.getTitle());
-	}
-	
-	private IRHelpPage loadPage(final IRPkgHelp pkg, final FIO fio)
-			throws IOException {
-		final String name = fio.readString();
-		final String title = fio.readString();
-		return new RHelpPage(pkg, name, title);
 	}
 	
 }
@@ -11,12 +11,20 @@
 
 package de.walware.statet.r.internal.core.rhelp.index;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.collections.primitives.IntList;
 import org.apache.lucene.document.Document;
@@ -38,7 +46,9 @@ import org.apache.lucene.search.highlight.Encoder;
 import org.apache.lucene.search.vectorhighlight.FastVectorHighlighter;
 import org.apache.lucene.search.vectorhighlight.FieldQuery;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.store.SimpleFSDirectory;
+import org.apache.lucene.util.Constants;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.util.NLS;
@@ -60,9 +70,75 @@ import de.walware.statet.r.internal.core.rhelp.RHelpSearchMatch;
 import de.walware.statet.r.internal.core.rhelp.RHelpTopicEntry;
 
 
+/**
+ * Reader of the help index of an R environment.
+ * 
+ * The reader and its searcher are shared by all threads accessing the help; Lucene readers and
+ * searchers are thread-safe, so parallel requests are not serialized. The index is mapped into
+ * memory ({@link MMapDirectory}) if supported by the JRE.
+ * 
+ * Opening index files by a NIO channel fails and closes the channel if the thread is interrupted
+ * (as done e.g. by the information hover manager), therefore all files are opened in threads of
+ * a separate executor the caller waits for uninterruptibly. Reads of the mapped files after
+ * opening are not affected by interrupts.
+ */
 public class REnvIndexReader implements IREnvIndex {
 	
 	
+	private static final ExecutorService OPEN_EXECUTOR= Executors.newCachedThreadPool(
+			new ThreadFactory() {
+				private final AtomicInteger num= new AtomicInteger();
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread thread= new Thread(r, "R Help Index Reader-" + //$NON-NLS-1$
+							this.num.incrementAndGet() );
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+	
+	/**
+	 * Runs the task in a thread of the executor and waits for its completion, ignoring
+	 * interrupts of the current thread (the interrupt status is restored before return).
+	 */
+	private static <T> T runUninterruptibly(final Callable<T> task) throws Exception {
+		final Future<T> future= OPEN_EXECUTOR.submit(task);
+		boolean interrupted= false;
+		try {
+			while (true) {
+				try {
+					return future.get();
+				}
+				catch (final InterruptedException e) {
+					interrupted= true;
+				}
+				catch (final ExecutionException e) {
+					final Throwable cause= e.getCause();
+					if (cause instanceof Exception) {
+						throw (Exception) cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw e;
+				}
+			}
+		}
+		finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	private static FSDirectory openDirectory(final File file) throws IOException {
+		if (Constants.JRE_IS_64BIT && MMapDirectory.UNMAP_SUPPORTED) {
+			return new MMapDirectory(file, null);
+		}
+		return new SimpleFSDirectory(file, null);
+	}
+	
+	
 	private static final Set<String> LOAD_NAME_SELECTOR= new ConstArrayList<>(
 			PAGE_FIELD_NAME );
 	
@@ -105,10 +181,37 @@ public class REnvIndexReader implements IREnvIndex {
 	
 	
 	public REnvIndexReader(final IREnvConfiguration rEnvConfig) throws Exception {
-//		NIOFSDirectory doesn't like Thread#interrupt() used by the information hover manager
-//		final FSDirectory directory= FSDirectory.open(SaveUtil.getIndexDirectory(rEnvConfig));
-		final FSDirectory directory= new SimpleFSDirectory(REnvIndexWriter.getIndexDirectory(rEnvConfig), null);
-		this.indexReader= DirectoryReader.open(directory);
+		final File file= REnvIndexWriter.getIndexDirectory(rEnvConfig);
+		this.indexReader= runUninterruptibly(new Callable<DirectoryReader>() {
+			@Override
+			public DirectoryReader call() throws Exception {
+				return DirectoryReader.open(openDirectory(file));
+			}
+		});
+		this.indexSearcher= new IndexSearcher(this.indexReader);
+		this.indexSearcher.setSimilarity(SIMILARITY);
+	}
+	
+	/**
+	 * Creates a reader for the current state of the index, sharing the unchanged segments with
+	 * the specified reader.
+	 * 
+	 * @param previous a reader of the same index
+	 */
+	public REnvIndexReader(final REnvIndexReader previous) throws Exception {
+		previous.check();
+		final DirectoryReader previousReader= (DirectoryReader) previous.indexReader;
+		DirectoryReader reader= runUninterruptibly(new Callable<DirectoryReader>() {
+			@Override
+			public DirectoryReader call() throws Exception {
+				return DirectoryReader.openIfChanged(previousReader);
+			}
+		});
+		if (reader == null) {
+			previousReader.incRef();
+			reader= previousReader;
+		}
+		this.indexReader= reader;
 		this.indexSearcher= new IndexSearcher(this.indexReader);
 		this.indexSearcher.setSimilarity(SIMILARITY);
 	}
@@ -123,7 +226,7 @@ public class REnvIndexReader implements IREnvIndex {
 	public void dispose() {
 		if (this.indexSearcher != null) {
 			try {
-				this.indexReader.close();
+				this.indexReader.decRef();
 			}
 			catch (final IOException e) {
 				RCorePlugin.log(new Status(IStatus.ERROR, RCore.PLUGIN_ID, -1,
@@ -21,6 +21,12 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
@@ -72,6 +78,27 @@ public class REnvIndexWriter implements IREnvIndex {
 	
 	public static final boolean DEBUG= Boolean.parseBoolean(System.getProperty("de.walware.statet.r.rhelp.debug") ); //$NON-NLS-1$
 	
+	/**
+	 * Number of threads creating the Lucene documents of the help pages, a value &lt;= 1 creates
+	 * the documents in the thread adding the items.
+	 */
+	public static final String THREADS_PROPERTY= "de.walware.statet.r.rhelp.index.threads"; //$NON-NLS-1$
+	
+	/** Max number of items per thread waiting for processing */
+	private static final int QUEUE_FACTOR= 8;
+	
+	
+	private static int readThreadCount() {
+		final String value= System.getProperty(THREADS_PROPERTY);
+		if (value != null && !value.isEmpty()) {
+			try {
+				return Integer.parseInt(value);
+			}
+			catch (final NumberFormatException e) {}
+		}
+		return Math.min(Runtime.getRuntime().availableProcessors() - 1, 4);
+	}
+	
 	
 	public static class AbortIndexException extends Exception {
 		
@@ -172,6 +199,24 @@ public class REnvIndexWriter implements IREnvIndex {
 	}
 	
 	
+	/**
+	 * Temp objects to convert HTML to text, one per thread.
+	 */
+	private static class TxtBuilder {
+		
+		final StringBuilder sb= new StringBuilder(65536);
+		final HtmlParseInput htmlInput= new HtmlParseInput();
+		
+	}
+	
+	private static final ThreadLocal<TxtBuilder> TXT_BUILDER= new ThreadLocal<TxtBuilder>() {
+		@Override
+		protected TxtBuilder initialValue() {
+			return new TxtBuilder();
+		}
+	};
+	
+	
 	public static final Collection<String> IGNORE_PKG_NAMES;
 	static {
 		IGNORE_PKG_NAMES= new ArrayList<>();
@@ -211,9 +256,14 @@ public class REnvIndexWriter implements IREnvIndex {
 	
 	private boolean reset;
 	
-	private final StringBuilder tempBuilder= new StringBuilder(65536);
-	private final HtmlParseInput tempHtmlInput= new HtmlParseInput();
-//	private char[] fTempBuffer= new char[512];
+	/** If the batch updates the index and help of the previous batch */
+	private boolean incremental;
+	private List<IRPkgHelp> changedPackages;
+	
+	private final int threadCount;
+	private ExecutorService documentExecutor;
+	private Semaphore documentPermits;
+	private volatile Throwable documentException;
 	
 	private MultiStatus status;
 	
@@ -221,6 +271,7 @@ public class REnvIndexWriter implements IREnvIndex {
 	public REnvIndexWriter(final IREnvConfiguration rEnvConfig) {
 		this.rEnvConfig= rEnvConfig;
 		this.indexDirectory= getIndexDirectory(rEnvConfig);
+		this.threadCount= readThreadCount();
 	}
 	
 	
@@ -274,6 +325,7 @@ public class REnvIndexWriter implements IREnvIndex {
 						
 						config.setOpenMode(OpenMode.CREATE_OR_APPEND);
 						this.luceneWriter= new IndexWriter(this.luceneDirectory, config);
+						this.incremental= (oldHelp != null);
 					}
 					catch (final IOException e) {
 						assert (this.luceneWriter == null);
@@ -287,6 +339,7 @@ public class REnvIndexWriter implements IREnvIndex {
 				}
 				if (this.luceneWriter == null) {
 					this.reset= true;
+					this.incremental= false;
 					this.existingPackages= new HashMap<>(0);
 					
 					config.setOpenMode(OpenMode.CREATE);
@@ -296,6 +349,24 @@ public class REnvIndexWriter implements IREnvIndex {
 			
 			this.packages= new LinkedHashMap<>();
 			this.keywordGroups= new LinkedHashMap<>();
+			this.changedPackages= new ArrayList<>();
+			
+			if (this.threadCount > 1) {
+				this.documentException= null;
+				this.documentPermits= new Semaphore(this.threadCount * QUEUE_FACTOR);
+				this.documentExecutor= Executors.newFixedThreadPool(this.threadCount,
+						new ThreadFactory() {
+							private final AtomicInteger num= new AtomicInteger();
+							@Override
+							public Thread newThread(final Runnable r) {
+								final Thread thread= new Thread(r, "R Help Indexer " + //$NON-NLS-1$
+										REnvIndexWriter.this.rEnvConfig.getName() + '-' + this.num.incrementAndGet());
+								thread.setDaemon(true);
+								thread.setPriority(Thread.MIN_PRIORITY);
+								return thread;
+							}
+						});
+			}
 		}
 		catch (final IOException e) {
 			throw new AbortIndexException(e);
@@ -386,6 +457,7 @@ public class REnvIndexWriter implements IREnvIndex {
 		if (this.currentPackage != null) {
 			throw new IllegalArgumentException();
 		}
+		checkDocumentException();
 		try {
 			this.status.add(new Status(IStatus.INFO, RCore.PLUGIN_ID, "Beginning package: '" + name + "'.")); //$NON-NLS-1$ //$NON-NLS-2$
 			
@@ -396,6 +468,7 @@ public class REnvIndexWriter implements IREnvIndex {
 				this.existingPackages.remove(name);
 				this.packages.put(name, this.currentPackage);
 			}
+			this.changedPackages.add(this.currentPackage);
 			this.luceneWriter.deleteDocuments(new Term(PACKAGE_FIELD_NAME, name));
 			addToLucene(packageDesription);
 		}
@@ -411,9 +484,15 @@ public class REnvIndexWriter implements IREnvIndex {
 		if (this.currentPackage == null || !this.currentPackage.getName().equals(item.getPkg())) {
 			throw new IllegalArgumentException();
 		}
+		checkDocumentException();
 		try {
 			this.currentPackage.addPage(new RHelpPage(this.currentPackage, item.getName(), item.getTitle()));
-			addToLucene(item);
+			if (this.documentExecutor != null) {
+				addToLuceneAsync(item);
+			}
+			else {
+				addToLucene(item);
+			}
 		}
 		catch (final IOException e) {
 			throw new AbortIndexException(e);
@@ -433,7 +512,7 @@ public class REnvIndexWriter implements IREnvIndex {
 			final long freeMemory= runtime.freeMemory();
 			final LiveIndexWriterConfig config= this.luceneWriter.getConfig();
 			final StringBuilder sb= new StringBuilder("Memory status:\n"); //$NON-NLS-1$
-			sb.append("TempBuilder-capycity: ").append(this.tempBuilder.capacity()).append('\n'); //$NON-NLS-1$
+			sb.append("TempBuilder-capycity: ").append(TXT_BUILDER.get().sb.capacity()).append('\n'); //$NON-NLS-1$
 			sb.append("Lucene-buffersize: ").append((long) (config.getRAMBufferSizeMB() * 1024.0)).append('\n'); //$NON-NLS-1$
 			sb.append("Memory-free: ").append(freeMemory / 1024L).append('\n'); //$NON-NLS-1$
 			sb.append("Memory-total: ").append(allocatedMemory / 1024L).append('\n'); //$NON-NLS-1$
@@ -460,9 +539,12 @@ public class REnvIndexWriter implements IREnvIndex {
 			RCorePlugin.log(status);
 		}
 		try {
+			finishDocuments();
+			
 			final RHelpManager rHelpManager= RCorePlugin.getDefault().getRHelpManager();
 			
-			for (final String packageName : this.existingPackages.keySet()) {
+			final List<String> removedPackages= new ArrayList<>(this.existingPackages.keySet());
+			for (final String packageName : removedPackages) {
 				this.luceneWriter.deleteDocuments(new Term(PACKAGE_FIELD_NAME, packageName));
 			}
 			this.existingPackages.clear();
@@ -473,8 +555,10 @@ public class REnvIndexWriter implements IREnvIndex {
 			}
 			
 			final ConstList<IRHelpKeyword.Group> keywords= new ConstArrayList<IRHelpKeyword.Group>(values);
-			for (final Iterator<IRPkgHelp> iter= this.packages.values().iterator(); iter.hasNext(); ) {
-				if (iter.next() == null) {
+			for (final Iterator<Map.Entry<String, IRPkgHelp>> iter= this.packages.entrySet().iterator(); iter.hasNext(); ) {
+				final Map.Entry<String, IRPkgHelp> entry= iter.next();
+				if (entry.getValue() == null) {
+					removedPackages.add(entry.getKey());
 					iter.remove();
 				}
 			}
@@ -489,7 +573,13 @@ public class REnvIndexWriter implements IREnvIndex {
 			synchronized (this.indexLock) {
 				this.luceneWriter.close(true);
 				
-				rHelpManager.updateHelp(this.rEnvConfig, this.rEnvSharedProperties, help);
+				if (this.incremental) {
+					rHelpManager.updateHelp(this.rEnvConfig, this.rEnvSharedProperties, help,
+							this.changedPackages, removedPackages );
+				}
+				else {
+					rHelpManager.updateHelp(this.rEnvConfig, this.rEnvSharedProperties, help);
+				}
 			}
 			
 			if (status != null && status.getSeverity() >= IStatus.WARNING) {
@@ -497,6 +587,10 @@ public class REnvIndexWriter implements IREnvIndex {
 			}
 			return null;
 		}
+		catch (final AbortIndexException e) {
+			cancel();
+			throw e;
+		}
 		catch (final IOException e) {
 			cancel();
 			throw new AbortIndexException(e);
@@ -527,6 +621,97 @@ public class REnvIndexWriter implements IREnvIndex {
 		this.luceneWriter.addDocument(doc);
 	}
 	
+	private void checkDocumentException() throws AbortIndexException {
+		final Throwable e= this.documentException;
+		if (e != null) {
+			throw new AbortIndexException(e);
+		}
+	}
+	
+	private void addToLuceneAsync(final RdItem item) throws CorruptIndexException, IOException {
+		try {
+			this.documentPermits.acquire();
+		}
+		catch (final InterruptedException e) {
+			// process in the current thread, the caller checks the cancel state
+			Thread.currentThread().interrupt();
+			addToLucene(item);
+			return;
+		}
+		try {
+			this.documentExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						if (REnvIndexWriter.this.documentException == null) {
+							addToLucene(item);
+						}
+					}
+					catch (final Throwable e) {
+						if (REnvIndexWriter.this.documentException == null) {
+							REnvIndexWriter.this.documentException= e;
+						}
+					}
+					finally {
+						REnvIndexWriter.this.documentPermits.release();
+					}
+				}
+			});
+		}
+		catch (final RuntimeException e) {
+			this.documentPermits.release();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Waits until all documents are added to the index.
+	 */
+	private void finishDocuments() throws AbortIndexException {
+		final ExecutorService executor= this.documentExecutor;
+		if (executor == null) {
+			return;
+		}
+		this.documentExecutor= null;
+		executor.shutdown();
+		awaitTermination(executor);
+		checkDocumentException();
+	}
+	
+	private void stopDocuments() {
+		final ExecutorService executor= this.documentExecutor;
+		if (executor == null) {
+			return;
+		}
+		this.documentExecutor= null;
+		if (this.documentException == null) {
+			this.documentException= new InterruptedException();
+		}
+		executor.shutdownNow();
+		awaitTermination(executor);
+	}
+	
+	private static void awaitTermination(final ExecutorService executor) {
+		boolean interrupted= false;
+		try {
+			while (true) {
+				try {
+					if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+						break;
+					}
+				}
+				catch (final InterruptedException e) {
+					interrupted= true;
+				}
+			}
+		}
+		finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
 	private void addToLucene(final RdItem item) throws CorruptIndexException, IOException {
 		final Document doc= new Document();
 		doc.add(new IntField(DOCTYPE_FIELD_NAME, PAGE_DOCTYPE, Store.YES));
@@ -567,8 +752,9 @@ public class REnvIndexWriter implements IREnvIndex {
 	}
 	
 	private void createSectionsTxt(final RdItem item) throws IOException {
+		final TxtBuilder builder= TXT_BUILDER.get();
 		String html= item.fHtml;
-		this.tempBuilder.setLength(0);
+		builder.sb.setLength(0);
 		{	final int idx1= html.indexOf("</h2>"); //$NON-NLS-1$
 			if (idx1 >= 0) {
 				html= html.substring(idx1+5);
@@ -591,7 +777,7 @@ public class REnvIndexWriter implements IREnvIndex {
 							idxEnd= html.indexOf("<hr/>", idxBegin); //$NON-NLS-1$
 						}
 						if (idxEnd >= 0) {
-							item.descrTxt= html2txt(html.substring(idxBegin, idxEnd));
+							item.descrTxt= html2txt(builder, html.substring(idxBegin, idxEnd));
 							html= html.substring(idxEnd);
 						}
 					}
@@ -599,14 +785,14 @@ public class REnvIndexWriter implements IREnvIndex {
 			}
 		}
 		final String[] s= new String[] { html, null };
-		{	if (extract(s, "<h3 id=\"examples\"")) { //$NON-NLS-1$
-				item.examplesTxt= html2txt(s[1]);
+		{	if (extract(builder, s, "<h3 id=\"examples\"")) { //$NON-NLS-1$
+				item.examplesTxt= html2txt(builder, s[1]);
 			}
 		}
-		item.mainTxt= html2txt(s[0]);
+		item.mainTxt= html2txt(builder, s[0]);
 	}
 	
-	private boolean extract(final String[] s, final String h3) {
+	private boolean extract(final TxtBuilder builder, final String[] s, final String h3) {
 		final String html= s[0];
 		final int idx0= html.indexOf(h3);
 		if (idx0 >= 0) {
@@ -617,10 +803,10 @@ public class REnvIndexWriter implements IREnvIndex {
 					idxBegin += 5;
 					final int idxEnd= html.indexOf("<h3", idxBegin); //$NON-NLS-1$
 					if (idxEnd >= 0) {
-						this.tempBuilder.setLength(0);
-						this.tempBuilder.append(html, 0, idx0);
-						this.tempBuilder.append(html, idxEnd, html.length());
-						s[0]= this.tempBuilder.toString();
+						builder.sb.setLength(0);
+						builder.sb.append(html, 0, idx0);
+						builder.sb.append(html, idxEnd, html.length());
+						s[0]= builder.sb.toString();
 						s[1]= html.substring(idxBegin, idxEnd);
 					}
 					else {
@@ -634,34 +820,38 @@ public class REnvIndexWriter implements IREnvIndex {
 		return false;
 	}
 	
-	private String html2txt(final String html) {
-		this.tempBuilder.setLength(0);
-		this.tempHtmlInput.reset(html);
+	private String html2txt(final TxtBuilder builder, final String html) {
+		final StringBuilder sb= builder.sb;
+		final HtmlParseInput htmlInput= builder.htmlInput;
+		sb.setLength(0);
+		htmlInput.reset(html);
 		int c;
 		boolean blank= true;
-		while ((c= this.tempHtmlInput.get(1)) >= 0) {
+		while ((c= htmlInput.get(1)) >= 0) {
 			if (c <= 0x20) {
 				if (!blank) {
 					blank= true;
-					this.tempBuilder.append(' ');
+					sb.append(' ');
 				}
 			}
 			else {
 				if (blank) {
 					blank= false;
 				}
-				this.tempBuilder.append((char) c);
+				sb.append((char) c);
 			}
-			this.tempHtmlInput.consume(1);
+			htmlInput.consume(1);
 		}
-		c= this.tempBuilder.length();
-		return (c > 0 && this.tempBuilder.charAt(c-1) == ' ') ?
-				this.tempBuilder.substring(0, c-1) : this.tempBuilder.toString();
+		c= sb.length();
+		return (c > 0 && sb.charAt(c-1) == ' ') ?
+				sb.substring(0, c-1) : sb.toString();
 	}
 	
 	public IStatus cancel() {
 		final MultiStatus status;
 		try {
+			stopDocuments();
+			
 			if (this.luceneWriter != null) {
 				try {
 					this.luceneWriter.rollback();
@@ -704,7 +894,10 @@ public class REnvIndexWriter implements IREnvIndex {
 		this.luceneWriter= null;
 		this.luceneDirectory= null;
 		this.currentPackage= null;
+		this.changedPackages= null;
 		this.indexLock= null;
+		stopDocuments();
+		this.documentPermits= null;
 	}
 	
 }
@@ -11,7 +11,6 @@
 
 package de.walware.statet.r.internal.core.sourcemodel;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
@@ -22,6 +21,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -67,18 +67,54 @@ import de.walware.statet.r.internal.core.RCorePlugin;
 import de.walware.statet.r.internal.core.RProject;
 import de.walware.statet.r.internal.core.builder.CompositeFrame;
 import de.walware.statet.r.internal.core.builder.RBuildReconciler;
+import de.walware.statet.r.internal.core.builder.RParallelBuildReconciler;
 import de.walware.statet.r.internal.core.builder.RUnitElement;
 
 
 public class RModelIndex {
 	
+	
+	private static final boolean DEBUG= Boolean.parseBoolean(System.getProperty("de.walware.statet.r.index.debug")); //$NON-NLS-1$
+	
+	/**
+	 * Max number of source units written to the DB in one transaction
+	 * (1 writes and commits each unit separately, row by row without JDBC batches and cache of
+	 * the name ids)
+	 */
+	private static final int UPDATE_BATCH_SIZE;
+	static {
+		int size= 500;
+		final String value= System.getProperty("de.walware.statet.r.index.updateBatchSize"); //$NON-NLS-1$
+		if (value != null && !value.isEmpty()) {
+			try {
+				size= Math.max(Integer.parseInt(value), 1);
+			}
+			catch (final NumberFormatException e) {}
+		}
+		UPDATE_BATCH_SIZE= size;
+	}
+	
+	/** Max number of loaded source unit elements per project frame */
+	private static final int FRAME_MAX_LOADED;
+	static {
+		int size= 1000;
+		final String value= System.getProperty("de.walware.statet.r.index.frameMaxLoaded"); //$NON-NLS-1$
+		if (value != null && !value.isEmpty()) {
+			try {
+				size= Integer.parseInt(value);
+			}
+			catch (final NumberFormatException e) {}
+		}
+		FRAME_MAX_LOADED= size;
+	}
+	
 	/** DB definitions */
 	@SuppressWarnings({ "hiding", "nls" })
 	private static final class RIndex {
 		
 		static final String NAME= "RINDEX";
 		
-		static final String VERSION= "16";
+		static final String VERSION= "17";
 		
 		static final class Properties {
 			
@@ -277,6 +313,12 @@ public class RModelIndex {
 					+ "inner join " + QNAME + " as E on (E."+COL_SU_ID + " = S."+SourceUnits.COL_ID + ") "
 					+ "where (S."+SourceUnits.COL_PROJECT_ID + " = ?)";
 			
+			static final String OP_get_ofProjectAndUnit= "select "
+						+ "E." + COL_OBJECTDATA + " "
+					+ "from " + SourceUnits.QNAME + " as S "
+					+ "inner join " + QNAME + " as E on (E."+COL_SU_ID + " = S."+SourceUnits.COL_ID + ") "
+					+ "where (S."+SourceUnits.COL_PROJECT_ID + " = ? and S."+SourceUnits.COL_NAME + " = ?)";
+			
 		}
 		
 		static final class MainNames {
@@ -315,6 +357,17 @@ public class RModelIndex {
 					+ "inner join " + NamesIdx.QNAME + " as N on (M."+COL_NAME_ID + " = N."+NamesIdx.COL_ID + ") "
 					+ "where (S."+SourceUnits.COL_PROJECT_ID + " = ? and N."+NamesIdx.COL_NAME + " = ?)";
 			
+			static final String OP_getAll_ofProject= "select "
+						+ "S."+SourceUnits.COL_NAME + ", "
+						+ "S."+SourceUnits.COL_MODEL_TYPE_ID + ", "
+						+ "N."+NamesIdx.COL_NAME + " "
+					+ "from " + SourceUnits.QNAME + " as S "
+					+ "inner join " + Exports.QNAME + " as E on (E."+Exports.COL_SU_ID + " = S."+SourceUnits.COL_ID + ") "
+					+ "left outer join " + QNAME + " as M on (M."+COL_SU_ID + " = S."+SourceUnits.COL_ID + ") "
+					+ "left outer join " + NamesIdx.QNAME + " as N on (M."+COL_NAME_ID + " = N."+NamesIdx.COL_ID + ") "
+					+ "where (S."+SourceUnits.COL_PROJECT_ID + " = ?) "
+					+ "order by S."+SourceUnits.COL_ID;
+			
 		}
 		
 	}
@@ -344,13 +397,39 @@ public class RModelIndex {
 		
 	}
 	
+	private final class ExportsLoader implements CompositeFrame.UnitLoader {
+		
+		private final Proj proj;
+		
+		public ExportsLoader(final Proj proj) {
+			this.proj= proj;
+		}
+		
+		@Override
+		public RUnitElement load(final CompositeFrame frame, final String unitId, final String modelTypeId) {
+			return loadUnitElement(this.proj, frame, unitId, modelTypeId);
+		}
+		
+		@Override
+		public void loadAll(final CompositeFrame frame, final CompositeFrame.ElementHandler handler) {
+			loadUnitElements(this.proj, frame, handler);
+		}
+		
+	}
+	
 	private static class DbTools {
 		
 		private static final String MISSING_GENERATED_RESULT= "Unexpected result (generatedKeys).";
 		
+		/** Max number of cached name ids, see {@link #getOrAddName(String)} */
+		private static final int NAME_IDS_MAX= 0x4000;
+		
 		
 		public final Connection connection;
 		
+		/** Use JDBC batches and the name id cache to write the unit data */
+		private final boolean batchUpdates= (UPDATE_BATCH_SIZE > 1);
+		
 		public DbTools(final Connection connection) throws SQLException {
 			this.connection= connection;
 			this.connection.setAutoCommit(false);
@@ -496,9 +575,115 @@ public class RModelIndex {
 			this.removeUnitMainNamesStatement.executeUpdate();
 		}
 		
+		private PreparedStatement insertExportsStatement;
+		private PreparedStatement updateExportsStatement;
+		private PreparedStatement batchRemoveUnitMainNamesStatement;
+		private PreparedStatement batchAddUnitMainNameStatement;
+		private int batchSize;
+		/**
+		 * Adds the export data and main names of the current unit to the batch, or writes them
+		 * directly if the updates are not batched.
+		 * 
+		 * requires {@link #executeGetOrAddUnit(String, int)}
+		 */
+		public void addUnitData(final byte[] objectBytes, final Collection<String> names) throws SQLException {
+			if (this.insertExportsStatement == null) {
+				this.insertExportsStatement= this.connection.prepareStatement(RIndex.Exports.OP_insert);
+				this.updateExportsStatement= this.connection.prepareStatement(RIndex.Exports.OP_update);
+				this.batchRemoveUnitMainNamesStatement= this.connection.prepareStatement(RIndex.MainNames.OP_deleteAll_ofSourceUnit);
+				this.batchAddUnitMainNameStatement= this.connection.prepareStatement(RIndex.MainNames.OP_insert);
+			}
+			if (this.currentUnitNew) {
+				this.insertExportsStatement.setLong(1, this.currentUnitId);
+				this.insertExportsStatement.setBytes(2, objectBytes);
+				addUpdate(this.insertExportsStatement);
+			}
+			else {
+				this.updateExportsStatement.setBytes(1, objectBytes);
+				this.updateExportsStatement.setLong(2, this.currentUnitId);
+				addUpdate(this.updateExportsStatement);
+				this.batchRemoveUnitMainNamesStatement.setLong(1, this.currentUnitId);
+				addUpdate(this.batchRemoveUnitMainNamesStatement);
+			}
+			this.batchAddUnitMainNameStatement.setLong(1, this.currentUnitId);
+			for (final String name : names) {
+				if (name != null) {
+					this.batchAddUnitMainNameStatement.setLong(2, getOrAddName(name));
+					addUpdate(this.batchAddUnitMainNameStatement);
+				}
+			}
+			this.batchSize++;
+		}
+		
+		private void addUpdate(final PreparedStatement statement) throws SQLException {
+			if (this.batchUpdates) {
+				statement.addBatch();
+			}
+			else {
+				statement.executeUpdate();
+			}
+		}
+		
+		public int getBatchSize() {
+			return this.batchSize;
+		}
+		
+		/**
+		 * Executes the batch created by {@link #addUnitData(byte[], Collection)} and commits the
+		 * transaction.
+		 */
+		public void executeUnitData() throws SQLException {
+			if (this.batchUpdates && this.batchSize > 0) {
+				this.insertExportsStatement.executeBatch();
+				this.updateExportsStatement.executeBatch();
+				this.batchRemoveUnitMainNamesStatement.executeBatch();
+				this.batchAddUnitMainNameStatement.executeBatch();
+				this.batchSize= 0;
+			}
+			this.connection.commit();
+		}
+		
+		/**
+		 * Rolls back the current transaction including the batch created by
+		 * {@link #addUnitData(byte[], Collection)}.
+		 */
+		public void rollback() throws SQLException {
+			if (this.insertExportsStatement != null) {
+				this.insertExportsStatement.clearBatch();
+				this.updateExportsStatement.clearBatch();
+				this.batchRemoveUnitMainNamesStatement.clearBatch();
+				this.batchAddUnitMainNameStatement.clearBatch();
+			}
+			this.batchSize= 0;
+			this.nameIds.clear();
+			this.connection.rollback();
+		}
+		
+		/**
+		 * Ends an update of the index; clears the cache of the name ids.
+		 */
+		public void endUpdate() {
+			this.nameIds.clear();
+		}
+		
 		private PreparedStatement getNameStatement;
 		private PreparedStatement addNameStatement;
+		/**
+		 * cache for NamesIdx.ID, used only if the updates are batched; valid until the end of the
+		 * update (cleared by {@link #endUpdate()} and {@link #rollback()}), limited to
+		 * {@link #NAME_IDS_MAX} names
+		 */
+		private final Map<String, Long> nameIds= new HashMap<>();
 		public long getOrAddName(final String name) throws SQLException {
+			if (this.batchUpdates) {
+				final Long id= this.nameIds.get(name);
+				if (id != null) {
+					return id.longValue();
+				}
+				if (this.nameIds.size() >= NAME_IDS_MAX) {
+					this.nameIds.clear();
+				}
+			}
 			if (this.getNameStatement == null) {
 				this.getNameStatement= this.connection.prepareStatement(RIndex.NamesIdx.OP_getID);
 				this.addNameStatement= this.connection.prepareStatement(RIndex.NamesIdx.OP_insert,
@@ -508,7 +693,11 @@ public class RModelIndex {
 				this.getNameStatement.setString(1, name);
 				final ResultSet result= this.getNameStatement.executeQuery();
 				if (result.next()) {
-					return result.getLong(1);
+					final long id= result.getLong(1);
+					if (this.batchUpdates) {
+						this.nameIds.put(name, Long.valueOf(id));
+					}
+					return id;
 				}
 			}
 			{	// add
@@ -516,7 +705,11 @@ public class RModelIndex {
 				this.addNameStatement.executeUpdate();
 				final ResultSet result= this.addNameStatement.getGeneratedKeys();
 				if (result.next()) {
-					return result.getLong(1);
+					final long id= result.getLong(1);
+					if (this.batchUpdates) {
+						this.nameIds.put(name, Long.valueOf(id));
+					}
+					return id;
 				}
 				throw new SQLException(MISSING_GENERATED_RESULT);
 			}
@@ -527,6 +720,7 @@ public class RModelIndex {
 	
 	private final ISourceUnitManager sourceUnitManager;
 	private final RBuildReconciler reconciler;
+	private final RParallelBuildReconciler parallelReconciler;
 	
 	private final ReadWriteLock lock= new ReentrantReadWriteLock();
 	
@@ -539,18 +733,21 @@ public class RModelIndex {
 	
 	private final Map<String, Proj> projects= new ConcurrentHashMap<>();
 	
-	private final Map<Proj, CompositeFrame> elementsList= new HashMap<>();
+	private final ConcurrentHashMap<Proj, CompositeFrame> elementsList= new ConcurrentHashMap<>();
 	
 	
 	public RModelIndex(final RModelManager manager) {
 		this.sourceUnitManager= LTK.getSourceUnitManager();
 		this.reconciler= new RBuildReconciler(manager);
+		this.parallelReconciler= new RParallelBuildReconciler(manager);
 		
 		initDB();
 	}
 	
 	
 	public void dispose() {
+		this.parallelReconciler.dispose();
+		
 		this.lock.writeLock().lock();
 		try {
 			this.dbInitialized= 1000;
@@ -590,16 +787,21 @@ public class RModelIndex {
 		this.reconciler.init(rProject, status);
 		final RModelIndexUpdate indexUpdate= new RModelIndexUpdate(rProject, R_MODEL_TYPES,
 				(remove == null) );
-		for (final IRWorkspaceSourceUnit sourceUnit : update) {
-			final RSuModelContainer adapter= (RSuModelContainer) sourceUnit.getAdapter(RSuModelContainer.class);
-			if (adapter != null) {
-				try {
-					final IRModelInfo model= this.reconciler.build(adapter, progress);
-					indexUpdate.update(sourceUnit, model);
-				}
-				catch (final Exception e) {
-					status.add(new Status(IStatus.ERROR, RCore.PLUGIN_ID, ICommonStatusConstants.BUILD_ERROR, 
-							NLS.bind("An error occurred when indexing ''{0}''", sourceUnit.getResource().getFullPath().toString()), e));
+		if (this.parallelReconciler.isEnabled(update.size())) {
+			this.parallelReconciler.build(this.reconciler, update, indexUpdate, status, progress);
+		}
+		else {
+			for (final IRWorkspaceSourceUnit sourceUnit : update) {
+				final RSuModelContainer adapter= (RSuModelContainer) sourceUnit.getAdapter(RSuModelContainer.class);
+				if (adapter != null) {
+					try {
+						final IRModelInfo model= this.reconciler.build(adapter, progress);
+						indexUpdate.update(sourceUnit, model);
+					}
+					catch (final Exception e) {
+						status.add(new Status(IStatus.ERROR, RCore.PLUGIN_ID, ICommonStatusConstants.BUILD_ERROR, 
+								NLS.bind("An error occurred when indexing ''{0}''", sourceUnit.getResource().getFullPath().toString()), e));
+					}
 				}
 			}
 		}
@@ -643,7 +845,7 @@ public class RModelIndex {
 				if (frame == null) {
 					if (order.isFullBuild) {
 						frame= new CompositeFrame(this.lock, order.rProject.getPackageName(),
-								order.projectName, null );
+								order.projectName, new ExportsLoader(proj), FRAME_MAX_LOADED );
 						this.elementsList.put(proj, frame);
 					}
 					else {
@@ -653,71 +855,50 @@ public class RModelIndex {
 			}
 			
 			{	DbTools tools= null;
-				PreparedStatement updateExportsStatement= null;
-				PreparedStatement insertExportsStatement= null;
-				PreparedStatement insertMainNameStatement= null;
+				final long startTime= (DEBUG) ? System.nanoTime() : 0;
+				long dataSize= 0;
 				final ByteArrayOutputStream byteOutput= new ByteArrayOutputStream();
+				final List<RModelIndexOrder.Result> batch= new ArrayList<>(UPDATE_BATCH_SIZE);
 				for (final RModelIndexOrder.Result updated : order.updated) {
 					if (tools == null) {
 						tools= getDbTools();
 						tools.prepareUnits(proj);
-						insertExportsStatement= tools.connection.prepareStatement(RIndex.Exports.OP_insert);
-						updateExportsStatement= tools.connection.prepareStatement(RIndex.Exports.OP_update);
-						insertMainNameStatement= tools.connection.prepareStatement(RIndex.MainNames.OP_insert);
 					}
 					
-					final ISourceUnit sourceUnit= updated.exportedElement.getSourceUnit();
-					final int modelId= getOrCreateModelId(sourceUnit.getModelTypeId());
-					
-					final RUnitElement previous= frame.setModelElement(updated.unitId, updated.exportedElement);
-					
+					final RUnitElement previous= frame.setModelElement(updated.unitId, updated.exportedElement,
+							updated.defaultNames );
+							
 					order.removed.remove(updated.unitId);
 					
-					tools.executeGetOrAddUnit(updated.unitId, modelId);
-					
-					byteOutput.reset();
-					updated.exportedElement.save(byteOutput);
-					final byte[] objectBytes= byteOutput.toByteArray();
-					final ByteArrayInputStream objectStream= new ByteArrayInputStream(objectBytes);
+					batch.add(updated);
 					try {
-						if (tools.currentUnitNew) {
-							insertExportsStatement.setLong(1, tools.currentUnitId);
-							insertExportsStatement.setBinaryStream(2, objectStream, objectBytes.length);
-							insertExportsStatement.execute();
-						}
-						else {
-							updateExportsStatement.setLong(2, tools.currentUnitId);
-							updateExportsStatement.setBinaryStream(1, objectStream, objectBytes.length);
-							updateExportsStatement.execute();
-							tools.clearUnitNames();
-						}
-						insertMainNameStatement.setLong(1, tools.currentUnitId);
-						for (final String name : updated.defaultNames) {
-							if (name != null) {
-								insertMainNameStatement.setLong(2, tools.getOrAddName(name));
-								insertMainNameStatement.executeUpdate();
-							}
+						dataSize+= addUnitData(tools, updated, byteOutput);
+						
+						if (batch.size() >= UPDATE_BATCH_SIZE) {
+							tools.executeUnitData();
+							batch.clear();
 						}
-						tools.connection.commit();
 					}
 					catch (final SQLException e) {
-						try {
-							if (insertExportsStatement != null) {
-								insertExportsStatement.close();
-							}
-							if (updateExportsStatement != null) {
-								updateExportsStatement.close();
-							}
-							if (insertMainNameStatement != null) {
-								insertMainNameStatement.close();
-							}
-						}
-						catch (final SQLException ignore) {}
-						
-						onDbToolsError(e);
-						tools= null;
+						tools= retryUnitData(tools, proj, batch, byteOutput, e);
 					}
 				}
+				if (!batch.isEmpty()) {
+					try {
+						tools.executeUnitData();
+						batch.clear();
+					}
+					catch (final SQLException e) {
+						tools= retryUnitData(tools, proj, batch, byteOutput, e);
+					}
+				}
+				if (DEBUG && !order.updated.isEmpty()) {
+					final long time= System.nanoTime() - startTime;
+					RCorePlugin.log(new Status(IStatus.INFO, RCore.PLUGIN_ID, NLS.bind(
+							"R model index updated for ''{0}'': {1} units in {2} ms ({3} units/sec), {4} bytes exports data.", //$NON-NLS-1$
+							new Object[] { order.projectName, order.updated.size(), time / 1000000L,
+									(long) (order.updated.size() * 1.0e9 / time), dataSize } )));
+				}
 				
 				if (!order.removed.isEmpty()) {
 					if (tools == null) {
@@ -745,18 +926,72 @@ public class RModelIndex {
 			onDbToolsError(e);
 		}
 		finally {
+			if (this.dbTools != null) {
+				this.dbTools.endUpdate();
+			}
 			this.lock.writeLock().unlock();
 		}
 	}
 	
+	private int addUnitData(final DbTools tools, final RModelIndexOrder.Result updated,
+			final ByteArrayOutputStream byteOutput) throws SQLException, IOException {
+		final ISourceUnit sourceUnit= updated.exportedElement.getSourceUnit();
+		final int modelId= getOrCreateModelId(sourceUnit.getModelTypeId());
+		
+		tools.executeGetOrAddUnit(updated.unitId, modelId);
+		
+		byteOutput.reset();
+		updated.exportedElement.save(byteOutput);
+		tools.addUnitData(byteOutput.toByteArray(), updated.defaultNames);
+		return byteOutput.size();
+	}
+	
+	/**
+	 * Writes the units of a failed batch again, each unit in its own transaction, so an error
+	 * discards only the data of the unit causing it.
+	 * 
+	 * @return the DB tools to continue or <code>null</code>
+	 */
+	private DbTools retryUnitData(DbTools tools, final Proj proj,
+			final List<RModelIndexOrder.Result> batch, final ByteArrayOutputStream byteOutput,
+			final SQLException batchException) throws SQLException, IOException {
+		logDBWarning(batchException, "(will retry the " + batch.size() + " unit(s) of the batch one by one)");
+		try {
+			tools.rollback();
+		}
+		catch (final SQLException e) {
+			onDbToolsError(e);
+			tools= null;
+		}
+		try {
+			for (final RModelIndexOrder.Result updated : batch) {
+				if (tools == null) {
+					tools= getDbTools();
+					tools.prepareUnits(proj);
+				}
+				try {
+					addUnitData(tools, updated, byteOutput);
+					tools.executeUnitData();
+				}
+				catch (final SQLException e) {
+					onDbToolsError(e);
+					tools= null;
+				}
+			}
+		}
+		finally {
+			batch.clear();
+		}
+		return tools;
+	}
+	
 	private CompositeFrame getFrame(final Proj proj, final IRProject rProject,
 			Connection connection, final IProgressMonitor monitor) throws SQLException, CoreException {
 		CompositeFrame frame= this.elementsList.get(proj);
 		if (frame == null && rProject.getProject().isOpen()) {
-			final HashMap<String, RUnitElement> elements= new HashMap<>();
-			frame= new CompositeFrame(this.lock, rProject.getPackageName(), rProject.getProject().getName(), elements);
-			this.elementsList.put(proj, frame);
-			
+			frame= new CompositeFrame(this.lock, rProject.getPackageName(), rProject.getProject().getName(),
+					new ExportsLoader(proj), FRAME_MAX_LOADED );
+					
 			if (this.dbInitialized == 1) {
 				Connection newConnection= null;
 				PreparedStatement statement= null;
@@ -764,36 +999,49 @@ public class RModelIndex {
 					if (connection == null) {
 						connection= newConnection= this.dbConnectionPool.getConnection();
 					}
-					statement= connection.prepareStatement(RIndex.Exports.OP_getAll_ofProject);
+					final long startTime= (DEBUG) ? System.nanoTime() : 0;
+					statement= connection.prepareStatement(RIndex.MainNames.OP_getAll_ofProject);
 					statement.setInt(1, proj.id);
 					final ResultSet result= statement.executeQuery();
 					
+					final Map<String, String> nameCache= new HashMap<>();
+					final List<String> names= new ArrayList<>();
+					String unitId= null;
+					String modelTypeId= null;
+					int count= 0;
 					while (result.next()) {
-						ISourceUnit su= null;
-						try {
-							final String unitId= result.getString(1);
-							final String modelTypeId= this.modelId2Type.get(result.getInt(2));
-							assert (unitId != null && modelTypeId != null);
-							su= this.sourceUnitManager.getSourceUnit(modelTypeId,
-									LTK.PERSISTENCE_CONTEXT, unitId, true, monitor );
-							if (su instanceof IRSourceUnit) {
-								final InputStream inputStream= result.getBlob(3).getBinaryStream();
-								final RUnitElement unitElement= RUnitElement.read((IRSourceUnit) su, frame, inputStream);
-								elements.put(su.getId(), unitElement);
+						final String rowUnitId= result.getString(1);
+						if (!rowUnitId.equals(unitId)) {
+							if (unitId != null && modelTypeId != null) {
+								frame.addUnit(unitId, modelTypeId, names);
+								count++;
 							}
+							unitId= rowUnitId;
+							modelTypeId= this.modelId2Type.get(result.getInt(2));
+							names.clear();
 						}
-						catch (final IOException e) {
-							onDbReadError(e);
-						}
-						catch (final ClassNotFoundException e) {
-							onDbReadError(e);
-						}
-						finally {
-							if (su != null) {
-								su.disconnect(monitor);
+						final String name= result.getString(3);
+						if (name != null) {
+							final String cached= nameCache.get(name);
+							if (cached != null) {
+								names.add(cached);
+							}
+							else {
+								nameCache.put(name, name);
+								names.add(name);
 							}
 						}
 					}
+					if (unitId != null && modelTypeId != null) {
+						frame.addUnit(unitId, modelTypeId, names);
+						count++;
+					}
+					if (DEBUG) {
+						RCorePlugin.log(new Status(IStatus.INFO, RCore.PLUGIN_ID, NLS.bind(
+								"R model index frame loaded for ''{0}'': {1} units in {2} ms.", //$NON-NLS-1$
+								new Object[] { rProject.getProject().getName(), count,
+										(System.nanoTime() - startTime) / 1000000L } )));
+					}
 				}
 				finally {
 					if (newConnection != null) {
@@ -808,11 +1056,126 @@ public class RModelIndex {
 					}
 				}
 			}
+			
+			final CompositeFrame existing= this.elementsList.putIfAbsent(proj, frame);
+			if (existing != null) {
+				frame= existing;
+			}
 		}
 		
 		return frame;
 	}
 	
+	/**
+	 * Loads the exported elements of a source unit from the DB.
+	 */
+	private RUnitElement loadUnitElement(final Proj proj, final CompositeFrame frame,
+			final String unitId, final String modelTypeId) {
+		if (proj.removed || this.dbInitialized != 1) {
+			return null;
+		}
+		ISourceUnit su= null;
+		Connection connection= null;
+		try {
+			connection= this.dbConnectionPool.getConnection();
+			final PreparedStatement statement= connection.prepareStatement(RIndex.Exports.OP_get_ofProjectAndUnit);
+			statement.setInt(1, proj.id);
+			statement.setString(2, unitId);
+			final ResultSet result= statement.executeQuery();
+			if (result.next()) {
+				su= this.sourceUnitManager.getSourceUnit(modelTypeId,
+						LTK.PERSISTENCE_CONTEXT, unitId, true, null );
+				if (su instanceof IRSourceUnit) {
+					final InputStream inputStream= result.getBlob(1).getBinaryStream();
+					return RUnitElement.read((IRSourceUnit) su, frame, inputStream);
+				}
+			}
+			return null;
+		}
+		catch (final Exception e) {
+			RCorePlugin.log(new Status(IStatus.ERROR, RCore.PLUGIN_ID, -1,
+					NLS.bind("An error occurred when loading the model of ''{0}'' from DB.", unitId),
+					e ));
+			return null;
+		}
+		finally {
+			if (su != null) {
+				su.disconnect(null);
+			}
+			if (connection != null) {
+				try {
+					connection.close();
+				} catch (final SQLException ignore) {}
+			}
+		}
+	}
+	
+	/**
+	 * Loads the exported elements of all source units of a project from the DB.
+	 */
+	private void loadUnitElements(final Proj proj, final CompositeFrame frame,
+			final CompositeFrame.ElementHandler handler) {
+		if (proj.removed || this.dbInitialized != 1) {
+			return;
+		}
+		Connection connection= null;
+		try {
+			final long startTime= (DEBUG) ? System.nanoTime() : 0;
+			connection= this.dbConnectionPool.getConnection();
+			final PreparedStatement statement= connection.prepareStatement(RIndex.Exports.OP_getAll_ofProject);
+			statement.setInt(1, proj.id);
+			final ResultSet result= statement.executeQuery();
+			
+			int count= 0;
+			while (result.next()) {
+				ISourceUnit su= null;
+				final String unitId= result.getString(1);
+				try {
+					final String modelTypeId= this.modelId2Type.get(result.getInt(2));
+					if (unitId == null || modelTypeId == null) {
+						continue;
+					}
+					su= this.sourceUnitManager.getSourceUnit(modelTypeId,
+							LTK.PERSISTENCE_CONTEXT, unitId, true, null );
+					if (su instanceof IRSourceUnit) {
+						final InputStream inputStream= result.getBlob(3).getBinaryStream();
+						final RUnitElement element= RUnitElement.read((IRSourceUnit) su, frame, inputStream);
+						count++;
+						if (!handler.handle(unitId, element)) {
+							break;
+						}
+					}
+				}
+				catch (final Exception e) {
+					RCorePlugin.log(new Status(IStatus.ERROR, RCore.PLUGIN_ID, -1,
+							NLS.bind("An error occurred when loading the model of ''{0}'' from DB.", unitId),
+							e ));
+				}
+				finally {
+					if (su != null) {
+						su.disconnect(null);
+					}
+				}
+			}
+			if (DEBUG) {
+				RCorePlugin.log(new Status(IStatus.INFO, RCore.PLUGIN_ID, NLS.bind(
+						"R model index elements loaded: {0} units in {1} ms.", //$NON-NLS-1$
+						count, (System.nanoTime() - startTime) / 1000000L )));
+			}
+		}
+		catch (final SQLException e) {
+			RCorePlugin.log(new Status(IStatus.ERROR, RCore.PLUGIN_ID, -1,
+					"An error occurred when loading the models of a project from DB.", e ));
+		}
+		finally {
+			if (connection != null) {
+				try {
+					connection.close();
+				} catch (final SQLException ignore) {}
+			}
+		}
+	}
+	
 	/**
 	 * Required write lock
 	 * @param projectName
@@ -1050,7 +1413,7 @@ public class RModelIndex {
 			try {
 				final CompositeFrame frame= this.elementsList.get(projectId);
 				if (frame != null) {
-					this.elementsList.put(projectId, new CompositeFrame(this.lock, packageName, project.getName(), frame.fModelElements));
+					this.elementsList.put(projectId, new CompositeFrame(this.lock, packageName, project.getName(), frame));
 				}
 			}
 			finally {
@@ -26,6 +26,7 @@ import de.walware.statet.r.core.model.IRLangElement;
 import de.walware.statet.r.core.model.IRMethod;
 import de.walware.statet.r.core.model.IRModelInfo;
 import de.walware.statet.r.core.model.IRSourceUnit;
+import de.walware.statet.r.core.model.RElementName;
 import de.walware.statet.r.internal.core.builder.ExportedRClass;
 import de.walware.statet.r.internal.core.builder.ExportedRElement;
 import de.walware.statet.r.internal.core.builder.ExportedRMethod;
@@ -96,6 +97,12 @@ public class RModelIndexOrder {
 			}
 		}
 		final Set<String> names= new HashSet<>();
+		for (final IRLangElement element : exports) {
+			final RElementName elementName= element.getElementName();
+			if (elementName != null && elementName.getSegmentName() != null) {
+				names.add(elementName.getSegmentName());
+			}
+		}
 		names.addAll(model.getTopFrame().getAllAccessNames());
 		final Map<String, ? extends IRFrame> frames= model.getReferencedFrames();
 		for (final IRFrame frame : frames.values()) {
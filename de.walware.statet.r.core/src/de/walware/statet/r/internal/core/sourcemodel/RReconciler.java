@@ -12,6 +12,9 @@
 package de.walware.statet.r.internal.core.sourcemodel;
 
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import com.ibm.icu.text.DecimalFormat;
 
@@ -43,13 +46,48 @@ import de.walware.statet.r.core.rsource.ast.SourceComponent;
 
 /**
  * Worker for r model manager
+ * 
+ * Different source units can be reconciled concurrently; the steps of reconciling the same source
+ * unit are serialized by a lock of the source unit (striped by {@link #getUnitLock}).
  */
 public class RReconciler {
 	
 	
-	private static final boolean LOG_TIME= false;
+	/**
+	 * Prints the duration of the reconcile steps (AST, model, problem report) to the console,
+	 * e.g. to measure the performance of the R source pipeline.
+	 */
+	private static final boolean LOG_TIME= Boolean.parseBoolean(System.getProperty("de.walware.statet.r.reconciler.logTime")); //$NON-NLS-1$
 	
-	protected static class Data {
+	/** Number of locks for source units, power of 2 */
+	private static final int UNIT_LOCK_COUNT= 32;
+	
+	private static final Object[] UNIT_LOCKS;
+	static {
+		UNIT_LOCKS= new Object[UNIT_LOCK_COUNT];
+		for (int i= 0; i < UNIT_LOCK_COUNT; i++) {
+			UNIT_LOCKS[i]= new Object();
+		}
+	}
+	
+	/**
+	 * Returns the lock for the reconcile steps of the specified source unit.
+	 * 
+	 * The locks are shared by all reconcilers (editor and build).
+	 * 
+	 * @param unit the model container of the source unit, or the source unit itself if the
+	 *     R model is embedded in a source unit of another model type
+	 */
+	protected static Object getUnitLock(final Object unit) {
+		int h= System.identityHashCode(unit);
+		h^= (h >>> 16);
+		return UNIT_LOCKS[h & (UNIT_LOCK_COUNT - 1)];
+	}
+	
+	/** Min length of the text for incremental update of the AST */
+	private static final int INCREMENTAL_MIN_LENGTH= 0x4000;
+	
+	public static class Data {
 		
 		public final RSuModelContainer adapter;
 		public final SourceContent content;
@@ -69,27 +107,82 @@ public class RReconciler {
 		
 	}
 	
+	/**
+	 * Text and AST of the last reconcile of a source unit, used for incremental update of the AST.
+	 */
+	private static final class PreviousAst {
+		
+		final String text;
+		final AstInfo ast;
+		
+		public PreviousAst(final String text, final AstInfo ast) {
+			this.text= text;
+			this.ast= ast;
+		}
+		
+	}
+	
+	/**
+	 * Region of the text to scan in an incremental update of the AST, see {@link #getScanRegion}.
+	 */
+	private static final class ScanRegion {
+		
+		/** Number of expressions of the previous AST to reuse before the region */
+		int prefixCount;
+		/** Index of the first expression of the previous AST to reuse after the region */
+		int suffixIndex;
+		/** Difference of the offsets after the region to the previous AST */
+		int shift;
+		
+		int offset;
+		int stopOffset;
+		
+	}
 	
-	private final RModelManager rManager;
-	protected boolean stop= false;
+	/**
+	 * Tools for the reconcile steps, which are not thread-safe.
+	 * 
+	 * Each instance is used by only one thread at the same time, see {@link #acquireTools()}.
+	 */
+	private static final class Tools {
+		
+		final IStringCache astStringCache;
+		final RoxygenScanner roxygenScanner;
+		final SourceAnalyzer scopeAnalyzer;
+		final RProblemReporter problemReporter;
+		
+		public Tools() {
+			this.astStringCache= new FixInterningStringCache(24);
+			this.roxygenScanner= new RoxygenScanner(this.astStringCache);
+			this.scopeAnalyzer= new SourceAnalyzer();
+			this.problemReporter= new RProblemReporter();
+		}
+		
+	}
 	
-	private final Object f1AstLock= new Object();
-	private final IStringCache f1AstStringCache;
-	private final RoxygenScanner f1RoxygenScanner;
 	
-	private final Object f2ModelLock= new Object();
-	private final SourceAnalyzer f2ScopeAnalyzer;
+	private final RModelManager rManager;
+	protected volatile boolean stop= false;
+	
+	/** Idle tools, the number is limited by the max number of concurrent reconciles */
+	private final ConcurrentLinkedQueue<Tools> tools= new ConcurrentLinkedQueue<>();
 	
-	private final Object f3ReportLock= new Object();
-	private final RProblemReporter f3ProblemReporter;
+	/** Synchronized by itself */
+	private final Map<RSuModelContainer, PreviousAst> previousAsts= new WeakHashMap<>();
 	
 	
 	public RReconciler(final RModelManager manager) {
 		this.rManager= manager;
-		this.f1AstStringCache= new FixInterningStringCache(24);
-		this.f1RoxygenScanner= new RoxygenScanner(this.f1AstStringCache);
-		this.f2ScopeAnalyzer= new SourceAnalyzer();
-		this.f3ProblemReporter= new RProblemReporter();
+	}
+	
+	
+	private Tools acquireTools() {
+		final Tools tools= this.tools.poll();
+		return (tools != null) ? tools : new Tools();
+	}
+	
+	private void releaseTools(final Tools tools) {
+		this.tools.offer(tools);
 	}
 	
 	
@@ -107,11 +200,19 @@ public class RReconciler {
 			return;
 		}
 		
-		synchronized (this.f1AstLock) {
+		final Object unitLock= getUnitLock(adapter);
+		
+		synchronized (unitLock) {
 			if (this.stop || monitor.isCanceled()) {
 				return;
 			}
-			updateAst(data, monitor);
+			final Tools tools= acquireTools();
+			try {
+				updateAst(data, tools, true, monitor);
+			}
+			finally {
+				releaseTools(tools);
+			}
 		}
 		
 		if (this.stop || monitor.isCanceled()
@@ -119,11 +220,18 @@ public class RReconciler {
 			return;
 		}
 		
-		synchronized (this.f2ModelLock) {
+		synchronized (unitLock) {
 			if (this.stop || monitor.isCanceled()) {
 				return;
 			}
-			final boolean updated= updateModel(data);
+			final boolean updated;
+			final Tools tools= acquireTools();
+			try {
+				updated= updateModel(data, tools);
+			}
+			finally {
+				releaseTools(tools);
+			}
 			
 			if (this.stop) {
 				return;
@@ -140,13 +248,24 @@ public class RReconciler {
 			}
 			
 			IProblemRequestor problemRequestor= null;
-			synchronized (this.f3ReportLock) {
+			synchronized (unitLock) {
 				if (!this.stop && !monitor.isCanceled()
 						&& data.newModel == adapter.getCurrentModel() ) {
 					problemRequestor= adapter.createProblemRequestor(data.ast.stamp);
 					if (problemRequestor != null) {
-						this.f3ProblemReporter.run(su, data.content,
-								(RAstNode) data.ast.root, problemRequestor );
+						final long startReport= System.nanoTime();
+						final Tools tools= acquireTools();
+						try {
+							tools.problemReporter.run(su, data.content,
+									(RAstNode) data.ast.root, problemRequestor );
+						}
+						finally {
+							releaseTools(tools);
+						}
+						
+						if (LOG_TIME) {
+							System.out.println("RReconciler/reportPROBL : " + DecimalFormat.getInstance().format(System.nanoTime()-startReport)); //$NON-NLS-1$
+						}
 					}
 				}
 			}
@@ -159,8 +278,14 @@ public class RReconciler {
 	public IRModelInfo reconcile(final IRSourceUnit su, final ISourceUnitModelInfo modelInfo,
 			final List<? extends RChunkElement> chunkElements, final List<? extends SourceComponent> inlineNodes,
 			final int level, final IProgressMonitor monitor) {
-		synchronized (this.f2ModelLock) {
-			return updateModel(su, modelInfo, chunkElements, inlineNodes);
+		synchronized (getUnitLock(su)) {
+			final Tools tools= acquireTools();
+			try {
+				return updateModel(su, modelInfo, chunkElements, inlineNodes, tools.scopeAnalyzer);
+			}
+			finally {
+				releaseTools(tools);
+			}
 		}
 	}
 	
@@ -179,6 +304,19 @@ public class RReconciler {
 	}
 	
 	protected final void updateAst(final Data data, final IProgressMonitor monitor) {
+		synchronized (getUnitLock(data.adapter)) {
+			final Tools tools= acquireTools();
+			try {
+				updateAst(data, tools, false, monitor);
+			}
+			finally {
+				releaseTools(tools);
+			}
+		}
+	}
+	
+	private void updateAst(final Data data, final Tools tools, final boolean incremental,
+			final IProgressMonitor monitor) {
 		data.ast= data.adapter.getCurrentAst(data.content.stamp);
 		
 		if (data.ast == null) {
@@ -188,30 +326,146 @@ public class RReconciler {
 			
 			initParseInput(data);
 			final RScanner scanner= new RScanner(data.parseInput, AstInfo.LEVEL_MODEL_DEFAULT,
-					this.f1AstStringCache );
+					tools.astStringCache );
 			scanner.setCommentLevel(100);
-			final SourceComponent sourceComponent= scanner.scanSourceRange(null,
-					data.parseOffset, data.content.text.length() );
+			SourceComponent sourceComponent= null;
+			int scanOffset= data.parseOffset;
+			int scanStopOffset= data.content.text.length();
+			int reused= 0;
+			
+			final PreviousAst previous;
+			if (incremental) {
+				synchronized (this.previousAsts) {
+					previous= this.previousAsts.remove(data.adapter);
+				}
+			}
+			else {
+				previous= null;
+			}
+			final ScanRegion region= (previous != null) ? getScanRegion(data, previous) : null;
+			if (region != null) {
+				final SourceComponent previousComponent= (SourceComponent) previous.ast.root;
+				sourceComponent= scanner.scanSourceRange(null, previousComponent,
+						region.prefixCount, region.suffixIndex, region.shift,
+						region.offset, region.stopOffset - region.offset );
+				if (sourceComponent != null) {
+					scanOffset= region.offset;
+					scanStopOffset= region.stopOffset;
+					reused= region.prefixCount + previousComponent.getChildCount() - region.suffixIndex;
+				}
+			}
+			if (sourceComponent == null) {
+				sourceComponent= scanner.scanSourceRange(null,
+						data.parseOffset, data.content.text.length() );
+			}
 			final AstInfo ast= new AstInfo(scanner.getAstLevel(), data.content.stamp, sourceComponent);
 			
 			stopAst= System.nanoTime();
 			
-			this.f1RoxygenScanner.init(data.parseInput);
-			this.f1RoxygenScanner.update(sourceComponent);
+			tools.roxygenScanner.init(data.parseInput);
+			tools.roxygenScanner.update(sourceComponent, scanOffset, scanStopOffset);
 			
 			if (LOG_TIME) {
-				System.out.println(this.f1AstStringCache.toString());
-				System.out.println("RReconciler/createAST   : " + DecimalFormat.getInstance().format(stopAst-startAst)); //$NON-NLS-1$
+				System.out.println(tools.astStringCache.toString());
+				System.out.println("RReconciler/createAST   : " + DecimalFormat.getInstance().format(stopAst-startAst) //$NON-NLS-1$
+						+ " (reused: " + reused + ")" ); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 			
 			synchronized (data.adapter) {
 				data.adapter.setAst(ast);
 			}
 			data.ast= ast;
+			
+			if (incremental && data.parseOffset == 0
+					&& data.content.text.length() >= INCREMENTAL_MIN_LENGTH ) {
+				synchronized (this.previousAsts) {
+					this.previousAsts.put(data.adapter, new PreviousAst(data.content.text, ast));
+				}
+			}
 		}
 	}
 	
+	/**
+	 * Returns the region of the text to scan again, if the top level expressions of the previous
+	 * AST before and after the changes of the text since the previous reconcile can be reused.
+	 * 
+	 * The changed region is determined by comparing the text with the previous text (the
+	 * reconciler gets no document events). The expressions ending before the first changed
+	 * character and starting after the last changed character are unaffected; the last of these
+	 * expressions before and the first after the changed region are scanned again too, because
+	 * the change can continue them (e.g. by an operator or <code>else</code>). If the bracket
+	 * balance changes or a token (e.g. a string) continues behind the region, the scan of the
+	 * region has syntax errors or does not match the previous AST and the reconciler falls back
+	 * to a scan of the complete text (see
+	 * {@link RScanner#scanSourceRange(de.walware.ecommons.ltk.ast.IAstNode, SourceComponent, int, int, int, int, int)}).
+	 * 
+	 * @return the region or <code>null</code> if no expression can be reused
+	 */
+	private static ScanRegion getScanRegion(final Data data, final PreviousAst previous) {
+		if (data.parseOffset != 0 || !(previous.ast.root instanceof SourceComponent)) {
+			return null;
+		}
+		final String text= data.content.text;
+		final String previousText= previous.text;
+		final int length= Math.min(text.length(), previousText.length());
+		int changeOffset= 0;
+		while (changeOffset < length && text.charAt(changeOffset) == previousText.charAt(changeOffset)) {
+			changeOffset++;
+		}
+		int unchangedEnd= 0;
+		while (unchangedEnd < length - changeOffset
+				&& text.charAt(text.length() - 1 - unchangedEnd)
+						== previousText.charAt(previousText.length() - 1 - unchangedEnd) ) {
+			unchangedEnd++;
+		}
+		final int previousChangeStopOffset= previousText.length() - unchangedEnd;
+		
+		final SourceComponent previousComponent= (SourceComponent) previous.ast.root;
+		final int childCount= previousComponent.getChildCount();
+		int prefixCount= 0;
+		while (prefixCount < childCount
+				&& previousComponent.getChild(prefixCount).getStopOffset() < changeOffset) {
+			prefixCount++;
+		}
+		prefixCount= Math.max(prefixCount - 1, 0);
+		int suffixIndex= prefixCount;
+		while (suffixIndex < childCount
+				&& previousComponent.getChild(suffixIndex).getOffset() < previousChangeStopOffset) {
+			suffixIndex++;
+		}
+		suffixIndex++;
+		
+		final ScanRegion region= new ScanRegion();
+		region.prefixCount= prefixCount;
+		region.shift= text.length() - previousText.length();
+		region.offset= (prefixCount > 0) ? previousComponent.getChild(prefixCount).getOffset() : 0;
+		if (suffixIndex < childCount) {
+			region.suffixIndex= suffixIndex;
+			region.stopOffset= previousComponent.getChild(suffixIndex - 1).getStopOffset() + region.shift;
+		}
+		else {
+			if (prefixCount == 0) {
+				return null;
+			}
+			region.suffixIndex= childCount;
+			region.stopOffset= text.length();
+		}
+		return region;
+	}
+	
 	protected final boolean updateModel(final Data data) {
+		synchronized (getUnitLock(data.adapter)) {
+			final Tools tools= acquireTools();
+			try {
+				return updateModel(data, tools);
+			}
+			finally {
+				releaseTools(tools);
+			}
+		}
+	}
+	
+	private boolean updateModel(final Data data, final Tools tools) {
 		// Update Model
 		data.newModel= data.adapter.getCurrentModel(data.ast.stamp);
 		if (data.newModel == null) {
@@ -219,13 +473,13 @@ public class RReconciler {
 			final long stopModel;
 			startModel= System.nanoTime();
 			
-			final IRModelInfo model= this.f2ScopeAnalyzer.createModel(data.adapter.getSourceUnit(), data.ast);
+			final IRModelInfo model= tools.scopeAnalyzer.createModel(data.adapter.getSourceUnit(), data.ast);
 			final boolean isOK= (model != null);
 			
 			stopModel= System.nanoTime();
 			
 			if (LOG_TIME) {
-				System.out.println("RReconciler/createMODEL : " + DecimalFormat.getInstance().format(stopModel-startModel)); 
+				System.out.println("RReconciler/createMODEL : " + DecimalFormat.getInstance().format(stopModel-startModel)); //$NON-NLS-1$
 			}
 			
 			if (isOK) {
@@ -242,11 +496,11 @@ public class RReconciler {
 	
 	private IRModelInfo updateModel(final IRSourceUnit su, final ISourceUnitModelInfo modelInfo,
 			final List<? extends RChunkElement> chunkElements,
-			final List<? extends SourceComponent> inlineNodes) {
+			final List<? extends SourceComponent> inlineNodes, final SourceAnalyzer scopeAnalyzer) {
 		IRModelInfo model;
 		try {
 			final AstInfo ast= modelInfo.getAst();
-			this.f2ScopeAnalyzer.beginChunkSession(su, ast);
+			scopeAnalyzer.beginChunkSession(su, ast);
 			for (final RChunkElement chunkElement : chunkElements) {
 				final SourceComponent[] rootNodes;
 				{	final Object source= chunkElement.getAdapter(SourceComponent.class);
@@ -260,14 +514,14 @@ public class RReconciler {
 						continue;
 					}
 				}
-				this.f2ScopeAnalyzer.processChunk(chunkElement, rootNodes);
+				scopeAnalyzer.processChunk(chunkElement, rootNodes);
 			}
 			for (final SourceComponent inlineNode : inlineNodes) {
-				this.f2ScopeAnalyzer.processInlineNode(inlineNode);
+				scopeAnalyzer.processInlineNode(inlineNode);
 			}
 		}
 		finally {
-			model= this.f2ScopeAnalyzer.stopChunkSession();
+			model= scopeAnalyzer.stopChunkSession();
 		}
 		return model;
 	}
@@ -54,6 +54,7 @@ import de.walware.ecommons.ts.ITool;
 import de.walware.ecommons.ts.IToolRunnable;
 import de.walware.ecommons.ts.IToolService;
 
+import de.walware.statet.nico.core.runtime.ICoalescingRunnable;
 import de.walware.statet.nico.core.runtime.Queue;
 import de.walware.statet.nico.core.runtime.ToolStatus;
 
@@ -198,7 +199,7 @@ public class RControllerBreakpointAdapter implements IRControllerTracepointAdapt
 	private final Map<IResource, List<TracepointState>> fStateUpdatesMap = new HashMap<>();
 	private final Object fStateUpdatesLock = fStateUpdatesBreakpoints;
 	
-	private final IToolRunnable fUpdateRunnable = new ISystemRunnable() {
+	private class UpdateRunnable implements ISystemRunnable, ICoalescingRunnable {
 		
 		private List<String> fKnownPackages = new ArrayList<>();
 		
@@ -207,6 +208,11 @@ public class RControllerBreakpointAdapter implements IRControllerTracepointAdapt
 			return "r/dbg/breakpoint.update";
 		}
 		
+		@Override
+		public Object getCoalescingKey() {
+			return fController;
+		}
+		
 		@Override
 		public String getLabel() {
 			return "Update Breakpoints";
@@ -333,7 +339,9 @@ public class RControllerBreakpointAdapter implements IRControllerTracepointAdapt
 			}
 		}
 		
-	};
+	}
+	
+	private final IToolRunnable fUpdateRunnable = new UpdateRunnable();
 	private boolean fUpdateRunnableScheduled;
 	
 	
@@ -36,6 +36,8 @@ import de.walware.ecommons.ts.IToolRunnable;
 import de.walware.ecommons.ts.IToolService;
 import de.walware.ecommons.ui.util.UIAccess;
 
+import de.walware.statet.nico.core.runtime.ICoalescingRunnable;
+
 import de.walware.rj.data.RCharacterStore;
 import de.walware.rj.data.RDataUtil;
 import de.walware.rj.data.RFactorStore;
@@ -55,6 +57,7 @@ import de.walware.rj.services.utils.dataaccess.LazyRStore.Fragment;
 
 import de.walware.statet.r.core.model.RElementName;
 import de.walware.statet.r.internal.ui.intable.InfoString;
+import de.walware.statet.r.nico.AbstractRController;
 import de.walware.statet.r.nico.ICombinedRDataAdapter;
 import de.walware.statet.r.ui.RUI;
 import de.walware.statet.r.ui.dataeditor.IRDataTableInput;
@@ -360,13 +363,18 @@ public abstract class AbstractRDataProvider<T extends RObject> implements IDataP
 		
 	};
 	
-	private final IToolRunnable fUpdateRunnable = new ISystemRunnable() {
+	private class UpdateRunnable implements ISystemRunnable, ICoalescingRunnable {
 		
 		@Override
 		public String getTypeId() {
 			return "r/dataeditor/load"; //$NON-NLS-1$
 		}
 		
+		@Override
+		public Object getCoalescingKey() {
+			return AbstractRDataProvider.this;
+		}
+		
 		@Override
 		public String getLabel() {
 			return "Load Data (" + fInput.getLastName() + ")";
@@ -401,7 +409,9 @@ public abstract class AbstractRDataProvider<T extends RObject> implements IDataP
 			runUpdate((IRToolService) service, monitor);
 		}
 		
-	};
+	}
+	
+	private final IToolRunnable fUpdateRunnable = new UpdateRunnable();
 	
 	private final IToolRunnable fCleanRunnable = new ISystemRunnable() {
 		
@@ -873,17 +883,107 @@ public abstract class AbstractRDataProvider<T extends RObject> implements IDataP
 			IProgressMonitor monitor) throws CoreException, UnexpectedRDataException;
 	
 	
+	/**
+	 * Returns the R expressions loading the information required to create the column for the
+	 * specified vector.
+	 * 
+	 * The results are passed to {@link #createColumn(RStore, String, RElementName, long, String, RObject[])}.
+	 * The expressions must not have side effects (see
+	 * {@link AbstractRController#evalDataBatch(String[], IProgressMonitor)}).
+	 */
+	private static String[] getColumnInfoExpressions(final RStore store, final String expression) {
+		final String classExpression = "class(" + expression + ')'; //$NON-NLS-1$
+		switch (store.getStoreType()) {
+		case RStore.NUMERIC:
+		case RStore.INTEGER:
+			return new String[] { classExpression,
+					"if (inherits(" + expression + ", \"Date\")) NULL " + //$NON-NLS-1$ //$NON-NLS-2$
+					"else if (inherits(" + expression + ", \"POSIXct\")) base::attr(" + expression + ", \"tzone\") " + //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					"else rj:::.getFormatInfo(x = " + expression + ')' }; //$NON-NLS-1$
+		case RStore.CHARACTER:
+		case RStore.COMPLEX:
+			return new String[] { classExpression,
+					"rj:::.getFormatInfo(x = " + expression + ')' }; //$NON-NLS-1$
+		case RStore.FACTOR:
+			return new String[] { classExpression,
+					"levels(" + expression + ')' }; //$NON-NLS-1$
+		default:
+			return new String[] { classExpression };
+		}
+	}
+	
+	/**
+	 * Evaluates the expressions, if possible in a single exchange with R.
+	 */
+	private static RObject[] evalData(final String[] expressions,
+			final IRToolService r, final IProgressMonitor monitor) throws CoreException {
+		if (r instanceof AbstractRController) {
+			return ((AbstractRController) r).evalDataBatch(expressions, monitor);
+		}
+		final RObject[] results = new RObject[expressions.length];
+		for (int i = 0; i < expressions.length; i++) {
+			results[i] = r.evalData(expressions[i], monitor);
+		}
+		return results;
+	}
+	
 	protected RDataTableColumn createColumn(final RStore store, final String expression,
 			final RElementName elementName, final long columnIndex, final String columnName,
 			final IRToolService r, final IProgressMonitor monitor) throws CoreException, UnexpectedRDataException {
+		return createColumn(store, expression, elementName, columnIndex, columnName,
+				evalData(getColumnInfoExpressions(store, expression), r, monitor) );
+	}
+	
+	/**
+	 * Creates the columns for multiple vectors, loading the required information of all columns
+	 * in a single exchange with R.
+	 * 
+	 * The arrays of the column properties are indexed by the column.
+	 * 
+	 * @return the columns
+	 */
+	protected RDataTableColumn[] createColumns(final RStore[] stores, final String[] expressions,
+			final RElementName[] elementNames, final long[] columnIndexes, final String[] columnNames,
+			final IRToolService r, final IProgressMonitor monitor) throws CoreException, UnexpectedRDataException {
+		final String[][] columnExpressions = new String[stores.length][];
+		int count = 0;
+		for (int i = 0; i < stores.length; i++) {
+			columnExpressions[i] = getColumnInfoExpressions(stores[i], expressions[i]);
+			count += columnExpressions[i].length;
+		}
+		final String[] allExpressions = new String[count];
+		count = 0;
+		for (int i = 0; i < stores.length; i++) {
+			System.arraycopy(columnExpressions[i], 0, allExpressions, count, columnExpressions[i].length);
+			count += columnExpressions[i].length;
+		}
+		
+		final RObject[] allResults = evalData(allExpressions, r, monitor);
+		
+		final RDataTableColumn[] columns = new RDataTableColumn[stores.length];
+		count = 0;
+		for (int i = 0; i < stores.length; i++) {
+			final RObject[] results = new RObject[columnExpressions[i].length];
+			System.arraycopy(allResults, count, results, 0, results.length);
+			count += results.length;
+			columns[i] = createColumn(stores[i], expressions[i], elementNames[i], columnIndexes[i],
+					columnNames[i], results );
+		}
+		return columns;
+	}
+	
+	/**
+	 * Creates the column for the vector.
+	 * 
+	 * @param infos the results of the expressions of {@link #getColumnInfoExpressions(RStore, String)}
+	 */
+	private RDataTableColumn createColumn(final RStore store, final String expression,
+			final RElementName elementName, final long columnIndex, final String columnName,
+			final RObject[] infos) throws UnexpectedRDataException {
 		
 		final ConstArrayList<String> classNames;
 		
-		RObject rObject;
-		{	final FunctionCall call = r.createFunctionCall("class"); //$NON-NLS-1$
-			call.add(expression);
-			rObject = call.evalData(monitor);
-			final RVector<RCharacterStore> names = RDataUtil.checkRCharVector(rObject);
+		{	final RVector<RCharacterStore> names = RDataUtil.checkRCharVector(infos[0]);
 			classNames = new ConstArrayList<String>(names.getData().toArray());
 		}
 		RDataTableColumn column;
@@ -895,21 +995,17 @@ public abstract class AbstractRDataProvider<T extends RObject> implements IDataP
 					IRDataTableVariable.LOGI, store, classNames, format);
 			break;
 		case RStore.NUMERIC:
-			if (checkDateFormat(expression, classNames, format, r, monitor)) {
+			if (checkDateFormat(classNames, format)) {
 				column = new RDataTableColumn(columnIndex, columnName, expression, elementName,
 						IRDataTableVariable.DATE, store, classNames, format);
 				break;
 			}
-			if (checkDateTimeFormat(expression, classNames, format, r, monitor)) {
+			if (checkDateTimeFormat(classNames, infos[1], format)) {
 				column = new RDataTableColumn(columnIndex, columnName, expression, elementName,
 						IRDataTableVariable.DATETIME, store, classNames, format);
 				break;
 			}
-			{	final FunctionCall call = r.createFunctionCall("rj:::.getFormatInfo"); //$NON-NLS-1$
-				call.add("x", expression); //$NON-NLS-1$
-				rObject = call.evalData(monitor);
-			}
-			{	final RIntegerStore formatInfo = RDataUtil.checkRIntVector(rObject).getData();
+			{	final RIntegerStore formatInfo = RDataUtil.checkRIntVector(infos[1]).getData();
 				RDataUtil.checkLengthGreaterOrEqual(formatInfo, 3);
 				format.setAutoWidth(Math.max(formatInfo.getInt(0), 3));
 				format.initNumFormat(formatInfo.getInt(1), formatInfo.getInt(2) > 0 ?
@@ -919,21 +1015,17 @@ public abstract class AbstractRDataProvider<T extends RObject> implements IDataP
 				break;
 			}
 		case RStore.INTEGER:
-			if (checkDateFormat(expression, classNames, format, r, monitor)) {
+			if (checkDateFormat(classNames, format)) {
 				column = new RDataTableColumn(columnIndex, columnName, expression, elementName,
 						IRDataTableVariable.DATE, store, classNames, format);
 				break;
 			}
-			if (checkDateTimeFormat(expression, classNames, format, r, monitor)) {
+			if (checkDateTimeFormat(classNames, infos[1], format)) {
 				column = new RDataTableColumn(columnIndex, columnName, expression, elementName,
 						IRDataTableVariable.DATETIME, store, classNames, format);
 				break;
 			}
-			{	final FunctionCall call = r.createFunctionCall("rj:::.getFormatInfo"); //$NON-NLS-1$
-				call.add("x", expression); //$NON-NLS-1$
-				rObject = call.evalData(monitor);
-			}
-			{	final RIntegerStore formatInfo = RDataUtil.checkRIntVector(rObject).getData();
+			{	final RIntegerStore formatInfo = RDataUtil.checkRIntVector(infos[1]).getData();
 				RDataUtil.checkLengthGreaterOrEqual(formatInfo, 1);
 				format.setAutoWidth(Math.max(formatInfo.getInt(0), 3));
 				column = new RDataTableColumn(columnIndex, columnName, expression, elementName,
@@ -941,11 +1033,7 @@ public abstract class AbstractRDataProvider<T extends RObject> implements IDataP
 				break;
 			}
 		case RStore.CHARACTER:
-			{	final FunctionCall call = r.createFunctionCall("rj:::.getFormatInfo"); //$NON-NLS-1$
-				call.add("x", expression); //$NON-NLS-1$
-				rObject = call.evalData(monitor);
-			}
-			{	final RIntegerStore formatInfo = RDataUtil.checkRIntVector(rObject).getData();
+			{	final RIntegerStore formatInfo = RDataUtil.checkRIntVector(infos[1]).getData();
 				RDataUtil.checkLengthGreaterOrEqual(formatInfo, 1);
 				format.setAutoWidth(Math.max(formatInfo.getInt(0), 3));
 				column = new RDataTableColumn(columnIndex, columnName, expression, elementName,
@@ -953,11 +1041,7 @@ public abstract class AbstractRDataProvider<T extends RObject> implements IDataP
 				break;
 			}
 		case RStore.COMPLEX:
-			{	final FunctionCall call = r.createFunctionCall("rj:::.getFormatInfo"); //$NON-NLS-1$
-				call.add("x", expression); //$NON-NLS-1$
-				rObject = call.evalData(monitor);
-			}
-			{	final RIntegerStore formatInfo = RDataUtil.checkRIntVector(rObject).getData();
+			{	final RIntegerStore formatInfo = RDataUtil.checkRIntVector(infos[1]).getData();
 				RDataUtil.checkLengthGreaterOrEqual(formatInfo, 3);
 				format.setAutoWidth(Math.max(formatInfo.getInt(0), 3));
 				format.initNumFormat(formatInfo.getInt(1), formatInfo.getInt(2) > 0 ?
@@ -972,12 +1056,8 @@ public abstract class AbstractRDataProvider<T extends RObject> implements IDataP
 					IRDataTableVariable.RAW, store, classNames, format);
 			break;
 		case RStore.FACTOR:
-			{	final FunctionCall call = r.createFunctionCall("levels"); //$NON-NLS-1$
-				call.add(expression);
-				rObject = call.evalData(monitor);
-			}
 			{	format.setAutoWidth(3);
-				final RCharacterStore levels = RDataUtil.checkRCharVector(rObject).getData();
+				final RCharacterStore levels = RDataUtil.checkRCharVector(infos[1]).getData();
 				final int l = RDataUtil.checkIntLength(levels);
 				for (int i = 0; i < l; i++) {
 					if (!levels.isNA(i)) {
@@ -999,9 +1079,8 @@ public abstract class AbstractRDataProvider<T extends RObject> implements IDataP
 		return column;
 	}
 	
-	protected boolean checkDateFormat(final String expression, final List<String> classNames,
-			final RDataFormatter formatter,
-			final IRToolService r, final IProgressMonitor monitor) throws CoreException, UnexpectedRDataException {
+	protected boolean checkDateFormat(final List<String> classNames,
+			final RDataFormatter formatter) throws UnexpectedRDataException {
 		if (classNames.contains("Date")) { //$NON-NLS-1$
 			formatter.initDateFormat(RDataFormatter.MILLIS_PER_DAY);
 			formatter.setAutoWidth(10);
@@ -1010,21 +1089,17 @@ public abstract class AbstractRDataProvider<T extends RObject> implements IDataP
 		return false;
 	}
 	
-	protected boolean checkDateTimeFormat(final String expression, final List<String> classNames,
-			final RDataFormatter formatter,
-			final IRToolService r, final IProgressMonitor monitor) throws CoreException, UnexpectedRDataException {
-		RObject rObject;
+	/**
+	 * @param tzone the attribute 'tzone' of the vector
+	 */
+	protected boolean checkDateTimeFormat(final List<String> classNames, final RObject tzone,
+			final RDataFormatter formatter) throws UnexpectedRDataException {
 		if (classNames.contains("POSIXct")) { //$NON-NLS-1$
 			formatter.initDateTimeFormat(RDataFormatter.MILLIS_PER_SECOND);
 			formatter.setAutoWidth(27);
 			
-			{	final FunctionCall call = r.createFunctionCall("base::attr"); //$NON-NLS-1$
-				call.add(expression);
-				call.addChar("tzone"); //$NON-NLS-1$
-				rObject = call.evalData(monitor);
-			}
-			if (rObject.getRObjectType() != RObject.TYPE_NULL) {
-				formatter.setDateTimeZone(TimeZone.getTimeZone(RDataUtil.checkSingleCharValue(rObject)));
+			if (tzone != null && tzone.getRObjectType() != RObject.TYPE_NULL) {
+				formatter.setDateTimeZone(TimeZone.getTimeZone(RDataUtil.checkSingleCharValue(tzone)));
 			}
 			return true;
 		}
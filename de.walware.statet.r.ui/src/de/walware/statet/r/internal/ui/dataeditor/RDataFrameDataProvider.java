@@ -18,6 +18,7 @@ import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
 import de.walware.ecommons.collections.ConstArrayList;
 
 import de.walware.rj.data.RDataFrame;
+import de.walware.rj.data.RStore;
 import de.walware.rj.data.UnexpectedRDataException;
 import de.walware.rj.eclient.IRToolService;
 import de.walware.rj.services.utils.dataaccess.LazyRStore;
@@ -48,15 +49,22 @@ public class RDataFrameDataProvider extends AbstractRDataProvider<RDataFrame> {
 		description.setRowHeaderColumns(
 				createNamesColumn("attr(" + fInput.getFullName() + ", 'row.names', exact= TRUE)", //$NON-NLS-1$ //$NON-NLS-2$
 						struct.getRowCount(), r, monitor ));
-		final RDataTableColumn[] dataColumns = new RDataTableColumn[columnCount];
+		final RStore[] stores = new RStore[columnCount];
+		final String[] expressions = new String[columnCount];
+		final RElementName[] elementNames = new RElementName[columnCount];
+		final long[] columnIndexes = new long[columnCount];
+		final String[] columnNames = new String[columnCount];
 		for (int i = 0; i < columnCount; i++) {
 			final String columnName = struct.getColumnNames().getChar(i);
-			final RElementName elementName = RElementName.concat(new ConstArrayList<RElementName>(BASE_NAME,
+			stores[i] = struct.getColumn(i);
+			expressions[i] = fInput.getFullName() + "[[" + (i+1) + "]]";
+			elementNames[i] = RElementName.concat(new ConstArrayList<RElementName>(BASE_NAME,
 					RElementName.create(RElementName.SUB_NAMEDPART, columnName, i+1 )));
-			dataColumns[i] = createColumn(struct.getColumn(i),
-					fInput.getFullName() + "[[" + (i+1) + "]]", elementName, i, columnName,
-					r, monitor);
+			columnIndexes[i] = i;
+			columnNames[i] = columnName;
 		}
+		final RDataTableColumn[] dataColumns = createColumns(stores, expressions, elementNames,
+				columnIndexes, columnNames, r, monitor );
 		description.setDataColumns(dataColumns);
 		description.setVariables(dataColumns);
 		
@@ -27,10 +27,12 @@ import de.walware.ecommons.ts.IToolRunnable;
 import de.walware.ecommons.ts.IToolService;
 
 import de.walware.rj.data.RFactorStore;
+import de.walware.rj.data.RObject;
 import de.walware.rj.data.UnexpectedRDataException;
 import de.walware.rj.eclient.IRToolService;
 
 import de.walware.statet.r.internal.ui.dataeditor.RDataTableContentDescription;
+import de.walware.statet.r.nico.AbstractRController;
 import de.walware.statet.r.ui.dataeditor.IRDataTableVariable;
 import de.walware.statet.r.ui.dataeditor.RDataTableColumn;
 
@@ -354,26 +356,47 @@ public class FilterSet {
 		synchronized (this) {
 			filters = fFilters.toArray(new VariableFilter[fFilters.size()]);
 		}
+		final List<VariableFilter> updateFilters = new ArrayList<VariableFilter>(filters.length);
+		final List<String> updateExpressions = new ArrayList<String>(filters.length);
 		for (int i = 0; i < filters.length; i++) {
 			final VariableFilter filter = filters[i];
 			if (all || filter.fUpdateScheduled) {
 				filter.fUpdateScheduled = false;
-				Exception error = null;
-				try {
-					filter.update(r, monitor);
-				}
-				catch (final CoreException e) {
-					error = e;
-				}
-				catch (final UnexpectedRDataException e) {
-					error = e;
-				}
-				if (error != null) {
-					error.printStackTrace();
-					filters[i].setError(error.getMessage());
+				final String expression = filter.createUpdateExpression();
+				if (expression != null) {
+					updateFilters.add(filter);
+					updateExpressions.add(expression);
 				}
 			}
 		}
+		RObject[] data = null;
+		if (updateExpressions.size() > 1 && r instanceof AbstractRController) {
+			// if the combined call fails, the filters are loaded separately below
+			try {
+				data = ((AbstractRController) r).tryEvalDataBatch(
+						updateExpressions.toArray(new String[updateExpressions.size()]), monitor );
+			}
+			catch (final CoreException e) {
+				data = null;
+			}
+		}
+		for (int i = 0; i < updateFilters.size(); i++) {
+			final VariableFilter filter = updateFilters.get(i);
+			Exception error = null;
+			try {
+				filter.update((data != null) ? data[i] : r.evalData(updateExpressions.get(i), monitor));
+			}
+			catch (final CoreException e) {
+				error = e;
+			}
+			catch (final UnexpectedRDataException e) {
+				error = e;
+			}
+			if (error != null) {
+				error.printStackTrace();
+				filter.setError(error.getMessage());
+			}
+		}
 		updateFilter(true);
 	}
 	
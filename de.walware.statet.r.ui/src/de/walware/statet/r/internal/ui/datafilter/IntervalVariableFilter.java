@@ -12,15 +12,11 @@
 package de.walware.statet.r.internal.ui.datafilter;
 
 import org.eclipse.core.databinding.observable.value.WritableValue;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IProgressMonitor;
 
 import de.walware.rj.data.RDataUtil;
 import de.walware.rj.data.RObject;
 import de.walware.rj.data.RStore;
 import de.walware.rj.data.UnexpectedRDataException;
-import de.walware.rj.eclient.IRToolService;
-import de.walware.rj.services.FunctionCall;
 
 import de.walware.statet.r.ui.dataeditor.RDataTableColumn;
 
@@ -91,17 +87,15 @@ public class IntervalVariableFilter extends VariableFilter {
 	}
 	
 	@Override
-	protected void update(final IRToolService r,
-			final IProgressMonitor monitor) throws CoreException, UnexpectedRDataException {
+	protected String createUpdateExpression() {
+		return "rj:::.getDataIntervalValues(" + getColumn().getRExpression() + ')'; //$NON-NLS-1$
+	}
+	
+	@Override
+	protected void update(final RObject data) throws UnexpectedRDataException {
 		final RDataTableColumn column = getColumn();
-		{	final FunctionCall fcall = r.createFunctionCall("rj:::.getDataIntervalValues"); //$NON-NLS-1$
-			fcall.add(column.getRExpression());
-			
-			final RObject data = fcall.evalData(monitor);
-			RDataUtil.checkRVector(data);
-			setValues(RDataUtil.checkData(data.getData(), column.getDataStore().getStoreType()));
-			return;
-		}
+		RDataUtil.checkRVector(data);
+		setValues(RDataUtil.checkData(data.getData(), column.getDataStore().getStoreType()));
 	}
 	
 	@Override
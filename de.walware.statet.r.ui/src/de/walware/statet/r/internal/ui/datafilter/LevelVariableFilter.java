@@ -14,15 +14,11 @@ package de.walware.statet.r.internal.ui.datafilter;
 import java.util.Collection;
 
 import org.eclipse.core.databinding.observable.set.WritableSet;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IProgressMonitor;
 
 import de.walware.rj.data.RDataUtil;
 import de.walware.rj.data.RObject;
 import de.walware.rj.data.RStore;
 import de.walware.rj.data.UnexpectedRDataException;
-import de.walware.rj.eclient.IRToolService;
-import de.walware.rj.services.FunctionCall;
 
 import de.walware.statet.r.core.RUtil;
 import de.walware.statet.r.ui.dataeditor.RDataTableColumn;
@@ -83,27 +79,24 @@ public class LevelVariableFilter extends VariableFilter {
 	}
 	
 	@Override
-	protected void update(final IRToolService r,
-			final IProgressMonitor monitor) throws CoreException, UnexpectedRDataException {
+	protected String createUpdateExpression() {
+		return "rj:::.getDataLevelValues(" + getColumn().getRExpression() + ", max = 1000L)"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+	
+	@Override
+	protected void update(final RObject data) throws UnexpectedRDataException {
 		final RDataTableColumn column = getColumn();
-		{	final FunctionCall fcall = r.createFunctionCall("rj:::.getDataLevelValues"); //$NON-NLS-1$
-			fcall.add(column.getRExpression());
-			fcall.addInt("max", 1000); //$NON-NLS-1$
-			
-			final RObject data = fcall.evalData(monitor);
-			if (data.getRObjectType() == RObject.TYPE_NULL) {
-				setError(Messages.LevelFilter_TooMuch_message);
-				return;
-			}
-			RDataUtil.checkRVector(data);
-			if (column.getDataStore().getStoreType() == RStore.FACTOR) {
-				setValues(RDataUtil.checkData(data.getData(), RStore.CHARACTER));
-			}
-			else {
-				setValues(RDataUtil.checkData(data.getData(), column.getDataStore().getStoreType()));
-			}
+		if (data.getRObjectType() == RObject.TYPE_NULL) {
+			setError(Messages.LevelFilter_TooMuch_message);
 			return;
 		}
+		RDataUtil.checkRVector(data);
+		if (column.getDataStore().getStoreType() == RStore.FACTOR) {
+			setValues(RDataUtil.checkData(data.getData(), RStore.CHARACTER));
+		}
+		else {
+			setValues(RDataUtil.checkData(data.getData(), column.getDataStore().getStoreType()));
+		}
 	}
 	
 	@Override
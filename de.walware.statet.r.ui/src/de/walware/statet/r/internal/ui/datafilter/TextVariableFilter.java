@@ -14,17 +14,14 @@ package de.walware.statet.r.internal.ui.datafilter;
 import java.util.Collection;
 
 import org.eclipse.core.databinding.observable.set.WritableSet;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IProgressMonitor;
 
 import de.walware.rj.data.RCharacterStore;
 import de.walware.rj.data.RDataUtil;
 import de.walware.rj.data.RObject;
 import de.walware.rj.data.UnexpectedRDataException;
 import de.walware.rj.data.defaultImpl.RCharacterDataImpl;
-import de.walware.rj.eclient.IRToolService;
-import de.walware.rj.services.FunctionCall;
 
+import de.walware.statet.r.core.RUtil;
 import de.walware.statet.r.ui.dataeditor.RDataTableColumn;
 
 
@@ -89,8 +86,7 @@ public class TextVariableFilter extends VariableFilter {
 	}
 	
 	@Override
-	protected void update(final IRToolService r, final IProgressMonitor monitor)
-			throws CoreException, UnexpectedRDataException {
+	protected String createUpdateExpression() {
 		final RDataTableColumn column = getColumn();
 		TextSearchType searchType;
 		String searchText;
@@ -101,19 +97,21 @@ public class TextVariableFilter extends VariableFilter {
 			fSearchType = null;
 		}
 		if (searchType != null && searchText != null) {
-			final FunctionCall fcall = r.createFunctionCall("rj:::.searchDataTextValues"); //$NON-NLS-1$
-			fcall.add(column.getRExpression());
-			fcall.addInt("type", searchType.getId()); //$NON-NLS-1$
-			fcall.addChar("pattern", searchText); //$NON-NLS-1$
-			fcall.addInt("max", 100); //$NON-NLS-1$
-			
-			final RObject data = fcall.evalData(monitor);
-			if (data.getRObjectType() == RObject.TYPE_NULL) {
-				setError(Messages.TextFilter_TooMuch_message);
-				return;
-			}
-			addValues(RDataUtil.checkRCharVector(data).getData());
+			return "rj:::.searchDataTextValues(" + column.getRExpression() + //$NON-NLS-1$
+					", type = " + searchType.getId() + "L" + //$NON-NLS-1$ //$NON-NLS-2$
+					", pattern = \"" + RUtil.escapeCompletely(searchText) + '"' + //$NON-NLS-1$
+					", max = 100L)"; //$NON-NLS-1$
+		}
+		return null;
+	}
+	
+	@Override
+	protected void update(final RObject data) throws UnexpectedRDataException {
+		if (data.getRObjectType() == RObject.TYPE_NULL) {
+			setError(Messages.TextFilter_TooMuch_message);
+			return;
 		}
+		addValues(RDataUtil.checkRCharVector(data).getData());
 	}
 	
 	private static RCharacterDataImpl combine(final RCharacterDataImpl old, final RCharacterStore add) {
@@ -18,12 +18,10 @@ import org.eclipse.core.databinding.observable.set.SetChangeEvent;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
 import org.eclipse.core.databinding.observable.value.IValueChangeListener;
 import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IProgressMonitor;
 
+import de.walware.rj.data.RObject;
 import de.walware.rj.data.UnexpectedRDataException;
 import de.walware.rj.data.defaultImpl.RCharacterDataImpl;
-import de.walware.rj.eclient.IRToolService;
 
 import de.walware.statet.r.ui.dataeditor.RDataTableColumn;
 
@@ -122,8 +120,22 @@ public abstract class VariableFilter {
 		fListener = listener;
 	}
 	
-	protected abstract void update(IRToolService r,
-			IProgressMonitor monitor) throws CoreException, UnexpectedRDataException;
+	/**
+	 * Returns the R expression loading the data required to update the filter.
+	 * 
+	 * The expressions of the filters are evaluated together, so the expression must not have
+	 * side effects.
+	 * 
+	 * @return the expression or <code>null</code> if no update is required
+	 */
+	protected abstract String createUpdateExpression();
+	
+	/**
+	 * Updates the filter with the result of the expression of {@link #createUpdateExpression()}.
+	 * 
+	 * @param data the result of the expression
+	 */
+	protected abstract void update(RObject data) throws UnexpectedRDataException;
 	
 	protected void notifyListeners() {
 		if (fListener != null) {
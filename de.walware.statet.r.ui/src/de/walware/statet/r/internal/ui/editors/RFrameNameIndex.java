@@ -0,0 +1,220 @@
+/*=============================================================================#
+ # Copyright (c) 2015 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.statet.r.internal.ui.editors;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import de.walware.ecommons.ltk.IElementName;
+
+import de.walware.statet.r.console.core.RWorkspace.ICombinedREnvironment;
+import de.walware.statet.r.core.RSymbolComparator;
+import de.walware.statet.r.core.model.IRElement;
+import de.walware.statet.r.core.model.IRFrame;
+import de.walware.statet.r.core.model.IRFrameInSource;
+
+
+/**
+ * Sorted index of the elements of an R frame by their name, to find the elements matching
+ * a {@link RSymbolComparator.PrefixPattern} without testing all elements of the frame.
+ * 
+ * There are indexes for the children of a frame ({@link #getCandidates(IRFrame, String)}) and for
+ * the access names of a frame in source ({@link #getAccessNameCandidates(IRFrameInSource, String)}).
+ * 
+ * The indexes are cached for the frame objects. An index is valid only for the same object
+ * (identity); for R environments additionally only with the same data stamp
+ * ({@link ICombinedREnvironment#getStamp()}), frames in source don't change, but their list of
+ * children can be recreated. An index refers to the elements only by their position, so the
+ * cache doesn't prevent the collection of the frame.
+ */
+public class RFrameNameIndex {
+	
+	
+	/** Min number of elements of a frame to create an index */
+	private static final int MIN_SIZE = 64;
+	
+	private static final Map<IRFrame, RFrameNameIndex> CHILDREN_CACHE = new WeakHashMap<IRFrame, RFrameNameIndex>();
+	private static final Map<IRFrame, RFrameNameIndex> ACCESS_NAMES_CACHE = new WeakHashMap<IRFrame, RFrameNameIndex>();
+	
+	
+	private static final class Entry {
+		
+		final String key;
+		final int idx;
+		
+		public Entry(final String key, final int idx) {
+			this.key = key;
+			this.idx = idx;
+		}
+		
+	}
+	
+	private static final Comparator<Entry> KEY_COMPARATOR = new Comparator<Entry>() {
+		@Override
+		public int compare(final Entry o1, final Entry o2) {
+			return o1.key.compareTo(o2.key);
+		}
+	};
+	
+	
+	/**
+	 * Returns the elements of the frame which can match the specified prefix.
+	 * 
+	 * The returned list contains at least all elements whose name matches a
+	 * {@link RSymbolComparator.PrefixPattern} of the prefix; the caller must still test the
+	 * elements by the pattern.
+	 * 
+	 * @param frame the frame
+	 * @param namePrefix the prefix
+	 * @return list with the candidate elements
+	 */
+	public static List<? extends IRElement> getCandidates(final IRFrame frame, final String namePrefix) {
+		final List<? extends IRElement> elements = frame.getModelChildren(null);
+		if (elements.size() < MIN_SIZE) {
+			return elements;
+		}
+		final int stamp;
+		final Object content;
+		if (frame instanceof ICombinedREnvironment) {
+			stamp = ((ICombinedREnvironment) frame).getStamp();
+			content = null;
+		}
+		else {
+			stamp = 0;
+			content = elements;
+		}
+		RFrameNameIndex index;
+		synchronized (CHILDREN_CACHE) {
+			index = CHILDREN_CACHE.get(frame);
+		}
+		if (index == null || !index.isValid(frame, stamp, content, elements.size())) {
+			final String[] names = new String[elements.size()];
+			for (int i = 0; i < names.length; i++) {
+				final IElementName elementName = elements.get(i).getElementName();
+				names[i] = (elementName != null) ? elementName.getSegmentName() : null;
+			}
+			index = new RFrameNameIndex(frame, stamp, content, names);
+			synchronized (CHILDREN_CACHE) {
+				CHILDREN_CACHE.put(frame, index);
+			}
+		}
+		final int[] range = index.getRange(namePrefix);
+		final List<IRElement> candidates = new ArrayList<IRElement>(range[1] - range[0]);
+		for (int i = range[0]; i < range[1]; i++) {
+			candidates.add(elements.get(index.fEntries[i].idx));
+		}
+		return candidates;
+	}
+	
+	/**
+	 * Returns the access names of the frame which can match the specified prefix.
+	 * 
+	 * The returned collection contains at least all names matching a
+	 * {@link RSymbolComparator.PrefixPattern} of the prefix; the caller must still test the
+	 * names by the pattern.
+	 * 
+	 * @param frame the frame
+	 * @param namePrefix the prefix
+	 * @return collection with the candidate names
+	 * @see IRFrameInSource#getAllAccessNames()
+	 */
+	public static Collection<String> getAccessNameCandidates(final IRFrameInSource frame, final String namePrefix) {
+		final Set<String> names = frame.getAllAccessNames();
+		if (names.size() < MIN_SIZE) {
+			return names;
+		}
+		RFrameNameIndex index;
+		synchronized (ACCESS_NAMES_CACHE) {
+			index = ACCESS_NAMES_CACHE.get(frame);
+		}
+		if (index == null || !index.isValid(frame, 0, null, names.size())) {
+			index = new RFrameNameIndex(frame, 0, null, names.toArray(new String[names.size()]));
+			synchronized (ACCESS_NAMES_CACHE) {
+				ACCESS_NAMES_CACHE.put(frame, index);
+			}
+		}
+		final int[] range = index.getRange(namePrefix);
+		final List<String> candidates = new ArrayList<String>(range[1] - range[0]);
+		for (int i = range[0]; i < range[1]; i++) {
+			candidates.add(index.fNames[index.fEntries[i].idx]);
+		}
+		return candidates;
+	}
+	
+	
+	/** Weak: the cache must not prevent the collection of the frame (key) */
+	private final WeakReference<IRFrame> fFrame;
+	private final int fStamp;
+	private final WeakReference<Object> fContent;
+	
+	private final String[] fNames;
+	private final Entry[] fEntries;
+	
+	
+	private RFrameNameIndex(final IRFrame frame, final int stamp, final Object content,
+			final String[] names) {
+		fFrame = new WeakReference<IRFrame>(frame);
+		fStamp = stamp;
+		fContent = (content != null) ? new WeakReference<Object>(content) : null;
+		fNames = names;
+		final Entry[] entries = new Entry[names.length];
+		for (int i = 0; i < entries.length; i++) {
+			final String name = names[i];
+			entries[i] = new Entry((name != null) ? RSymbolComparator.PrefixPattern.createIndexKey(name) : "", //$NON-NLS-1$
+					i );
+		}
+		Arrays.sort(entries, KEY_COMPARATOR);
+		fEntries = entries;
+	}
+	
+	
+	private boolean isValid(final IRFrame frame, final int stamp, final Object content,
+			final int size) {
+		// the cache map compares the frames by equals, which is not sufficient
+		return (fFrame.get() == frame && fStamp == stamp
+				&& ((fContent != null) ? fContent.get() == content : content == null)
+				&& fEntries.length == size );
+	}
+	
+	/**
+	 * Returns the range of the entries with a key starting with the key of the prefix.
+	 * 
+	 * @return start (inclusive) and end (exclusive) index of the entries
+	 */
+	private int[] getRange(final String namePrefix) {
+		final String prefixKey = RSymbolComparator.PrefixPattern.createIndexKey(namePrefix);
+		int low = 0;
+		int high = fEntries.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (fEntries[mid].key.compareTo(prefixKey) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		int end = low;
+		while (end < fEntries.length && fEntries[end].key.startsWith(prefixKey)) {
+			end++;
+		}
+		return new int[] { low, end };
+	}
+	
+}
@@ -258,6 +258,7 @@ public class RHelpUIServlet extends RHelpServlet implements IPropertyChangeListe
 			synchronized (fRCodeScanner) {
 				fRCodeScanner.handleSettingsChanged(groupIds, options);
 			}
+			invalidateRenderedPages();
 		}
 	}
 	
@@ -284,6 +285,7 @@ public class RHelpUIServlet extends RHelpServlet implements IPropertyChangeListe
 		});
 		sb.append(".header { display: none; }"); //$NON-NLS-1$
 		fCssStyle = sb.toString();
+		invalidateRenderedPages();
 	}
 	
 	protected void collectCss(final StringBuilder sb) {
@@ -12,6 +12,7 @@
 package de.walware.statet.r.ui.sourceediting;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -84,6 +85,7 @@ import de.walware.statet.r.core.rsource.ast.NodeType;
 import de.walware.statet.r.core.rsource.ast.RAstNode;
 import de.walware.statet.r.internal.ui.editors.RArgumentListContextInformation;
 import de.walware.statet.r.internal.ui.editors.RElementCompletionProposal;
+import de.walware.statet.r.internal.ui.editors.RFrameNameIndex;
 import de.walware.statet.r.internal.ui.editors.RKeywordCompletionProposal;
 import de.walware.statet.r.internal.ui.editors.RSimpleCompletionComputer;
 import de.walware.statet.r.ui.RLabelProvider;
@@ -229,6 +231,9 @@ public class RElementsCompletionComputer implements IContentAssistComputer {
 	
 	private IStatus fResultStatus;
 	
+	/** References loading in the background in the current session, synchronized */
+	private final Set<RReference> fPendingReferences = new HashSet<RReference>();
+	
 	
 	public RElementsCompletionComputer() {
 		this(0);
@@ -264,6 +269,9 @@ public class RElementsCompletionComputer implements IContentAssistComputer {
 		fEnvirListPackages = null;
 		fAssist = null;
 		fResultStatus = null;
+		synchronized (fPendingReferences) {
+			fPendingReferences.clear();
+		}
 	}
 	
 	private void setStatus(final IStatus status) {
@@ -454,7 +462,7 @@ public class RElementsCompletionComputer implements IContentAssistComputer {
 				relevance = -10;
 				break;
 			}
-			final List<? extends IRElement> elements = envir.getModelChildren(null);
+			final List<? extends IRElement> elements = RFrameNameIndex.getCandidates(envir, namePrefix);
 			for (final IRElement element : elements) {
 				final IElementName elementName = element.getElementName();
 				final int c1type = (element.getElementType() & IModelElement.MASK_C1);
@@ -488,7 +496,7 @@ public class RElementsCompletionComputer implements IContentAssistComputer {
 			final IRFrame envir = iter.next();
 			if (envir instanceof IRFrameInSource) {
 				final IRFrameInSource sframe = (IRFrameInSource) envir;
-				final Set<String> elementNames = sframe.getAllAccessNames();
+				final Collection<String> elementNames = RFrameNameIndex.getAccessNameCandidates(sframe, namePrefix);
 				for (final String candidate : elementNames) {
 					if (candidate != null
 							&& pattern.matches(candidate) 
@@ -1024,43 +1032,58 @@ public class RElementsCompletionComputer implements IContentAssistComputer {
 		}
 	}
 	
+	/**
+	 * Schedules the loading of the reference from R.
+	 * 
+	 * The computation doesn't wait for R; the proposals are computed with the data already
+	 * available, and shown again including the elements of the reference, when it is loaded.
+	 * 
+	 * @return <code>null</code>
+	 */
 	private RObject loadReference(final RReference reference) {
+		synchronized (fPendingReferences) {
+			if (!fPendingReferences.add(reference)) {
+				return null;
+			}
+		}
 		final RProcess process = LoadReferenceRunnable.findRProcess((ICombinedRElement) reference);
 		if (process == null) {
+			synchronized (fPendingReferences) {
+				fPendingReferences.remove(reference);
+			}
 			return null;
 		}
 		final LoadReferenceRunnable runnable = new LoadReferenceRunnable(reference, process, 0,
 				"Content Assist" );
-		synchronized (runnable) {
-			if (process.getQueue().addHot(runnable).isOK()) {
-				try {
-					runnable.wait(250);
-					if (runnable.isFinished()) {
-						return runnable.getResolvedElement();
-					}
-					else {
-						runnable.setFinishRunnable(new ReshowCompletionsRunnable(fEditor, fAssist) {
-							@Override
-							protected void cancel() {
-								synchronized (runnable) {
-									runnable.cancel();
-								}
-								super.cancel();
-							}
-							@Override
-							protected boolean showCompletionsNow() {
-								return (runnable.getResolvedElement() != null);
-							}
-						});
-						return null;
-					}
-				}
-				catch (final InterruptedException e) {
+		final ReshowCompletionsRunnable reshowRunnable = new ReshowCompletionsRunnable(fEditor, fAssist) {
+			@Override
+			protected void cancel() {
+				synchronized (runnable) {
 					runnable.cancel();
 				}
+				super.cancel();
+			}
+			@Override
+			protected boolean showCompletionsNow() {
+				return (runnable.getResolvedElement() != null);
+			}
+		};
+		runnable.setFinishRunnable(new Runnable() {
+			@Override
+			public void run() {
+				// finished, failed or abandoned: allow to load it again
+				synchronized (fPendingReferences) {
+					fPendingReferences.remove(reference);
+				}
+				reshowRunnable.run();
+			}
+		});
+		if (!process.getQueue().addHot(runnable).isOK()) {
+			synchronized (fPendingReferences) {
+				fPendingReferences.remove(reference);
 			}
-			return null;
 		}
+		return null;
 	}
 	
 }
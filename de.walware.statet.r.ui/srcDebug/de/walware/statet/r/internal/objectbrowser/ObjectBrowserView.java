@@ -91,6 +91,7 @@ import de.walware.ecommons.ui.util.TreeSelectionProxy;
 import de.walware.ecommons.ui.util.UIAccess;
 
 import de.walware.statet.base.ui.StatetImages;
+import de.walware.statet.nico.core.runtime.ICoalescingRunnable;
 import de.walware.statet.nico.core.runtime.ToolProcess;
 import de.walware.statet.nico.core.util.IToolProvider;
 import de.walware.statet.nico.core.util.IToolRetargetable;
@@ -132,12 +133,18 @@ public class ObjectBrowserView extends ViewPart implements IToolProvider {
 	private static final String OPEN_COMMAND_ID = "org.eclipse.jdt.ui.edit.text.java.open.editor"; //$NON-NLS-1$
 	
 	
-	private class RefreshWorkspaceR extends AbstractRDataRunnable {
+	private class RefreshWorkspaceR extends AbstractRDataRunnable implements ICoalescingRunnable {
 		
 		public RefreshWorkspaceR() {
 			super("r/objectbrowser/refreshWorkspace.force", "Update Object Browser"); //$NON-NLS-1$
 		}
 		
+		@Override
+		public Object getCoalescingKey() {
+			// the refresh forces the update of this view
+			return ObjectBrowserView.this;
+		}
+		
 		@Override
 		public boolean changed(final int event, final ITool tool) {
 			if (event == MOVING_FROM) {